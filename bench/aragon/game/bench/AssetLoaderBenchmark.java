@@ -0,0 +1,64 @@
+package aragon.game.bench;
+
+import aragon.game.assets.AssetLoader;
+import aragon.game.assets.AssetLoadingException;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Loads every asset from scratch. With the cache, images and data come from an asset cache the world
+// creation has already filled, as on a warm start. Lazy loading only indexes sprites and animations.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+@Fork(1)
+public class AssetLoaderBenchmark {
+    @Param({"false", "true"})
+    public boolean cached;
+
+    @Param({"false", "true"})
+    public boolean lazy;
+
+    private Path cacheDirectory;
+    private BenchmarkWorld world;
+    private AssetLoader assetLoader;
+
+    @Setup(org.openjdk.jmh.annotations.Level.Trial)
+    public void setUp() throws InterruptedException, IOException {
+        cacheDirectory = Files.createTempDirectory("asset-loader-benchmark");
+        System.setProperty("aragon.assets.cache.dir", cacheDirectory.toString());
+        System.setProperty("aragon.assets.cache.disabled", Boolean.toString(!cached));
+
+        world = BenchmarkWorld.create(32, 32);
+        assetLoader = AssetLoader.build(world.getGame());
+        assetLoader.setLazy(lazy);
+    }
+
+    @Setup(org.openjdk.jmh.annotations.Level.Invocation)
+    public void clearAssets() {
+        assetLoader.cleanup();
+    }
+
+    @TearDown(org.openjdk.jmh.annotations.Level.Trial)
+    public void tearDown() throws IOException {
+        world.close();
+        try (Stream<Path> paths = Files.walk(cacheDirectory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public AssetLoader initialize() throws AssetLoadingException {
+        assetLoader.initialize();
+        return assetLoader;
+    }
+}
@@ -0,0 +1,131 @@
+package aragon.game.bench;
+
+import aragon.game.assets.AssetLoader;
+import aragon.game.assets.data.LevelData;
+import aragon.game.entity.EntityManager;
+import aragon.game.entity.player.Player;
+import aragon.game.level.Level;
+import aragon.game.main.Game;
+import aragon.game.main.loop.GameLoop;
+import aragon.game.main.loop.LoopStats;
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+// Headless game whose loop sits idle, so benchmarks can drive the level from their own thread.
+public class BenchmarkWorld implements AutoCloseable {
+    public static final int TILE_SIZE = 64;
+    public static final int SCREEN_WIDTH = 256 * 4;
+    public static final int SCREEN_HEIGHT = 192 * 4;
+
+    // Tile ids from the overworld.garden tile set.
+    private static final int GROUND_TILE = 0;
+    private static final int WALL_TILE = 1;
+
+    private final Game game;
+    private final Level level;
+
+    private BenchmarkWorld(int width, int height, boolean streaming) throws InterruptedException {
+        System.setProperty("java.awt.headless", "true");
+
+        IdleLoop loop = new IdleLoop();
+        game = new Game("Benchmark world", TILE_SIZE, SCREEN_WIDTH, SCREEN_HEIGHT, true);
+        game.setLoop(loop);
+        game.launch();
+        loop.started.await();
+
+        if (game.getState() == null) {
+            throw new IllegalStateException("Headless game did not start, check the asset loading log.");
+        }
+        level = game.getState().getLevel();
+        level.setStreaming(streaming);
+        level.loadLevelData(createLevelData(width, height));
+    }
+
+    public static BenchmarkWorld create(int width, int height) throws InterruptedException {
+        return new BenchmarkWorld(width, height, false);
+    }
+
+    public static BenchmarkWorld createStreamed(int width, int height) throws InterruptedException {
+        return new BenchmarkWorld(width, height, true);
+    }
+
+    public Game getGame() { return game; }
+    public Level getLevel() { return level; }
+    public EntityManager getEntityManager() { return level.getEntityManager(); }
+    public Player getPlayer() { return level.getEntityManager().getPlayer(); }
+
+    // Spreads wanderers two tiles apart, row by row, inside the walls.
+    public void addWanderers(int count) {
+        int columns = Math.max(1, (level.getWidth() - 2) / 2);
+        for (int i = 0; i < count; i++) {
+            int tileX = 1 + (i % columns) * 2;
+            int tileY = 1 + (i / columns) * 2;
+            getEntityManager().addEntity(new Wanderer(getEntityManager(), tileX * TILE_SIZE, tileY * TILE_SIZE, TILE_SIZE / 2, i));
+        }
+    }
+
+    @Override
+    public void close() {
+        game.abort();
+        // Each world loads assets from scratch, as the benchmarks have always measured.
+        AssetLoader assetLoader = AssetLoader.get();
+        if (assetLoader != null) assetLoader.cleanup();
+    }
+
+    // Ground everywhere, walls around the border. Rows share two arrays so large maps stay small before loading.
+    private static LevelData createLevelData(int width, int height) {
+        JsonArray wallRow = new JsonArray();
+        JsonArray groundRow = new JsonArray();
+        for (int x = 0; x < width; x++) {
+            wallRow.add(WALL_TILE);
+            groundRow.add(x == 0 || x == width - 1 ? WALL_TILE : GROUND_TILE);
+        }
+
+        JsonArray rows = new JsonArray();
+        for (int y = 0; y < height; y++) {
+            rows.add(y == 0 || y == height - 1 ? wallRow : groundRow);
+        }
+
+        JsonObject terrain = new JsonObject();
+        terrain.addProperty("name", "ground");
+        terrain.addProperty("type", "TERRAIN");
+        terrain.add("data", rows);
+
+        JsonArray map = new JsonArray();
+        map.add(terrain);
+
+        JsonObject spawnPoint = new JsonObject();
+        spawnPoint.addProperty("x", 2 * TILE_SIZE);
+        spawnPoint.addProperty("y", 2 * TILE_SIZE);
+
+        JsonObject levelData = new JsonObject();
+        levelData.addProperty("width", width);
+        levelData.addProperty("height", height);
+        levelData.addProperty("tileSet", "overworld.garden");
+        levelData.add("spawnPoint", spawnPoint);
+        levelData.add("map", map);
+
+        return new Gson().fromJson(levelData, LevelData.class);
+    }
+
+    private static class IdleLoop implements GameLoop {
+        private final LoopStats stats = new LoopStats();
+        private final CountDownLatch started = new CountDownLatch(1);
+
+        @Override
+        public void run(BooleanSupplier running, Runnable update, Runnable render) {
+            started.countDown();
+            while (running.getAsBoolean()) {
+                LockSupport.parkNanos(1_000_000L);
+            }
+        }
+
+        @Override
+        public LoopStats getStats() { return stats; }
+    }
+}
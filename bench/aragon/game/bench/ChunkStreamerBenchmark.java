@@ -0,0 +1,62 @@
+package aragon.game.bench;
+
+import aragon.game.level.ChunkStreamer;
+import aragon.game.level.Level;
+import aragon.game.main.GameCamera;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Game thread cost of streaming a 4096x4096 map. steady keeps the camera still with every wanted chunk
+// resident, sweep pans a tile per tick along a row with a small budget, so chunks keep loading and
+// evicting behind it.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ChunkStreamerBenchmark {
+    private static final int LEVEL_SIZE = 4096;
+
+    private BenchmarkWorld world;
+    private Level level;
+    private ChunkStreamer streamer;
+    private GameCamera camera;
+    private int step = 0;
+
+    @Setup(org.openjdk.jmh.annotations.Level.Trial)
+    public void setUp() throws InterruptedException {
+        world = BenchmarkWorld.createStreamed(LEVEL_SIZE, LEVEL_SIZE);
+        level = world.getLevel();
+        level.setStreamingBudget(4L << 20);
+        streamer = level.getStreamer();
+        camera = world.getGame().getCamera();
+        world.getPlayer().setPosition(LEVEL_SIZE / 2.0 * BenchmarkWorld.TILE_SIZE, LEVEL_SIZE / 2.0 * BenchmarkWorld.TILE_SIZE);
+        camera.setCameraSubject(world.getPlayer());
+        for (int i = 0; i < 100; i++) {
+            streamer.update();
+            Thread.sleep(1);
+        }
+    }
+
+    @TearDown(org.openjdk.jmh.annotations.Level.Trial)
+    public void tearDown() {
+        world.close();
+    }
+
+    @Benchmark
+    public int steady() {
+        streamer.update();
+        return streamer.getResidentChunkCount();
+    }
+
+    @Benchmark
+    public int sweep() {
+        int span = (LEVEL_SIZE - BenchmarkWorld.SCREEN_WIDTH / BenchmarkWorld.TILE_SIZE) * BenchmarkWorld.TILE_SIZE;
+        step = (step + BenchmarkWorld.TILE_SIZE) % span;
+        camera.move(step == 0 ? -span : BenchmarkWorld.TILE_SIZE, 0);
+        streamer.update();
+        return streamer.getResidentChunkCount();
+    }
+}
@@ -0,0 +1,63 @@
+package aragon.game.bench;
+
+import aragon.game.entity.player.Player;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CreatureMoveBenchmark {
+    private BenchmarkWorld world;
+    private Player player;
+    private Wanderer crowded;
+
+    @Setup(org.openjdk.jmh.annotations.Level.Trial)
+    public void setUp() throws InterruptedException {
+        world = BenchmarkWorld.create(64, 64);
+        player = world.getPlayer();
+
+        // A wanderer boxed in by neighbours half a tile away, every move runs the full entity and tile checks.
+        int center = 32 * BenchmarkWorld.TILE_SIZE;
+        int gap = BenchmarkWorld.TILE_SIZE / 2;
+        crowded = new Wanderer(world.getEntityManager(), center, center, gap, 0);
+        world.getEntityManager().addEntity(crowded);
+        for (int dy = -1; dy <= 1; dy++) {
+            for (int dx = -1; dx <= 1; dx++) {
+                if (dx == 0 && dy == 0) continue;
+                world.getEntityManager().addEntity(new Wanderer(world.getEntityManager(), center + dx * gap, center + dy * gap, gap, 0));
+            }
+        }
+    }
+
+    @TearDown(org.openjdk.jmh.annotations.Level.Trial)
+    public void tearDown() {
+        world.close();
+    }
+
+    // Walks the player back and forth along a wall, sliding on one axis whenever the diagonal is blocked.
+    @Benchmark
+    public Player moveAlongWall() {
+        if (player.position.x <= 2 * BenchmarkWorld.TILE_SIZE) {
+            player.onActionReleased("player_left");
+            player.onActionTriggered("player_right");
+        } else if (player.position.x >= 60 * BenchmarkWorld.TILE_SIZE) {
+            player.onActionReleased("player_right");
+            player.onActionTriggered("player_left");
+        }
+        player.onActionTriggered("player_up");
+        player.move();
+        player.onActionReleased("player_up");
+        return player;
+    }
+
+    @Benchmark
+    public Wanderer moveBlocked() {
+        crowded.move();
+        return crowded;
+    }
+}
@@ -0,0 +1,51 @@
+package aragon.game.bench;
+
+import aragon.game.entity.EntityManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EntityManagerUpdateBenchmark {
+    @Param({"100", "1000", "10000"})
+    public int entityCount;
+
+    // Worker threads for the parallel update, 0 updates serially on the calling thread.
+    @Param({"0", "4"})
+    public int workerThreads;
+
+    private BenchmarkWorld world;
+    private EntityManager entityManager;
+    private ForkJoinPool pool;
+
+    @Setup(org.openjdk.jmh.annotations.Level.Trial)
+    public void setUp() throws InterruptedException {
+        // Two tiles per wanderer in each direction, plus the walls.
+        int side = (int) Math.ceil(Math.sqrt(entityCount)) * 2 + 2;
+        world = BenchmarkWorld.create(Math.max(side, 32), Math.max(side, 32));
+        world.addWanderers(entityCount);
+        entityManager = world.getEntityManager();
+        if (workerThreads > 0) {
+            pool = new ForkJoinPool(workerThreads);
+            entityManager.setUpdatePool(pool);
+        }
+    }
+
+    @TearDown(org.openjdk.jmh.annotations.Level.Trial)
+    public void tearDown() {
+        world.close();
+        if (pool != null) pool.shutdown();
+    }
+
+    @Benchmark
+    public EntityManager update() {
+        entityManager.update();
+        return entityManager;
+    }
+}
@@ -0,0 +1,74 @@
+package aragon.game.bench;
+
+import aragon.game.entity.EntityManager;
+import aragon.game.main.GameCamera;
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Static props scattered over a large level, only a screen's worth of them is near the camera.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EntityRenderBenchmark {
+    private static final int LEVEL_SIZE = 256;
+
+    @Param({"1000", "10000"})
+    public int props;
+
+    // Camera pixels moved per frame, 0 renders the same view every time.
+    @Param({"0", "8"})
+    public int scrollSpeed;
+
+    private BenchmarkWorld world;
+    private EntityManager entityManager;
+    private GameCamera camera;
+    private BufferedImage frame;
+    private Graphics2D graphics;
+    private int direction = 1;
+
+    @Setup(org.openjdk.jmh.annotations.Level.Trial)
+    public void setUp() throws InterruptedException {
+        world = BenchmarkWorld.create(LEVEL_SIZE, LEVEL_SIZE);
+        entityManager = world.getEntityManager();
+        camera = world.getGame().getCamera();
+
+        Random random = new Random(14);
+        int extent = (LEVEL_SIZE - 2) * BenchmarkWorld.TILE_SIZE;
+        for (int i = 0; i < props; i++) {
+            entityManager.addEntity(new Prop(entityManager,
+                    BenchmarkWorld.TILE_SIZE + random.nextInt(extent),
+                    BenchmarkWorld.TILE_SIZE + random.nextInt(extent),
+                    BenchmarkWorld.TILE_SIZE));
+        }
+
+        // Start away from the player in the corner, so the frame only holds props.
+        camera.move(extent / 2, extent / 2);
+
+        frame = new BufferedImage(BenchmarkWorld.SCREEN_WIDTH, BenchmarkWorld.SCREEN_HEIGHT, BufferedImage.TYPE_INT_ARGB_PRE);
+        graphics = frame.createGraphics();
+    }
+
+    @TearDown(org.openjdk.jmh.annotations.Level.Trial)
+    public void tearDown() {
+        graphics.dispose();
+        world.close();
+    }
+
+    @Benchmark
+    public BufferedImage render() {
+        if (scrollSpeed > 0) {
+            double lastX = camera.getX();
+            camera.move(scrollSpeed * direction, scrollSpeed * direction);
+            if (camera.getX() == lastX) direction = -direction;
+        }
+        entityManager.render(graphics);
+        return frame;
+    }
+}
@@ -0,0 +1,69 @@
+package aragon.game.bench;
+
+import aragon.game.input.InputManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.Canvas;
+import java.awt.event.KeyEvent;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InputManagerBenchmark {
+    private static final int FIRST_KEY = 256;
+
+    @Param({"16", "256"})
+    public int actionCount;
+
+    // Keys pressed at once, their actions stay held and fire hold events.
+    @Param({"0", "4"})
+    public int heldKeys;
+
+    private BenchmarkWorld world;
+    private InputManager inputManager;
+    private KeyEvent[] presses;
+    private KeyEvent[] releases;
+    private int toggledKey = 0;
+
+    @Setup(org.openjdk.jmh.annotations.Level.Trial)
+    public void setUp() throws InterruptedException {
+        world = BenchmarkWorld.create(32, 32);
+        inputManager = world.getGame().getInputManager();
+
+        // Bound past the key codes used by the config so the game actions stay untouched.
+        presses = new KeyEvent[actionCount];
+        releases = new KeyEvent[actionCount];
+        Canvas source = new Canvas();
+        for (int i = 0; i < actionCount; i++) {
+            int keyCode = FIRST_KEY + (i % FIRST_KEY);
+            inputManager.bind("bench_action_" + i, keyCode);
+            presses[i] = new KeyEvent(source, KeyEvent.KEY_PRESSED, 0, 0, keyCode, KeyEvent.CHAR_UNDEFINED);
+            releases[i] = new KeyEvent(source, KeyEvent.KEY_RELEASED, 0, 0, keyCode, KeyEvent.CHAR_UNDEFINED);
+        }
+        for (int i = 0; i < Math.min(heldKeys, actionCount); i++) {
+            inputManager.keyPressed(presses[i]);
+        }
+    }
+
+    @TearDown(org.openjdk.jmh.annotations.Level.Trial)
+    public void tearDown() {
+        world.close();
+    }
+
+    // Presses and releases one more key every other call, so press and release events fire as well.
+    @Benchmark
+    public InputManager updateBuffer() {
+        int key = actionCount - 1;
+        if ((toggledKey++ & 1) == 0) {
+            inputManager.keyPressed(presses[key]);
+        } else {
+            inputManager.keyReleased(releases[key]);
+        }
+        inputManager.updateBuffer();
+        return inputManager;
+    }
+}
@@ -0,0 +1,101 @@
+package aragon.game.bench;
+
+import aragon.game.assets.LevelFile;
+import aragon.game.assets.data.LevelData;
+import aragon.game.assets.data.TileLayerData;
+import aragon.game.assets.data.TileLayerGrid;
+import aragon.game.level.TileStorage;
+import com.google.gson.Gson;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Opens a square two layer level from disk, as JSON rows and as binary level files. The mapped open only
+// reads the header, mappedScan also pages in every tile.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LevelFileBenchmark {
+    @Param({"256", "1024"})
+    public int levelSize;
+
+    private final Gson gson = new Gson();
+    private Path directory;
+    private Path jsonFile;
+    private Path mappedFile;
+    private Path compressedFile;
+
+    @Setup(org.openjdk.jmh.annotations.Level.Trial)
+    public void setUp() throws IOException {
+        int[] terrain = new int[levelSize * levelSize];
+        int[] decoration = new int[levelSize * levelSize];
+        for (int y = 0; y < levelSize; y++) {
+            for (int x = 0; x < levelSize; x++) {
+                boolean wall = x == 0 || y == 0 || x == levelSize - 1 || y == levelSize - 1 || (x % 16 == 0 && y % 4 != 0);
+                terrain[y * levelSize + x] = wall ? 1 : 0;
+                decoration[y * levelSize + x] = (x * 31 + y * 17) % 7 == 0 ? 2 : -1;
+            }
+        }
+
+        LevelData levelData = new LevelData(levelSize, levelSize, "overworld.garden", null, List.of(
+                new TileLayerData("ground", "TERRAIN", new TileLayerGrid(terrain, terrain.length, levelSize)),
+                new TileLayerData("flowers", "DECORATION", new TileLayerGrid(decoration, decoration.length, levelSize))));
+
+        directory = Files.createTempDirectory("level-file-benchmark");
+        jsonFile = directory.resolve("level.json");
+        mappedFile = directory.resolve("level" + LevelFile.EXTENSION);
+        compressedFile = directory.resolve("compressed" + LevelFile.EXTENSION);
+        Files.writeString(jsonFile, gson.toJson(levelData));
+        LevelFile.write(levelData, mappedFile, false);
+        LevelFile.write(levelData, compressedFile, true);
+    }
+
+    @TearDown(org.openjdk.jmh.annotations.Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(jsonFile);
+        Files.deleteIfExists(mappedFile);
+        Files.deleteIfExists(compressedFile);
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public LevelData json() throws IOException {
+        try (Reader reader = Files.newBufferedReader(jsonFile)) {
+            return gson.fromJson(reader, LevelData.class);
+        }
+    }
+
+    @Benchmark
+    public LevelData mapped() throws IOException {
+        return LevelFile.read(mappedFile);
+    }
+
+    @Benchmark
+    public long mappedScan() throws IOException {
+        return scan(LevelFile.read(mappedFile));
+    }
+
+    @Benchmark
+    public LevelData compressed() throws IOException {
+        return LevelFile.read(compressedFile);
+    }
+
+    private static long scan(LevelData levelData) {
+        long sum = 0;
+        for (TileLayerData layer : levelData.getMap()) {
+            TileStorage tiles = layer.getData().getStorage();
+            for (int i = 0; i < tiles.size(); i++) {
+                sum += tiles.get(i);
+            }
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,105 @@
+package aragon.game.bench;
+
+import aragon.game.assets.data.LevelData;
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+// Parses one terrain layer of a square level in each supported form. Run with -prof gc to compare
+// allocation, boxedRows is the List<List<Integer>> the level format used to parse into.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LevelLoadBenchmark {
+    private static final Type ROWS = new TypeToken<List<List<Integer>>>() {}.getType();
+
+    @Param({"256", "1024"})
+    public int levelSize;
+
+    private final Gson gson = new Gson();
+    private String rowsData;
+    private String rowsJson;
+    private String runLengthJson;
+    private String base64Json;
+
+    @Setup(org.openjdk.jmh.annotations.Level.Trial)
+    public void setUp() throws IOException {
+        int[] tiles = new int[levelSize * levelSize];
+        for (int y = 0; y < levelSize; y++) {
+            for (int x = 0; x < levelSize; x++) {
+                boolean wall = x == 0 || y == 0 || x == levelSize - 1 || y == levelSize - 1 || (x % 16 == 0 && y % 4 != 0);
+                tiles[y * levelSize + x] = wall ? 1 : 0;
+            }
+        }
+
+        StringBuilder rows = new StringBuilder("[");
+        for (int y = 0; y < levelSize; y++) {
+            if (y > 0) rows.append(',');
+            rows.append('[');
+            for (int x = 0; x < levelSize; x++) {
+                if (x > 0) rows.append(',');
+                rows.append(tiles[y * levelSize + x]);
+            }
+            rows.append(']');
+        }
+        rowsData = rows.append(']').toString();
+        rowsJson = level(rowsData);
+
+        StringBuilder runs = new StringBuilder("{\"encoding\": \"rle\", \"tiles\": [");
+        for (int start = 0; start < tiles.length; ) {
+            int end = start;
+            while (end < tiles.length && tiles[end] == tiles[start]) end++;
+            if (start > 0) runs.append(',');
+            runs.append(end - start).append(',').append(tiles[start]);
+            start = end;
+        }
+        runLengthJson = level(runs.append("]}").toString());
+
+        ByteBuffer bytes = ByteBuffer.allocate(tiles.length * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        bytes.asIntBuffer().put(tiles);
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(bytes.array());
+        }
+        base64Json = level("{\"encoding\": \"base64\", \"compression\": \"gzip\", \"tiles\": \"" +
+                Base64.getEncoder().encodeToString(compressed.toByteArray()) + "\"}");
+    }
+
+    private String level(String data) {
+        return "{\"width\": " + levelSize + ", \"height\": " + levelSize + ", \"tileSet\": \"overworld.garden\", " +
+                "\"map\": [{\"name\": \"ground\", \"type\": \"TERRAIN\", \"data\": " + data + "}]}";
+    }
+
+    @Benchmark
+    public List<List<Integer>> boxedRows() {
+        return gson.fromJson(rowsData, ROWS);
+    }
+
+    @Benchmark
+    public LevelData rows() {
+        return gson.fromJson(rowsJson, LevelData.class);
+    }
+
+    @Benchmark
+    public LevelData runLength() {
+        return gson.fromJson(runLengthJson, LevelData.class);
+    }
+
+    @Benchmark
+    public LevelData base64Gzip() {
+        return gson.fromJson(base64Json, LevelData.class);
+    }
+}
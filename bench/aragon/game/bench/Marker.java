@@ -0,0 +1,19 @@
+package aragon.game.bench;
+
+import aragon.game.entity.Entity;
+import aragon.game.entity.EntityManager;
+
+import java.awt.Graphics;
+
+// Static entity that does nothing, stands in for trees, doors and items.
+public class Marker extends Entity {
+    public Marker(EntityManager entityManager, int x, int y, int size) {
+        super(entityManager, x, y, size, false);
+    }
+
+    @Override
+    public void update() {}
+
+    @Override
+    public void render(Graphics graphics) {}
+}
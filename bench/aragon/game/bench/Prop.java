@@ -0,0 +1,25 @@
+package aragon.game.bench;
+
+import aragon.game.entity.Entity;
+import aragon.game.entity.EntityManager;
+import aragon.game.main.GameCamera;
+
+import java.awt.Color;
+import java.awt.Graphics;
+
+// Static entity that draws a plain rectangle, so render benchmarks pay for drawing without sprite assets.
+public class Prop extends Entity {
+    public Prop(EntityManager entityManager, int x, int y, int size) {
+        super(entityManager, x, y, size, false);
+    }
+
+    @Override
+    public void update() {}
+
+    @Override
+    public void render(Graphics graphics) {
+        GameCamera camera = entityManager.getLevel().getGameState().getGame().getCamera();
+        graphics.setColor(Color.DARK_GRAY);
+        graphics.fillRect((int) (position.x - camera.getX()), (int) (position.y - camera.getY()), (int) size.x, (int) size.y);
+    }
+}
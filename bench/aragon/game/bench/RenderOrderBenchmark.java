@@ -0,0 +1,83 @@
+package aragon.game.bench;
+
+import aragon.game.entity.Entity;
+import aragon.game.entity.EntityStore;
+import aragon.game.entity.RenderOrder;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RenderOrderBenchmark {
+    @Param({"10000"})
+    public int entityCount;
+
+    // Share of entities that move every tick, the rest are static scenery.
+    @Param({"0.01", "0.1", "1"})
+    public double movingShare;
+
+    private BenchmarkWorld world;
+    private final List<Entity> list = new ArrayList<>();
+    private final Comparator<Entity> comparator = Comparator.comparingDouble(entity -> entity.position.y + entity.getHeight());
+    private final EntityStore store = new EntityStore();
+    private final RenderOrder renderOrder = new RenderOrder(store);
+    private Entity[] moving;
+    private int tick = 0;
+
+    @Setup(org.openjdk.jmh.annotations.Level.Trial)
+    public void setUp() throws InterruptedException {
+        world = BenchmarkWorld.create(32, 32);
+        Random random = new Random(42);
+        int worldSize = 1024 * BenchmarkWorld.TILE_SIZE;
+        int movingCount = (int) Math.round(entityCount * movingShare);
+
+        moving = new Entity[movingCount];
+        for (int i = 0; i < entityCount; i++) {
+            Entity entity = new Marker(world.getEntityManager(), random.nextInt(worldSize), random.nextInt(worldSize), BenchmarkWorld.TILE_SIZE);
+            if (i < movingCount) moving[i] = entity;
+            list.add(entity);
+            store.add(entity);
+            renderOrder.add(entity);
+        }
+        list.sort(comparator);
+        renderOrder.update();
+    }
+
+    @TearDown(org.openjdk.jmh.annotations.Level.Trial)
+    public void tearDown() {
+        world.close();
+    }
+
+    // Moving entities walk a few pixels up or down per tick, like creatures do.
+    private void moveEntities() {
+        int step = (tick++ & 64) == 0 ? 3 : -3;
+        for (int i = 0; i < moving.length; i++) {
+            Entity entity = moving[i];
+            entity.position.set(entity.position.x, entity.position.y + ((i & 1) == 0 ? step : -step));
+            store.syncPosition(entity);
+        }
+    }
+
+    @Benchmark
+    public List<Entity> fullSort() {
+        moveEntities();
+        list.sort(comparator);
+        return list;
+    }
+
+    @Benchmark
+    public RenderOrder incremental() {
+        moveEntities();
+        renderOrder.update();
+        return renderOrder;
+    }
+}
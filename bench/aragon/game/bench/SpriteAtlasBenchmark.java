@@ -0,0 +1,72 @@
+package aragon.game.bench;
+
+import aragon.game.assets.ImageLoader;
+import aragon.game.graphics.Sprite;
+import aragon.game.graphics.SpriteAtlas;
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Draws a frame of sprites spread over many small images, or packed into atlas pages.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class SpriteAtlasBenchmark {
+    private static final int SPRITES = 256;
+    private static final int DRAWS = 2000;
+
+    @Param({"false", "true"})
+    public boolean packed;
+
+    private final List<Sprite> sprites = new ArrayList<>();
+    private final int[] order = new int[DRAWS];
+    private final int[] drawX = new int[DRAWS];
+    private final int[] drawY = new int[DRAWS];
+    private BufferedImage frame;
+    private Graphics2D graphics;
+
+    @Setup(org.openjdk.jmh.annotations.Level.Trial)
+    public void setUp() {
+        Random random = new Random(21);
+        for (int i = 0; i < SPRITES; i++) {
+            BufferedImage image = ImageLoader.createCompatibleImage(64, 64);
+            for (int y = 0; y < 64; y++) {
+                for (int x = 0; x < 64; x++) {
+                    boolean inside = (x - 32) * (x - 32) + (y - 32) * (y - 32) < 30 * 30;
+                    image.setRGB(x, y, inside ? 0xFF000000 | random.nextInt(0xFFFFFF) : 0);
+                }
+            }
+            sprites.add(new Sprite(image));
+        }
+        if (packed) SpriteAtlas.pack(sprites);
+
+        for (int i = 0; i < DRAWS; i++) {
+            order[i] = random.nextInt(SPRITES);
+            drawX[i] = random.nextInt(BenchmarkWorld.SCREEN_WIDTH - 64);
+            drawY[i] = random.nextInt(BenchmarkWorld.SCREEN_HEIGHT - 64);
+        }
+        frame = ImageLoader.createCompatibleImage(BenchmarkWorld.SCREEN_WIDTH, BenchmarkWorld.SCREEN_HEIGHT);
+        graphics = frame.createGraphics();
+    }
+
+    @TearDown(org.openjdk.jmh.annotations.Level.Trial)
+    public void tearDown() {
+        graphics.dispose();
+    }
+
+    @Benchmark
+    public BufferedImage drawFrame() {
+        for (int i = 0; i < DRAWS; i++) {
+            sprites.get(order[i]).draw(graphics, drawX[i], drawY[i]);
+        }
+        return frame;
+    }
+}
@@ -0,0 +1,86 @@
+package aragon.game.bench;
+
+import aragon.game.assets.AssetLoader;
+import aragon.game.entity.player.Player;
+import aragon.game.main.Game;
+import aragon.game.main.loop.GameLoop;
+import aragon.game.main.loop.LoopStats;
+import com.sun.management.ThreadMXBean;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.BooleanSupplier;
+
+public class TickAllocationCheck {
+    private static final Logger LOGGER = LogManager.getLogger(TickAllocationCheck.class);
+
+    public static void main(String[] args) throws InterruptedException {
+        System.setProperty("java.awt.headless", "true");
+
+        int warmupTicks = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+        int measuredTicks = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+
+        Game game = new Game("Allocation check", 64, 256 * 4, 192 * 4, true);
+        MeasuringLoop loop = new MeasuringLoop(game, warmupTicks, measuredTicks);
+        game.setLoop(loop);
+        game.launch();
+        loop.finished.await();
+        game.abort();
+        AssetLoader assetLoader = AssetLoader.get();
+        if (assetLoader != null) assetLoader.close();
+
+        LOGGER.info("{} ticks measured, {} bytes allocated, {} bytes/tick.",
+                measuredTicks, loop.allocatedBytes, String.format("%.2f", (double) loop.allocatedBytes / measuredTicks));
+    }
+
+    // Runs the update callback a fixed number of times and counts the bytes the loop thread allocated.
+    private static class MeasuringLoop implements GameLoop {
+        private final ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        private final LoopStats stats = new LoopStats();
+        private final CountDownLatch finished = new CountDownLatch(1);
+        private final Game game;
+        private final int warmupTicks;
+        private final int measuredTicks;
+        private long allocatedBytes;
+
+        MeasuringLoop(Game game, int warmupTicks, int measuredTicks) {
+            this.game = game;
+            this.warmupTicks = warmupTicks;
+            this.measuredTicks = measuredTicks;
+        }
+
+        @Override
+        public void run(BooleanSupplier running, Runnable update, Runnable render) {
+            stats.start(System.nanoTime());
+            Runnable tick = () -> {
+                update.run();
+                stats.recordTick();
+            };
+
+            startWalking();
+            for (int i = 0; i < warmupTicks && running.getAsBoolean(); i++) tick.run();
+
+            long threadId = Thread.currentThread().getId();
+            long before = threads.getThreadAllocatedBytes(threadId);
+            for (int i = 0; i < measuredTicks && running.getAsBoolean(); i++) tick.run();
+            allocatedBytes = threads.getThreadAllocatedBytes(threadId) - before;
+
+            finished.countDown();
+            while (running.getAsBoolean()) Thread.onSpinWait();
+        }
+
+        // Headless games build their state before the loop starts, so the player can be steered right away.
+        private void startWalking() {
+            if (game.getState() == null || game.getState().getLevel() == null) return;
+            Player player = game.getState().getLevel().getEntityManager().getPlayer();
+            if (player == null) return;
+            player.onActionTriggered("player_right");
+            player.onActionTriggered("player_down");
+        }
+
+        @Override
+        public LoopStats getStats() { return stats; }
+    }
+}
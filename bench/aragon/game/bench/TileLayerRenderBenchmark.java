@@ -0,0 +1,58 @@
+package aragon.game.bench;
+
+import aragon.game.level.TileLayer;
+import aragon.game.level.TileLayerType;
+import aragon.game.main.GameCamera;
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TileLayerRenderBenchmark {
+    @Param({"64", "512"})
+    public int levelSize;
+
+    // Camera pixels moved per frame, 0 renders the same view every time.
+    @Param({"0", "8"})
+    public int scrollSpeed;
+
+    private BenchmarkWorld world;
+    private TileLayer layer;
+    private GameCamera camera;
+    private BufferedImage frame;
+    private Graphics2D graphics;
+    private int direction = 1;
+
+    @Setup(org.openjdk.jmh.annotations.Level.Trial)
+    public void setUp() throws InterruptedException {
+        world = BenchmarkWorld.create(levelSize, levelSize);
+        layer = world.getLevel().getLayerByType(TileLayerType.TERRAIN);
+        camera = world.getGame().getCamera();
+        frame = new BufferedImage(BenchmarkWorld.SCREEN_WIDTH, BenchmarkWorld.SCREEN_HEIGHT, BufferedImage.TYPE_INT_ARGB_PRE);
+        graphics = frame.createGraphics();
+    }
+
+    @TearDown(org.openjdk.jmh.annotations.Level.Trial)
+    public void tearDown() {
+        graphics.dispose();
+        world.close();
+    }
+
+    @Benchmark
+    public BufferedImage render() {
+        if (scrollSpeed > 0) {
+            double lastX = camera.getX();
+            camera.move(scrollSpeed * direction, scrollSpeed * direction);
+            if (camera.getX() == lastX) direction = -direction;
+        }
+        layer.render(graphics, world.getLevel());
+        return frame;
+    }
+}
@@ -0,0 +1,58 @@
+package aragon.game.bench;
+
+import aragon.game.level.Level;
+import aragon.game.level.Tile;
+import aragon.game.level.TileLayerType;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Random tile probes on a 4096x4096 map, far bigger than the caches.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class TileLookupBenchmark {
+    private static final int LEVEL_SIZE = 4096;
+    private static final int PROBES = 4096;
+
+    private BenchmarkWorld world;
+    private Level level;
+    private final int[] probeX = new int[PROBES];
+    private final int[] probeY = new int[PROBES];
+    private int next = 0;
+
+    @Setup(org.openjdk.jmh.annotations.Level.Trial)
+    public void setUp() throws InterruptedException {
+        world = BenchmarkWorld.create(LEVEL_SIZE, LEVEL_SIZE);
+        level = world.getLevel();
+
+        Random random = new Random(16);
+        for (int i = 0; i < PROBES; i++) {
+            probeX[i] = random.nextInt(LEVEL_SIZE);
+            probeY[i] = random.nextInt(LEVEL_SIZE);
+        }
+    }
+
+    @TearDown(org.openjdk.jmh.annotations.Level.Trial)
+    public void tearDown() {
+        world.close();
+    }
+
+    // Resolves the tile object and its type, what collision checks used to do.
+    @Benchmark
+    public boolean tileTypeLookup() {
+        int i = next++ & (PROBES - 1);
+        Tile tile = level.getTileAt(probeX[i], probeY[i], TileLayerType.TERRAIN);
+        return tile != null && tile.getType().isSolid();
+    }
+
+    @Benchmark
+    public boolean solidBitLookup() {
+        int i = next++ & (PROBES - 1);
+        return level.isSolidAt(probeX[i], probeY[i], TileLayerType.TERRAIN);
+    }
+}
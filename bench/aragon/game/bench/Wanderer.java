@@ -0,0 +1,45 @@
+package aragon.game.bench;
+
+import aragon.game.entity.ConcurrentUpdatable;
+import aragon.game.entity.Creature;
+import aragon.game.entity.EntityCommandBuffer;
+import aragon.game.entity.EntityManager;
+
+import java.awt.Graphics;
+
+// Solid creature that walks in one of eight directions and turns whenever it gets stuck.
+public class Wanderer extends Creature implements ConcurrentUpdatable {
+    private static final int[][] DIRECTIONS = {
+            {1, 0}, {1, 1}, {0, 1}, {-1, 1}, {-1, 0}, {-1, -1}, {0, -1}, {1, -1}
+    };
+
+    private int direction;
+
+    public Wanderer(EntityManager entityManager, int x, int y, int size, int seed) {
+        super(entityManager, x, y, size, 2);
+        setDirection(Math.floorMod(seed, DIRECTIONS.length));
+    }
+
+    private void setDirection(int direction) {
+        this.direction = direction;
+        moveXAxis = DIRECTIONS[direction][0];
+        moveYAxis = DIRECTIONS[direction][1];
+    }
+
+    @Override
+    public void update() {
+        if (!move()) turn();
+    }
+
+    @Override
+    public void updateConcurrently(EntityCommandBuffer commands) {
+        if (!queueMove(commands)) turn();
+    }
+
+    private void turn() {
+        setDirection((direction + 3) % DIRECTIONS.length);
+    }
+
+    @Override
+    public void render(Graphics graphics) {}
+}
@@ -0,0 +1,304 @@
+package aragon.game.assets;
+
+import aragon.game.assets.data.LevelData;
+import aragon.game.assets.data.TileData;
+import aragon.game.assets.data.TileSetData;
+import aragon.game.assets.data.TileSetSpriteReference;
+import aragon.game.assets.data.Vector2Data;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Decoded images and validated data, stored on disk under the SHA-256 of the source file they came from.
+// A changed source gets a new key, so entries never go stale, they are only left behind. Reading or
+// writing the cache never fails a load, a broken entry is logged and treated as a miss.
+//
+// Images, little endian: "ARIM", u16 version, u16 compression, i32 width, i32 height, i64 data length,
+// then premultiplied ARGB ints. Levels use the LevelFile format, tile sets:
+// "ARTS", u16 version, string sheet path, u8 has size, i32 size x, i32 size y, u16 tile count, then per
+// tile i32 sprite x, i32 sprite y, string type.
+public final class AssetCache {
+    private static final Logger LOGGER = LogManager.getLogger(AssetCache.class);
+
+    private static final byte[] IMAGE_MAGIC = {'A', 'R', 'I', 'M'};
+    private static final byte[] TILE_SET_MAGIC = {'A', 'R', 'T', 'S'};
+    private static final int VERSION = 1;
+    private static final int IMAGE_HEADER_LENGTH = 24;
+    private static final int COMPRESSION_NONE = 0;
+    private static final int COMPRESSION_DEFLATE = 1;
+
+    private static final String IMAGE_EXTENSION = ".image";
+    private static final String TILE_SET_EXTENSION = ".tileset";
+    private static final AtomicInteger TEMP_FILES = new AtomicInteger();
+
+    private final Path directory;
+    private final boolean compress;
+
+    private AssetCache(Path directory, boolean compress) {
+        this.directory = directory;
+        this.compress = compress;
+    }
+
+    // Configured by aragon.assets.cache.disabled, aragon.assets.cache.dir and aragon.assets.cache.compress.
+    public static AssetCache open() {
+        if (Boolean.getBoolean("aragon.assets.cache.disabled")) return new AssetCache(null, false);
+
+        String configured = System.getProperty("aragon.assets.cache.dir");
+        Path directory = configured != null ? Paths.get(configured) : Paths.get(System.getProperty("user.home"), ".aragon", "cache");
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException exception) {
+            LOGGER.warn("Asset cache disabled, can not create {}", directory, exception);
+            return new AssetCache(null, false);
+        }
+        return new AssetCache(directory, Boolean.getBoolean("aragon.assets.cache.compress"));
+    }
+
+    public boolean isEnabled() { return directory != null; }
+
+    public static String key(byte[] source) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(source));
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException("SHA-256 is not available.", exception);
+        }
+    }
+
+    // Null on a miss. The image is compatible, like one from ImageLoader.
+    public BufferedImage readImage(String key) {
+        Path path = resolve(key, IMAGE_EXTENSION);
+        if (path == null || !Files.isRegularFile(path)) return null;
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = LevelFile.readFully(channel, 0, IMAGE_HEADER_LENGTH);
+            checkMagic(header, IMAGE_MAGIC, path);
+            int compression = Short.toUnsignedInt(header.getShort());
+            int width = header.getInt();
+            int height = header.getInt();
+            long length = header.getLong();
+
+            long expectedLength = (long) width * height * Integer.BYTES;
+            if (width <= 0 || height <= 0 || expectedLength > Integer.MAX_VALUE) throw new IOException("Invalid image size " + width + "x" + height + ": " + path);
+
+            ByteBuffer data;
+            if (compression == COMPRESSION_NONE) {
+                if (length != expectedLength) throw new IOException("Image holds " + length + " bytes, expected " + expectedLength + ": " + path);
+                data = channel.map(FileChannel.MapMode.READ_ONLY, IMAGE_HEADER_LENGTH, length);
+            } else if (compression == COMPRESSION_DEFLATE) {
+                if (length > Integer.MAX_VALUE) throw new IOException("Compressed image is too large: " + path);
+                data = LevelFile.inflate(LevelFile.readFully(channel, IMAGE_HEADER_LENGTH, (int) length), (int) expectedLength, path);
+            } else {
+                throw new IOException("Unknown image compression " + compression + ": " + path);
+            }
+
+            int[] pixels = new int[width * height];
+            data.order(ByteOrder.LITTLE_ENDIAN).asIntBuffer().get(pixels);
+            // Copied into the raster rather than wrapped, a wrapped array would keep the image from being accelerated.
+            BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+            image.getRaster().setDataElements(0, 0, width, height, pixels);
+            return ImageLoader.toCompatibleImage(image);
+        } catch (IOException | RuntimeException exception) {
+            discard(path, exception);
+            return null;
+        }
+    }
+
+    public void writeImage(String key, BufferedImage image) {
+        Path path = resolve(key, IMAGE_EXTENSION);
+        if (path == null) return;
+
+        int width = image.getWidth();
+        int height = image.getHeight();
+        ByteBuffer pixels = ByteBuffer.allocate(width * height * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        pixels.asIntBuffer().put((int[]) toPremultiplied(image).getRaster().getDataElements(0, 0, width, height, null));
+        ByteBuffer data = compress ? LevelFile.deflate(pixels) : pixels;
+
+        ByteBuffer header = ByteBuffer.allocate(IMAGE_HEADER_LENGTH).order(ByteOrder.LITTLE_ENDIAN);
+        header.put(IMAGE_MAGIC).putShort((short) VERSION).putShort((short) (compress ? COMPRESSION_DEFLATE : COMPRESSION_NONE));
+        header.putInt(width).putInt(height).putLong(data.remaining());
+        write(path, header.flip(), data);
+    }
+
+    // Validated level or tile set data, null on a miss or for other types.
+    public <T> T readData(String key, Class<T> dataType) {
+        if (dataType == LevelData.class) return dataType.cast(readLevelData(key));
+        if (dataType == TileSetData.class) return dataType.cast(readTileSet(key));
+        return null;
+    }
+
+    public void writeData(String key, Object data) {
+        if (data instanceof LevelData levelData) writeLevelData(key, levelData);
+        else if (data instanceof TileSetData tileSetData) writeTileSet(key, tileSetData);
+    }
+
+    private LevelData readLevelData(String key) {
+        Path path = resolve(key, LevelFile.EXTENSION);
+        if (path == null || !Files.isRegularFile(path)) return null;
+
+        try {
+            return LevelFile.read(path);
+        } catch (IOException | RuntimeException exception) {
+            discard(path, exception);
+            return null;
+        }
+    }
+
+    private void writeLevelData(String key, LevelData levelData) {
+        Path path = resolve(key, LevelFile.EXTENSION);
+        if (path == null) return;
+
+        // LevelFile writes a temporary file and moves it into place itself.
+        try {
+            LevelFile.write(levelData, path, compress);
+        } catch (IOException | RuntimeException exception) {
+            LOGGER.warn("Failed to cache level data: {}", path, exception);
+        }
+    }
+
+    private TileSetData readTileSet(String key) {
+        Path path = resolve(key, TILE_SET_EXTENSION);
+        if (path == null || !Files.isRegularFile(path)) return null;
+
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path)).order(ByteOrder.LITTLE_ENDIAN);
+            checkMagic(buffer, TILE_SET_MAGIC, path);
+            String sheetPath = readString(buffer);
+            boolean hasSize = buffer.get() != 0;
+            Vector2Data size = new Vector2Data(buffer.getInt(), buffer.getInt());
+
+            int tileCount = Short.toUnsignedInt(buffer.getShort());
+            List<TileData> tiles = new ArrayList<>(tileCount);
+            for (int i = 0; i < tileCount; i++) {
+                Vector2Data spriteCoordinates = new Vector2Data(buffer.getInt(), buffer.getInt());
+                tiles.add(new TileData(spriteCoordinates, readString(buffer)));
+            }
+            return new TileSetData(new TileSetSpriteReference(sheetPath, hasSize ? size : null), tiles);
+        } catch (IOException | RuntimeException exception) {
+            discard(path, exception);
+            return null;
+        }
+    }
+
+    private void writeTileSet(String key, TileSetData tileSetData) {
+        Path path = resolve(key, TILE_SET_EXTENSION);
+        if (path == null) return;
+
+        List<TileData> tiles = tileSetData.getTiles();
+        if (tiles.size() > 0xFFFF) return;
+
+        TileSetSpriteReference sheet = tileSetData.getSheet();
+        byte[] sheetPath = encode(sheet.getPath());
+        List<byte[]> types = new ArrayList<>(tiles.size());
+        int length = 4 + 2 + 2 + sheetPath.length + 1 + 4 + 4 + 2;
+        for (TileData tile : tiles) {
+            types.add(encode(tile.getType()));
+            length += 4 + 4 + 2 + types.get(types.size() - 1).length;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put(TILE_SET_MAGIC).putShort((short) VERSION);
+        putString(buffer, sheetPath);
+        Vector2Data size = sheet.getTileSize();
+        buffer.put((byte) (size != null ? 1 : 0));
+        buffer.putInt(size != null ? size.getX() : 0).putInt(size != null ? size.getY() : 0);
+        buffer.putShort((short) tiles.size());
+        for (int i = 0; i < tiles.size(); i++) {
+            Vector2Data spriteCoordinates = tiles.get(i).getSpriteCoordinates();
+            buffer.putInt(spriteCoordinates.getX()).putInt(spriteCoordinates.getY());
+            putString(buffer, types.get(i));
+        }
+        write(path, buffer.flip());
+    }
+
+    private Path resolve(String key, String extension) {
+        return directory == null ? null : directory.resolve(key + extension);
+    }
+
+    // Written next to the entry and moved over it, so a reader never maps a half written file.
+    private void write(Path path, ByteBuffer... buffers) {
+        Path temporary = temporaryPath(path);
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                for (ByteBuffer buffer : buffers) {
+                    while (buffer.hasRemaining()) channel.write(buffer);
+                }
+            }
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException exception) {
+            LOGGER.warn("Failed to write asset cache entry: {}", path, exception);
+            deleteQuietly(temporary);
+        }
+    }
+
+    private static Path temporaryPath(Path path) {
+        return path.resolveSibling(path.getFileName() + "." + ProcessHandle.current().pid() + "-" + TEMP_FILES.incrementAndGet() + ".tmp");
+    }
+
+    private static void discard(Path path, Exception exception) {
+        LOGGER.warn("Discarding unreadable asset cache entry: {}", path, exception);
+        deleteQuietly(path);
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException exception) {
+            LOGGER.warn("Failed to delete asset cache file: {}", path, exception);
+        }
+    }
+
+    private static BufferedImage toPremultiplied(BufferedImage image) {
+        if (image.getType() == BufferedImage.TYPE_INT_ARGB_PRE) return image;
+
+        BufferedImage converted = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_ARGB_PRE);
+        Graphics2D graphics = converted.createGraphics();
+        graphics.setComposite(AlphaComposite.Src);
+        graphics.drawImage(image, 0, 0, null);
+        graphics.dispose();
+        return converted;
+    }
+
+    private static void checkMagic(ByteBuffer buffer, byte[] magic, Path path) throws IOException {
+        for (byte expected : magic) {
+            if (buffer.get() != expected) throw new IOException("Not an asset cache entry: " + path);
+        }
+        int version = Short.toUnsignedInt(buffer.getShort());
+        if (version != VERSION) throw new IOException("Unsupported asset cache version " + version + ": " + path);
+    }
+
+    private static byte[] encode(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xFFFF) throw new IllegalArgumentException("String is too long for the asset cache: " + value.length());
+        return bytes;
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] bytes) {
+        buffer.putShort((short) bytes.length).put(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[Short.toUnsignedInt(buffer.getShort())];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,28 @@
+package aragon.game.assets;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Keeps a lazily loaded asset from being evicted until the handle is closed. Handles to assets that were
+// loaded up front hold nothing.
+public final class AssetHandle<T> implements AutoCloseable {
+    private final T asset;
+    private final Runnable release;
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    AssetHandle(T asset, Runnable release) {
+        this.asset = asset;
+        this.release = release;
+    }
+
+    public T get() {
+        if (closed.get()) throw new IllegalStateException("Asset handle is closed.");
+        return asset;
+    }
+
+    public boolean isClosed() { return closed.get(); }
+
+    @Override
+    public void close() {
+        if (closed.compareAndSet(false, true)) release.run();
+    }
+}
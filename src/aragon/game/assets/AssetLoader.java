@@ -3,10 +3,15 @@ package aragon.game.assets;
 import aragon.game.assets.data.*;
 import aragon.game.graphics.Animation;
 import aragon.game.graphics.Sprite;
+import aragon.game.graphics.SpriteAtlas;
 import aragon.game.graphics.SpriteSheet;
+import aragon.game.graphics.SpriteTransform;
 
+import aragon.game.level.Level;
+import aragon.game.level.Tile;
 import aragon.game.level.TileSet;
 import aragon.game.main.Game;
+import aragon.game.main.states.State;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonSyntaxException;
@@ -14,16 +19,38 @@ import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Validation;
 import jakarta.validation.Validator;
 
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.Reader;
 import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.apache.logging.log4j.Logger;
@@ -32,20 +59,42 @@ import org.apache.logging.log4j.LogManager;
 public final class AssetLoader implements AutoCloseable {
     private static volatile AssetLoader instance;
     private final Logger LOGGER = LogManager.getLogger(AssetLoader.class);
+    private static final String MANIFEST_PATH = "/data/config/assets.json";
+    private static final long SWAP_TIMEOUT_SECONDS = 2;
+    private static final int SWAP_ATTEMPTS = 3;
 
+    // Worlds sharing the loaded assets, a hot reload pauses all of them while it swaps.
+    private final Set<Game> games = new CopyOnWriteArraySet<>();
     private final AssetManager assetManager;
+    private final int tileSize;
     private AssetManifest assetManifest;
     private final Gson gson;
     private final Validator validator;
     private final ExecutorService executor;
+    private AssetCache assetCache;
+    private boolean lazy = Boolean.getBoolean("aragon.assets.lazy");
+    private boolean hotReload = Boolean.getBoolean("aragon.assets.hotreload");
+    private AssetReloader reloader;
+    // The sheet each tile set cuts its tiles from, so a reloaded sheet can refresh them.
+    private final Map<String, String> tileSetSheets = new ConcurrentHashMap<>();
+    // Tiles are cut from the sheet, so a lazy sheet stays loaded while a tile set uses it.
+    private final Map<String, AssetHandle<SpriteSheet>> tileSetSheetHandles = new ConcurrentHashMap<>();
+    private boolean initialized;
 
     private final AssetLoadingStats stats = new AssetLoadingStats();
 
     private AssetLoader(Game game) {
+        this.games.add(game);
         this.assetManager = game.getAssetManager();
+        this.tileSize = game.getTileSize();
         this.gson = new GsonBuilder().setPrettyPrinting().create();
         this.validator = Validation.buildDefaultValidatorFactory().getValidator();
-        this.executor = Executors.newFixedThreadPool(4);
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(4, runnable -> {
+            Thread thread = new Thread(runnable, "asset-loader-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
         LOGGER.info("Instantiated new singleton.");
     }
 
@@ -57,9 +106,20 @@ public final class AssetLoader implements AutoCloseable {
                 }
             }
         }
+        instance.games.add(game);
         return instance;
     }
 
+    // Null until built.
+    public static AssetLoader get() {
+        return instance;
+    }
+
+    // Stops syncing hot reloads with a world that stopped. Shared assets stay loaded for the other worlds.
+    public void detach(Game game) {
+        games.remove(game);
+    }
+
     public CompletableFuture<Void> initializeAsync() throws RuntimeException {
         return CompletableFuture.runAsync(() -> {
             try {
@@ -70,20 +130,56 @@ public final class AssetLoader implements AutoCloseable {
         }, executor);
     }
 
-    public void initialize() throws AssetLoadingException {
+    public synchronized void initializeOnce() throws AssetLoadingException {
+        if (initialized) return;
+        initialize();
+    }
+
+    public synchronized boolean isInitialized() { return initialized; }
+
+    // Lazy loading only indexes sprite sheets, sprites and animations, they load on first request and may be
+    // evicted again under the AssetManager budget once nothing holds them. Tile sets and levels still load up
+    // front and hold their sheets. Takes effect on the next initialize.
+    public synchronized void setLazy(boolean lazy) { this.lazy = lazy; }
+    public synchronized boolean isLazy() { return lazy; }
+
+    // Hot reload watches the files assets were loaded from and reloads the ones that change in place. Off unless
+    // enabled or -Daragon.assets.hotreload=true is passed, takes effect on the next initialize.
+    public synchronized void setHotReload(boolean hotReload) { this.hotReload = hotReload; }
+    public synchronized boolean isHotReload() { return hotReload; }
+
+    public synchronized void initialize() throws AssetLoadingException {
         long startTime = System.currentTimeMillis();
         stats.reset();
+        assetCache = AssetCache.open();
+        stopHotReload();
+        tileSetSheets.clear();
+        tileSetSheetHandles.values().forEach(AssetHandle::close);
+        tileSetSheetHandles.clear();
 
         try {
             LOGGER.info("Asset loading started...");
 
             loadAssetManifest();
             validateAssetManifest();
-            preloadAssetsFromAssetManifest();
-            autoLoadAssetsFromAssetManifest();
+
+            LoadGraph graph = new LoadGraph();
+            if (lazy) {
+                indexAssetsFromAssetManifest();
+            } else {
+                preloadAssetsFromAssetManifest(graph);
+            }
+            autoLoadAssetsFromAssetManifest(graph);
+            awaitLoads(graph);
+
+            postProcessAssets();
+            packSprites();
+            initialized = true;
+            if (hotReload) startHotReload();
 
             long duration = System.currentTimeMillis() - startTime;
             LOGGER.info("Asset loading finished in {}ms. {}", duration, stats.getSummary());
+            LOGGER.info("Slowest assets: {}", stats.getSlowest(5));
 
         } catch (Exception exception) {
             stats.recordFailure();
@@ -150,103 +246,204 @@ public final class AssetLoader implements AutoCloseable {
         };
     }
 
-    private <T> void loadDataFromDirectoryAuto(String directoryPath, Class<T> dataType,
-                                               AssetValidator<T> validation, AssetProcessor<T> processor) throws AssetLoadingException {
+    // Parses and checks every file on the pool, or reads it already checked from the asset cache. References
+    // to other assets are validated and the data registered once the dependency completes. Failures are
+    // logged and skipped so one broken file does not stop the rest.
+    private <T> List<CompletableFuture<Void>> loadDataFromDirectoryAuto(String directoryPath, Class<T> dataType, CompletableFuture<?> dependency,
+                                                                   AssetValidator<T> configurationValidation, AssetValidator<T> referenceValidation,
+                                                                   AssetProcessor<T> processor) throws AssetLoadingException {
+        List<CompletableFuture<Void>> loads = new ArrayList<>();
         try {
-            URI uri = getClass().getResource(directoryPath).toURI();
-            Path path;
-
-            if (uri.getScheme().equals("jar")) {
-                try {
-                    FileSystem fileSystem = FileSystems.getFileSystem(uri);
-                    path = fileSystem.getPath(directoryPath);
-                } catch(Exception exception) {
-                    FileSystem fileSystem = FileSystems.newFileSystem(uri, Map.of());
-                    path = fileSystem.getPath(directoryPath);
-                }
-            } else {
-                path = Paths.get(uri);
-            }
+            Path path = resolveResourceDirectory(directoryPath);
+            if (path == null) return loads;
 
             try (Stream<Path> paths = Files.walk(path)) {
                 Path finalPath = path;
                 paths.filter(Files::isRegularFile)
                         .filter(p -> p.toString().endsWith(".json"))
                         .forEach(jsonPath -> {
-                            try {
-                                String relativePath = getRelativePathString(finalPath, jsonPath);
-                                String key = generateKeyFromPath(relativePath);
-
-                                try (InputStream stream = Files.newInputStream(jsonPath);
-                                     InputStreamReader reader = new InputStreamReader(stream)) {
-
-                                    T data = gson.fromJson(reader, dataType);
+                            String relativePath = getRelativePathString(finalPath, jsonPath);
+                            String key = generateKeyFromPath(relativePath);
+                            String asset = dataType.getSimpleName() + " " + key;
+
+                            CompletableFuture<T> parsed = loadAsync(asset, () -> {
+                                // Only the cache needs the bytes, to hash them. Either way the parser streams its
+                                // input, large levels are never held a second time as one String.
+                                byte[] source = assetCache.isEnabled() ? Files.readAllBytes(jsonPath) : null;
+                                String cacheKey = source != null ? AssetCache.key(source) : null;
+                                if (cacheKey != null) {
+                                    T cached = assetCache.readData(cacheKey, dataType);
+                                    if (cached != null) {
+                                        stats.recordCacheHit();
+                                        return cached;
+                                    }
+                                }
 
-                                    Map.Entry<String, T> entry = Map.entry(key, data);
-                                    validation.validate(entry);
-                                    processor.process(entry);
-                                } catch (Exception exception) {
-                                    throw new AssetLoadingException(exception.toString());
+                                T data;
+                                try (Reader reader = source != null
+                                        ? new InputStreamReader(new ByteArrayInputStream(source), StandardCharsets.UTF_8)
+                                        : Files.newBufferedReader(jsonPath, StandardCharsets.UTF_8)) {
+                                    data = gson.fromJson(reader, dataType);
                                 }
-                            } catch(Exception exception) {
-                                LOGGER.error("Failed to load {} file: {}", dataType.getSimpleName(), jsonPath, exception);
-                                stats.recordFailure();
-                            }
+                                configurationValidation.validate(Map.entry(key, data));
+                                if (cacheKey != null) {
+                                    stats.recordCacheMiss();
+                                    assetCache.writeData(cacheKey, data);
+                                }
+                                return data;
+                            });
+
+                            loads.add(parsed.thenCombine(dependency, (data, ignored) -> data)
+                                    .thenApplyAsync(data -> timed(asset, () -> {
+                                        Map.Entry<String, T> entry = Map.entry(key, data);
+                                        referenceValidation.validate(entry);
+                                        processor.process(entry);
+                                        return null;
+                                    }), executor)
+                                    .handle((ignored, exception) -> {
+                                        if (exception != null) {
+                                            LOGGER.error("Failed to load {} file: {}", dataType.getSimpleName(), jsonPath, unwrap(exception));
+                                            stats.recordFailure();
+                                        }
+                                        return null;
+                                    }));
                         });
             }
         } catch (Exception exception) {
             throw new AssetLoadingException("Failed to auto-load " + dataType.getSimpleName() + " from directory: " + directoryPath, exception);
         }
+        return loads;
     }
 
-    private void loadSpritesFromDirectoryAuto(String directoryPath) throws AssetLoadingException {
+    // Null when the directory is missing. Directories inside a jar resolve on its zip file system.
+    private Path resolveResourceDirectory(String directoryPath) throws URISyntaxException, IOException {
+        URL resource = getClass().getResource(directoryPath);
+        if (resource == null) {
+            LOGGER.warn("Resource directory not found: {}", directoryPath);
+            return null;
+        }
+
+        URI uri = resource.toURI();
+        if (uri.getScheme().equals("jar")) {
+            try {
+                FileSystem fileSystem = FileSystems.getFileSystem(uri);
+                return fileSystem.getPath(directoryPath);
+            } catch(Exception exception) {
+                FileSystem fileSystem = FileSystems.newFileSystem(uri, Map.of());
+                return fileSystem.getPath(directoryPath);
+            }
+        }
+        return Paths.get(uri);
+    }
+
+    // Binary levels written by LevelConverter. A binary level replaces a JSON level with the same key, so the
+    // dependency has to cover the JSON levels of the directory as well as the tile sets.
+    private List<CompletableFuture<Void>> loadLevelFilesFromDirectoryAuto(String directoryPath, CompletableFuture<?> dependency) throws AssetLoadingException {
+        List<CompletableFuture<Void>> loads = new ArrayList<>();
         try {
-            URI uri = getClass().getResource(directoryPath).toURI();
-            Path path;
+            Path path = resolveResourceDirectory(directoryPath);
+            if (path == null) return loads;
 
-            if (uri.getScheme().equals("jar")) {
-                try {
-                    FileSystem fileSystem = FileSystems.getFileSystem(uri);
-                    path = fileSystem.getPath(directoryPath);
-                } catch(Exception exception) {
-                    FileSystem fileSystem = FileSystems.newFileSystem(uri, Map.of());
-                    path = fileSystem.getPath(directoryPath);
-                }
-            } else {
-                path = Paths.get(uri);
+            try (Stream<Path> paths = Files.walk(path)) {
+                Path finalPath = path;
+                paths.filter(Files::isRegularFile)
+                        .filter(p -> p.toString().endsWith(LevelFile.EXTENSION))
+                        .forEach(levelPath -> {
+                            String relativePath = getRelativePathString(finalPath, levelPath);
+                            String key = generateKeyFromPath(relativePath);
+                            String asset = "LevelFile " + key;
+
+                            loads.add(loadAsync(asset, () -> LevelFile.read(levelPath))
+                                    .thenCombine(dependency, (levelData, ignored) -> levelData)
+                                    .thenApplyAsync(levelData -> timed(asset, () -> {
+                                        Map.Entry<String, LevelData> entry = Map.entry(key, levelData);
+                                        validateLevelData(entry);
+                                        processLevelData(entry);
+                                        return null;
+                                    }), executor)
+                                    .handle((ignored, exception) -> {
+                                        if (exception != null) {
+                                            LOGGER.error("Failed to load level file: {}", levelPath, unwrap(exception));
+                                            stats.recordFailure();
+                                        }
+                                        return null;
+                                    }));
+                        });
             }
+        } catch (Exception exception) {
+            throw new AssetLoadingException("Failed to auto-load level files from directory: " + directoryPath, exception);
+        }
+        return loads;
+    }
+
+    private List<CompletableFuture<Void>> loadSpritesFromDirectoryAuto(String directoryPath) throws AssetLoadingException {
+        List<CompletableFuture<Void>> loads = new ArrayList<>();
+        try {
+            Path path = resolveResourceDirectory(directoryPath);
+            if (path == null) return loads;
 
             try (Stream<Path> paths = Files.walk(path)) {
                 Path finalPath = path;
                 paths.filter(Files::isRegularFile)
                         .filter(p -> isImageFile(p.toString()))
                         .forEach(imagePath -> {
-                            try {
-                                String relativePath = getRelativePathString(finalPath, imagePath);
-                                String key = generateKeyFromPath(relativePath);
+                            String relativePath = getRelativePathString(finalPath, imagePath);
+                            String key = generateKeyFromPath(relativePath);
 
-                                SpriteData config = new SpriteData();
-                                String resourcePath = getResourcePath(
-                                        directoryPath,
-                                        getRelativePathStringWithExtension(finalPath, imagePath)
-                                ).substring(1);
+                            SpriteData config = new SpriteData();
+                            String resourcePath = getResourcePath(
+                                    directoryPath,
+                                    getRelativePathStringWithExtension(finalPath, imagePath)
+                            ).substring(1);
+                            config.setPath(resourcePath);
 
-                                config.setPath(resourcePath);
+                            loads.add(loadAsync("Sprite " + key, () -> {
                                 loadSprite(key, config);
-
-                            } catch(Exception exception) {
-                                LOGGER.error("Failed to auto-load sprite file: {}", imagePath, exception);
-                                stats.recordFailure();
-                            }
+                                return null;
+                            }).handle((ignored, exception) -> {
+                                if (exception != null) {
+                                    LOGGER.error("Failed to auto-load sprite file: {}", imagePath, unwrap(exception));
+                                    stats.recordFailure();
+                                }
+                                return null;
+                            }));
                         });
             }
         } catch (Exception exception) {
             throw new AssetLoadingException("Failed to auto-load sprites from directory: " + directoryPath, exception);
         }
+        return loads;
+    }
+
+    private void indexSpritesFromDirectoryAuto(String directoryPath) throws AssetLoadingException {
+        double pixelScale = getPixelScale();
+        try {
+            Path path = resolveResourceDirectory(directoryPath);
+            if (path == null) return;
+
+            try (Stream<Path> paths = Files.walk(path)) {
+                Path finalPath = path;
+                paths.filter(Files::isRegularFile)
+                        .filter(p -> isImageFile(p.toString()))
+                        .forEach(imagePath -> {
+                            String key = generateKeyFromPath(getRelativePathString(finalPath, imagePath));
+
+                            SpriteData config = new SpriteData();
+                            config.setPath(getResourcePath(
+                                    directoryPath,
+                                    getRelativePathStringWithExtension(finalPath, imagePath)
+                            ).substring(1));
+
+                            assetManager.registerLazySprite(key, () -> prescaleSprite(createSprite(key, config), pixelScale));
+                        });
+            }
+        } catch (Exception exception) {
+            throw new AssetLoadingException("Failed to index sprites from directory: " + directoryPath, exception);
+        }
     }
 
     private void loadAssetManifest() throws IOException {
-        String path = "/data/config/assets.json";
+        String path = MANIFEST_PATH;
         InputStream stream = getClass().getResourceAsStream(path);
         if (stream == null) {
             throw new IOException("Asset configuration file not found. " + path);
@@ -431,18 +628,32 @@ public final class AssetLoader implements AutoCloseable {
         }
     }
 
-    private void preloadAssetsFromAssetManifest() throws AssetLoadingException {
+    // Sheets decode first and in parallel, sprites and animations cut from a sheet wait for that sheet only.
+    private void preloadAssetsFromAssetManifest(LoadGraph graph) {
         if (assetManifest.getSpriteSheets() != null) {
             for (Map.Entry<String, SpriteSheetData> entry : assetManifest.getSpriteSheets().entrySet()) {
                 String spriteSheetName = entry.getKey();
                 SpriteSheetData spriteSheetData = entry.getValue();
 
-                try {
-                    loadSpriteSheet(spriteSheetName, spriteSheetData);
-                } catch (Exception exception) {
-                    stats.recordFailure();
-                    throw new AssetLoadingException("Failed to load sprite sheet: " + spriteSheetName, exception);
-                }
+                graph.spriteSheets.put(spriteSheetName, required("Failed to load sprite sheet: " + spriteSheetName,
+                        loadAsync("SpriteSheet " + spriteSheetName, () -> {
+                            loadSpriteSheet(spriteSheetName, spriteSheetData);
+                            return null;
+                        })));
+            }
+        }
+
+        if (assetManifest.getRegistries() != null) {
+            for (Map.Entry<String, AssetRegistry> entry : assetManifest.getRegistries().entrySet()) {
+                String registryName = entry.getKey();
+                SpriteSheetData spriteSheetData = entry.getValue().getSpriteSheet();
+                if (spriteSheetData == null) continue;
+
+                graph.spriteSheets.put(registryName, required("Failed to load registry: " + registryName,
+                        loadAsync("SpriteSheet " + registryName, () -> {
+                            loadSpriteSheet(registryName, spriteSheetData);
+                            return null;
+                        })));
             }
         }
 
@@ -451,64 +662,277 @@ public final class AssetLoader implements AutoCloseable {
                 String spriteName = entry.getKey();
                 SpriteData spriteData = entry.getValue();
 
-                try {
-                    loadSprite(spriteName, spriteData);
-                } catch (Exception exception) {
-                    stats.recordFailure();
-                    throw new AssetLoadingException("Failed to load sprite: " + spriteName, exception);
-                }
+                graph.loads.add(required("Failed to load sprite: " + spriteName,
+                        loadAfter(graph.getSpriteSheetDependency(spriteName, spriteData), "Sprite " + spriteName, () -> {
+                            loadSprite(spriteName, spriteData);
+                            return null;
+                        })));
             }
         }
 
         if (assetManifest.getRegistries() != null) {
             for (Map.Entry<String, AssetRegistry> entry : assetManifest.getRegistries().entrySet()) {
-                String registryName = entry.getKey();
-                AssetRegistry assetRegistry = entry.getValue();
+                loadRegistry(graph, entry.getKey(), entry.getValue());
+            }
+        }
+    }
 
-                try {
-                    loadRegistry(registryName, assetRegistry);
-                } catch(Exception exception) {
-                    stats.recordFailure();
-                    throw new AssetLoadingException("Failed to load registry: " + registryName, exception);
+    // Registers a source for every sprite sheet, sprite and animation instead of loading them. Sources prescale
+    // what they load, since postProcessAssets only sees assets loaded up front.
+    private void indexAssetsFromAssetManifest() {
+        double pixelScale = getPixelScale();
+
+        if (assetManifest.getSpriteSheets() != null) {
+            for (Map.Entry<String, SpriteSheetData> entry : assetManifest.getSpriteSheets().entrySet()) {
+                String spriteSheetName = entry.getKey();
+                SpriteSheetData spriteSheetData = entry.getValue();
+                assetManager.registerLazySpriteSheet(spriteSheetName, () -> createSpriteSheet(spriteSheetName, spriteSheetData));
+            }
+        }
+
+        if (assetManifest.getSprites() != null) {
+            for (Map.Entry<String, SpriteData> entry : assetManifest.getSprites().entrySet()) {
+                String spriteName = entry.getKey();
+                SpriteData spriteData = entry.getValue();
+                assetManager.registerLazySprite(spriteName, () -> prescaleSprite(createSprite(spriteName, spriteData), pixelScale));
+            }
+        }
+
+        if (assetManifest.getRegistries() == null) return;
+        for (Map.Entry<String, AssetRegistry> entry : assetManifest.getRegistries().entrySet()) {
+            String registryName = entry.getKey();
+            AssetRegistry assetRegistry = entry.getValue();
+
+            if (assetRegistry.getSpriteSheet() != null) {
+                assetManager.registerLazySpriteSheet(registryName, () -> createSpriteSheet(registryName, assetRegistry.getSpriteSheet()));
+            }
+
+            if (assetRegistry.getSprites() != null) {
+                for (Map.Entry<String, SpriteData> spriteEntry : assetRegistry.getSprites().entrySet()) {
+                    String key = registryName + "." + spriteEntry.getKey();
+                    SpriteData spriteData = spriteEntry.getValue();
+                    assetManager.registerLazySprite(key, () -> prescaleSprite(createSprite(key, spriteData), pixelScale));
+                }
+            }
+
+            if (assetRegistry.getAnimations() != null) {
+                for (Map.Entry<String, AnimationData> animationEntry : assetRegistry.getAnimations().entrySet()) {
+                    String animationName = animationEntry.getKey();
+                    AnimationData animationData = animationEntry.getValue();
+                    assetManager.registerLazyAnimation(registryName + "." + animationName, () -> {
+                        SpriteSheet sheet = assetManager.getSpriteSheetOptional(registryName)
+                                .orElseThrow(() -> new AssetLoadingException("No sprite sheet found for '" + registryName + "'"));
+                        return prescaleAnimation(createAnimation(registryName, animationName, sheet, animationData), pixelScale);
+                    });
                 }
             }
         }
     }
 
-    private void autoLoadAssetsFromAssetManifest() throws AssetLoadingException {
+    private void autoLoadAssetsFromAssetManifest(LoadGraph graph) throws AssetLoadingException {
         AutoLoadConfig autoLoadConfig = assetManifest.getAutoLoadConfig();
         if (autoLoadConfig == null) return;
 
+        // Tile sets cut their tiles from sheets and levels reference tile sets, so every tile set is
+        // queued before any level and whatever order the directories are listed in.
+        List<String> levelDirectories = new ArrayList<>();
         for (AutoLoadDirectoryConfig directoryConfig : autoLoadConfig.getDirectories()) {
             String directoryPath = directoryConfig.getPath();
             String directoryType = directoryConfig.getType().toUpperCase();
 
             switch(directoryType) {
-                case("LEVELDATA") -> loadDataFromDirectoryAuto(directoryPath, LevelData.class, this::validateLevelData, this::processLevelData);
-                case("TILESET") -> loadDataFromDirectoryAuto(directoryPath, TileSetData.class, this::validateTileSet, this::processTileSet);
-                case("SPRITE") -> loadSpritesFromDirectoryAuto(directoryPath);
+                case("LEVELDATA") -> levelDirectories.add(directoryPath);
+                case("TILESET") -> graph.tileSets.addAll(loadDataFromDirectoryAuto(directoryPath, TileSetData.class,
+                        allOf(graph.spriteSheets.values()), this::validateTileSetConfiguration, this::validateTileSetReferences, this::processTileSet));
+                case("SPRITE") -> {
+                    if (lazy) indexSpritesFromDirectoryAuto(directoryPath);
+                    else graph.loads.addAll(loadSpritesFromDirectoryAuto(directoryPath));
+                }
                 default -> throw new AssetLoadingException(String.format("Invalid directory type: %s", directoryType));
             }
         }
+
+        CompletableFuture<Void> tileSetsLoaded = allOf(graph.tileSets);
+        for (String directoryPath : levelDirectories) {
+            List<CompletableFuture<Void>> jsonLevels = loadDataFromDirectoryAuto(directoryPath, LevelData.class,
+                    tileSetsLoaded, this::validateLevelDataConfiguration, this::validateLevelDataReferences, this::processLevelData);
+            graph.loads.addAll(jsonLevels);
+            graph.loads.addAll(loadLevelFilesFromDirectoryAuto(directoryPath, CompletableFuture.allOf(tileSetsLoaded, allOf(jsonLevels))));
+        }
     }
 
-    private void loadRegistry(String registryName, AssetRegistry assetRegistry) throws AssetLoadingException {
-        if (assetRegistry.getSpriteSheet() != null) {
-            loadSpriteSheet(registryName, assetRegistry.getSpriteSheet());
+    private void awaitLoads(LoadGraph graph) throws AssetLoadingException {
+        List<CompletableFuture<Void>> loads = new ArrayList<>(graph.spriteSheets.values());
+        loads.addAll(graph.tileSets);
+        loads.addAll(graph.loads);
+
+        try {
+            allOf(loads).join();
+        } catch (CompletionException exception) {
+            Throwable cause = unwrap(exception);
+            if (cause instanceof AssetLoadingException assetLoadingException) throw assetLoadingException;
+            throw new AssetLoadingException("Asset loading task failed.", cause);
         }
+    }
+
+    // Loads started by one initialize, with the futures later loads wait on.
+    private static final class LoadGraph {
+        private final Map<String, CompletableFuture<Void>> spriteSheets = new HashMap<>();
+        private final List<CompletableFuture<Void>> tileSets = new ArrayList<>();
+        private final List<CompletableFuture<Void>> loads = new ArrayList<>();
+
+        // The sheet a sprite is cut from. Unknown sheets do not wait, loadSprite reports them.
+        CompletableFuture<Void> getSpriteSheetDependency(String key, SpriteData spriteData) {
+            String sheetKey = getSpriteSheetKey(key, spriteData);
+            CompletableFuture<Void> sheet = sheetKey == null ? null : spriteSheets.get(sheetKey);
+            return sheet != null ? sheet : CompletableFuture.completedFuture(null);
+        }
+    }
+
+    // Null for standalone sprites.
+    private static String getSpriteSheetKey(String key, SpriteData spriteData) {
+        if (spriteData.isSheetSprite()) return key.split("\\.")[0];
+        if (spriteData.isReferencedSheetSprite()) return spriteData.getPath();
+        return null;
+    }
+
+    @FunctionalInterface
+    private interface AssetTask<T> {
+        T run() throws Exception;
+    }
+
+    private <T> CompletableFuture<T> loadAsync(String asset, AssetTask<T> task) {
+        return CompletableFuture.supplyAsync(() -> timed(asset, task), executor);
+    }
+
+    private <T> CompletableFuture<T> loadAfter(CompletableFuture<?> dependency, String asset, AssetTask<T> task) {
+        return dependency.thenApplyAsync(ignored -> timed(asset, task), executor);
+    }
+
+    // Runs the task and adds its time to the asset, a task can be one of several steps of an asset.
+    private <T> T timed(String asset, AssetTask<T> task) {
+        long start = System.nanoTime();
+        try {
+            return task.run();
+        } catch (Exception exception) {
+            throw new CompletionException(exception);
+        } finally {
+            stats.recordLoadTime(asset, System.nanoTime() - start);
+        }
+    }
 
+    // Manifest assets are required, any failure fails the whole initialize.
+    private CompletableFuture<Void> required(String message, CompletableFuture<Void> load) {
+        return load.handle((ignored, exception) -> {
+            if (exception == null) return null;
+            stats.recordFailure();
+            throw new CompletionException(new AssetLoadingException(message, unwrap(exception)));
+        });
+    }
+
+    private static CompletableFuture<Void> allOf(Collection<CompletableFuture<Void>> futures) {
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]));
+    }
+
+    private static Throwable unwrap(Throwable exception) {
+        while (exception instanceof CompletionException && exception.getCause() != null) {
+            exception = exception.getCause();
+        }
+        return exception;
+    }
+
+    private double getPixelScale() {
+        return (double) tileSize / assetManifest.getBaseTileSize();
+    }
+
+    private void postProcessAssets() {
+        // Images are already compatible from ImageLoader, scale them to on screen size once.
+        double pixelScale = getPixelScale();
+        if (pixelScale == 1) return;
+
+        for (Sprite sprite : assetManager.getRegisteredSprites()) {
+            prescaleSprite(sprite, pixelScale);
+        }
+
+        for (Animation animation : assetManager.getRegisteredAnimations()) {
+            prescaleAnimation(animation, pixelScale);
+        }
+    }
+
+    private Animation prescaleAnimation(Animation animation, double pixelScale) {
+        for (Sprite frame : animation.getFrames(SpriteTransform.NONE)) {
+            prescaleSprite(frame, pixelScale);
+        }
+        // Creatures mirror their animations to face left.
+        for (Sprite frame : animation.getFrames(SpriteTransform.FLIP_HORIZONTAL)) {
+            prescaleSprite(frame, pixelScale);
+        }
+        return animation;
+    }
+
+    // Moves every sprite and the variants made so far into shared atlas pages. Variants created later,
+    // like an unusual draw size, stay in their own image.
+    private void packSprites() {
+        List<Sprite> sprites = new ArrayList<>(assetManager.getRegisteredSprites());
+        for (Animation animation : assetManager.getRegisteredAnimations()) {
+            sprites.addAll(Arrays.asList(animation.getFrames(SpriteTransform.NONE)));
+        }
+        for (TileSet tileSet : assetManager.getRegisteredTileSets()) {
+            for (int id = 0; id < tileSet.getTileCount(); id++) {
+                Tile tile = tileSet.getTile(id);
+                if (tile != null && tile.getSprite() != null) sprites.add(tile.getSprite());
+            }
+        }
+
+        SpriteAtlas atlas = SpriteAtlas.pack(sprites);
+        stats.recordAtlasPacked(atlas.getPages().size(), atlas.getSpriteCount());
+    }
+
+    private Sprite prescaleSprite(Sprite sprite, double pixelScale) {
+        if (pixelScale == 1) return sprite;
+        sprite.getScaled(
+                (int) Math.round(sprite.getWidth() * pixelScale),
+                (int) Math.round(sprite.getHeight() * pixelScale)
+        );
+        stats.recordSpritePrescaled();
+        return sprite;
+    }
+
+    private void loadRegistry(LoadGraph graph, String registryName, AssetRegistry assetRegistry) {
         if (assetRegistry.getSprites() != null && !assetRegistry.getSprites().isEmpty()) {
-            loadSprites(registryName, assetRegistry.getSprites());
+            for (Map.Entry<String, SpriteData> entry : assetRegistry.getSprites().entrySet()) {
+                String key = registryName + "." + entry.getKey();
+                SpriteData spriteData = entry.getValue();
+
+                graph.loads.add(required("Failed to load registry: " + registryName,
+                        loadAfter(graph.getSpriteSheetDependency(key, spriteData), "Sprite " + key, () -> {
+                            try {
+                                loadSprite(key, spriteData);
+                            } catch(Exception exception) {
+                                throw new AssetLoadingException("Failed to load sprite in registry: " + registryName, exception);
+                            }
+                            return null;
+                        })));
+            }
         }
 
         if (assetRegistry.getAnimations() != null && !assetRegistry.getAnimations().isEmpty()) {
-            loadAnimations(registryName, assetRegistry.getAnimations());
+            CompletableFuture<Void> sheet = graph.spriteSheets.getOrDefault(registryName, CompletableFuture.completedFuture(null));
+            graph.loads.add(required("Failed to load registry: " + registryName,
+                    loadAfter(sheet, "Animations " + registryName, () -> {
+                        loadAnimations(registryName, assetRegistry.getAnimations());
+                        return null;
+                    })));
         }
     }
 
     private void loadSpriteSheet(String key, SpriteSheetData config) throws AssetLoadingException {
+        assetManager.registerSpriteSheet(key, createSpriteSheet(key, config));
+    }
+
+    private SpriteSheet createSpriteSheet(String key, SpriteSheetData config) throws AssetLoadingException {
         try {
-            SpriteSheet spriteSheet = new SpriteSheet(config.getPath());
+            SpriteSheet spriteSheet = new SpriteSheet(loadImage(config.getPath()));
 
             Vector2Data spriteSize = config.getSpriteSize();
             spriteSheet.setSpriteSize(spriteSize.getX(), spriteSize.getY());
@@ -516,35 +940,24 @@ public final class AssetLoader implements AutoCloseable {
             Vector2Data offset = config.getOffset();
             spriteSheet.setOffset(offset.getX(), offset.getY());
 
-            assetManager.registerSpriteSheet(key, spriteSheet);
             stats.recordSpriteSheetLoaded();
-
+            return spriteSheet;
 
         } catch (Exception exception) {
             throw new AssetLoadingException("Failed to load SpriteSheet: " + key, exception);
         }
     }
 
-    private void loadSprites(String registryName, Map<String, SpriteData> spritesConfig) throws AssetLoadingException {
-        for (Map.Entry<String, SpriteData> entry : spritesConfig.entrySet()) {
-            String spriteName = entry.getKey();
-            SpriteData spriteData = entry.getValue();
-
-            try {
-                String key = registryName + "." + spriteName;
-                loadSprite(key, spriteData);
-            } catch(Exception exception) {
-                throw new AssetLoadingException("Failed to load sprite in registry: " + registryName, exception);
-            }
-        }
+    private void loadSprite(String key, SpriteData spriteData) throws AssetLoadingException {
+        assetManager.registerSprite(key, createSprite(key, spriteData));
     }
 
-    private void loadSprite(String key, SpriteData spriteData) throws AssetLoadingException {
+    private Sprite createSprite(String key, SpriteData spriteData) throws AssetLoadingException {
         try {
             Sprite sprite;
 
             if (spriteData.isStandaloneSprite()) {
-                sprite = new Sprite(spriteData.getPath());
+                sprite = new Sprite(loadImage(spriteData.getPath()));
             } else if (spriteData.isSheetSprite()) {
                 String registryName = key.split("\\.")[0];
                 SpriteSheet sheet = assetManager.getSpriteSheet(registryName);
@@ -552,40 +965,53 @@ public final class AssetLoader implements AutoCloseable {
                     throw new AssetLoadingException("No valid sprite sheet found for registry: " + registryName);
                 }
 
-                SpriteReference spriteReference = spriteData.getSpriteSheetReference();
-                Vector2Data spriteOffset = spriteReference.getOffset();
-                if (spriteOffset != null) {
-                    sheet.withOffset(spriteOffset.getX(), spriteOffset.getY());
-                }
-
-                Vector2Data spritePosition = spriteReference.getPos();
-                sprite = sheet.getSprite(spritePosition.getX(), spritePosition.getY());
+                sprite = getSheetSprite(sheet, spriteData.getSpriteSheetReference());
             } else if (spriteData.isReferencedSheetSprite()) {
                 SpriteSheet sheet = assetManager.getSpriteSheet(spriteData.getPath());
                 if (sheet == null) {
                     throw new AssetLoadingException("No valid sprite sheet found for key: " + spriteData.getPath());
                 }
 
-                SpriteReference spriteReference = spriteData.getSpriteSheetReference();
-                Vector2Data spriteOffset = spriteReference.getOffset();
-                if (spriteOffset != null) {
-                    sheet.withOffset(spriteOffset.getX(), spriteOffset.getY());
-                }
-
-                Vector2Data spritePosition = spriteReference.getPos();
-                sprite = sheet.getSprite(spritePosition.getX(), spritePosition.getY());
+                sprite = getSheetSprite(sheet, spriteData.getSpriteSheetReference());
             } else {
                 throw new AssetLoadingException("Invalid sprite configuration: " + key);
             }
 
-            assetManager.registerSprite(key, sprite);
             stats.recordSpriteLoaded();
+            return sprite;
 
         } catch(Exception exception) {
             throw new AssetLoadingException("Failed to load sprite: " + key, exception);
         }
     }
 
+    // Decoded images come from the asset cache while the source file is unchanged.
+    private BufferedImage loadImage(String path) throws IOException {
+        byte[] source = ImageLoader.readResource(path);
+        if (!assetCache.isEnabled()) return ImageLoader.decodeImage(source);
+
+        String cacheKey = AssetCache.key(source);
+        BufferedImage image = assetCache.readImage(cacheKey);
+        if (image != null) {
+            stats.recordCacheHit();
+            return image;
+        }
+
+        image = ImageLoader.decodeImage(source);
+        stats.recordCacheMiss();
+        assetCache.writeImage(cacheKey, image);
+        return image;
+    }
+
+    private Sprite getSheetSprite(SpriteSheet sheet, SpriteReference spriteReference) {
+        Vector2Data spritePosition = spriteReference.getPos();
+        Vector2Data spriteOffset = spriteReference.getOffset();
+        if (spriteOffset == null) {
+            return sheet.getSprite(spritePosition.getX(), spritePosition.getY());
+        }
+        return sheet.getSprite(spritePosition.getX(), spritePosition.getY(), spriteOffset.getX(), spriteOffset.getY());
+    }
+
     private void loadAnimations(String registryName, Map<String, AnimationData> animationsConfig) throws AssetLoadingException {
         SpriteSheet sheet = assetManager.getSpriteSheet(registryName);
         if (sheet == null) {
@@ -596,25 +1022,28 @@ public final class AssetLoader implements AutoCloseable {
             String animationName = entry.getKey();
             AnimationData animationData = entry.getValue();
 
-            try {
-                String key = registryName + "." + animationName;
+            assetManager.registerAnimation(registryName + "." + animationName, createAnimation(registryName, animationName, sheet, animationData));
+        }
+    }
 
-                Sprite[] frames = new Sprite[animationData.getFrameCount()];
-                for (int i=0; i < frames.length; i++) {
-                    frames[i] = sheet.getSprite(animationData.getStartCol() + i, animationData.getRow());
-                }
+    private Animation createAnimation(String registryName, String animationName, SpriteSheet sheet, AnimationData animationData) throws AssetLoadingException {
+        try {
+            Sprite[] frames = new Sprite[animationData.getFrameCount()];
+            for (int i=0; i < frames.length; i++) {
+                frames[i] = sheet.getSprite(animationData.getStartCol() + i, animationData.getRow());
+            }
 
-                Animation animation = new Animation(frames, animationData.getResolvedPriority(), animationData.getFrameDelay(), animationData.isLooping());
-                assetManager.registerAnimation(key, animation);
-                stats.recordAnimationLoaded();
+            Animation animation = new Animation(frames, animationData.getResolvedPriority(), animationData.getFrameDelay(), animationData.isLooping());
+            stats.recordAnimationLoaded();
+            return animation;
 
-            } catch (Exception e) {
-                throw new AssetLoadingException("Failed to load animation: " + registryName + "." + animationName, e);
-            }
+        } catch (Exception e) {
+            throw new AssetLoadingException("Failed to load animation: " + registryName + "." + animationName, e);
         }
     }
 
-    private void validateTileSet(Map.Entry<String, TileSetData> entry) throws AssetLoadingException {
+    // Checks that only need the data itself, cached tile sets have passed them.
+    private void validateTileSetConfiguration(Map.Entry<String, TileSetData> entry) throws AssetLoadingException {
         String key = entry.getKey();
         TileSetData tilesetData = entry.getValue();
 
@@ -643,12 +1072,6 @@ public final class AssetLoader implements AutoCloseable {
             );
         }
 
-        if (assetManager.getSpriteSheet(spriteReference.getPath()) == null) {
-            throw new AssetLoadingException(
-                    String.format("Invalid sprite sheet path for tile set: %s", key)
-            );
-        }
-
         for (int id=0; id<tilesetData.getTiles().size(); id++) {
             TileData tileData = tilesetData.getTiles().get(id);
 
@@ -672,12 +1095,32 @@ public final class AssetLoader implements AutoCloseable {
         }
     }
 
+    private void validateTileSetReferences(Map.Entry<String, TileSetData> entry) throws AssetLoadingException {
+        if (assetManager.getSpriteSheetOptional(entry.getValue().getSheet().getPath()).isEmpty()) {
+            throw new AssetLoadingException(
+                    String.format("Invalid sprite sheet path for tile set: %s", entry.getKey())
+            );
+        }
+    }
+
     private void processTileSet(Map.Entry<String, TileSetData> entry) {
         String key = entry.getKey();
         TileSetData tilesetData = entry.getValue();
 
+        AssetHandle<SpriteSheet> sheet = assetManager.acquireSpriteSheet(tilesetData.getSheet().getPath());
+        assetManager.registerTileSet(key, createTileSet(tilesetData, sheet.get()));
+        holdTileSetSheet(key, tilesetData.getSheet().getPath(), sheet);
+        stats.recordTileSetLoaded();
+    }
+
+    private void holdTileSetSheet(String key, String sheetKey, AssetHandle<SpriteSheet> sheet) {
+        tileSetSheets.put(key, sheetKey);
+        AssetHandle<SpriteSheet> previous = tileSetSheetHandles.put(key, sheet);
+        if (previous != null) previous.close();
+    }
+
+    private TileSet createTileSet(TileSetData tilesetData, SpriteSheet spriteSheet) {
         TileSetSpriteReference spriteReference = tilesetData.getSheet();
-        SpriteSheet spriteSheet = assetManager.getSpriteSheet(spriteReference.getPath());
         Vector2Data tileSize = spriteReference.getTileSize();
 
         int tileWidth = tileSize != null ? tileSize.getX() : (int) spriteSheet.getSpriteSize().x;
@@ -690,12 +1133,16 @@ public final class AssetLoader implements AutoCloseable {
             Vector2Data spriteCoordinates = tileData.getSpriteCoordinates();
             tileSet.addNewTile(id, tileData.getResolvedType(), spriteCoordinates.getX(), spriteCoordinates.getY());
         }
-
-        assetManager.registerTileSet(key, tileSet);
-        stats.recordTileSetLoaded();
+        return tileSet;
     }
 
     private void validateLevelData(Map.Entry<String, LevelData> entry) throws AssetLoadingException {
+        validateLevelDataConfiguration(entry);
+        validateLevelDataReferences(entry);
+    }
+
+    // Checks that only need the data itself, cached levels have passed them.
+    private void validateLevelDataConfiguration(Map.Entry<String, LevelData> entry) throws AssetLoadingException {
         String key = entry.getKey();
         LevelData levelData = entry.getValue();
 
@@ -711,16 +1158,10 @@ public final class AssetLoader implements AutoCloseable {
             );
         }
 
-        if (assetManager.getTileSet(levelData.getTileSet()) == null) {
-            throw new AssetLoadingException(
-                    String.format("Invalid tile set path for level: %s", key)
-            );
-        }
-
         for (int index=0; index < levelData.getMap().size(); index++) {
             TileLayerData layer = levelData.getMap().get(index);
             Set<ConstraintViolation<TileLayerData>> layerViolations = validator.validate(layer);
-            if (!levelViolations.isEmpty()) {
+            if (!layerViolations.isEmpty()) {
                 StringBuilder sb = new StringBuilder("\n\t");
                 for (ConstraintViolation<TileLayerData> violation : layerViolations) {
                     sb.append("- ").append(violation.getPropertyPath())
@@ -736,6 +1177,23 @@ public final class AssetLoader implements AutoCloseable {
                         String.format("Invalid layer type for layer in level: %s [#%d]", key, index)
                 );
             }
+
+            // Flat data has no rows of its own, a wrong count would shift every row after the first.
+            TileLayerGrid grid = layer.getData();
+            if (!grid.hasWidth() && grid.getLength() != levelData.getWidth() * levelData.getHeight()) {
+                throw new AssetLoadingException(
+                        String.format("Layer in level %s [#%d] has %d tiles, expected %d for %dx%d.", key, index,
+                                grid.getLength(), levelData.getWidth() * levelData.getHeight(), levelData.getWidth(), levelData.getHeight())
+                );
+            }
+        }
+    }
+
+    private void validateLevelDataReferences(Map.Entry<String, LevelData> entry) throws AssetLoadingException {
+        if (assetManager.getTileSet(entry.getValue().getTileSet()) == null) {
+            throw new AssetLoadingException(
+                    String.format("Invalid tile set path for level: %s", entry.getKey())
+            );
         }
     }
 
@@ -767,7 +1225,7 @@ public final class AssetLoader implements AutoCloseable {
     private String getRelativePathString(Path basePath, Path fullPath) {
         return basePath.relativize(fullPath).toString()
                 .replace('\\', '/')
-                .replaceAll("\\.(?:json|png|jpg|jpeg)$", "");
+                .replaceAll("\\.(?:json|level|png|jpg|jpeg)$", "");
     }
 
     private String getRelativePathStringWithExtension(Path basePath, Path fullPath) {
@@ -776,23 +1234,332 @@ public final class AssetLoader implements AutoCloseable {
 
     public AssetLoadingStats getStats() { return stats; }
 
+    // Reloads the assets whose files changed since they were loaded, in place. Without hot reload no file was
+    // hashed at load time, so the first call reloads every asset that came from a file.
     public CompletableFuture<Void> reloadAsync() {
         return CompletableFuture.runAsync(() -> {
-            try {
-                LOGGER.info("Starting hot reload...");
-                cleanup();
-                initialize();
-                LOGGER.info("Hot reload completed");
-            } catch (AssetLoadingException e) {
-                LOGGER.fatal("Hot reload failed", e);
-                throw new RuntimeException(e);
+            synchronized (this) {
+                if (!initialized) throw new IllegalStateException("Assets are not loaded.");
+                if (reloader == null) reloader = indexReloadTargets();
+                reloadFiles(reloader.getFiles());
             }
         }, executor);
     }
 
-    public void cleanup() {
+    private void startHotReload() {
+        reloader = indexReloadTargets();
+        reloader.snapshot();
+        try {
+            reloader.watch(this::reloadFiles);
+        } catch (IOException exception) {
+            LOGGER.warn("Cannot watch asset files, reloadAsync still reloads changed ones.", exception);
+        }
+    }
+
+    private void stopHotReload() {
+        if (reloader == null) return;
+        reloader.close();
+        reloader = null;
+    }
+
+    // Rebuilds what came from the changed files off the game thread, then swaps all of it in between two ticks,
+    // so the game never sees half a reload. Assets that fail to reload stay as they were.
+    private synchronized void reloadFiles(Collection<Path> files) {
+        if (reloader == null) return;
+
+        long startTime = System.currentTimeMillis();
+        List<Runnable> swaps = new ArrayList<>();
+        List<Path> changed = new ArrayList<>();
+        for (Path file : files) {
+            if (!reloader.hasChanged(file)) continue;
+            changed.add(file);
+
+            for (AssetReloader.Target target : reloader.getTargets(file)) {
+                try {
+                    Runnable swap = target.reload().prepare();
+                    if (swap == null) continue;
+                    swaps.add(swap);
+                    LOGGER.info("Reloaded {} from {}", target.asset(), file);
+                } catch (Exception exception) {
+                    stats.recordFailure();
+                    LOGGER.error("Failed to reload {}, keeping the loaded one.", target.asset(), exception);
+                }
+            }
+        }
+        if (swaps.isEmpty()) return;
+
+        for (int attempt = 1; attempt <= SWAP_ATTEMPTS; attempt++) {
+            if (swapOnGameThreads(swaps)) {
+                LOGGER.info("Hot reload prepared {} assets in {}ms.", swaps.size(), System.currentTimeMillis() - startTime);
+                return;
+            }
+            LOGGER.warn("Not every world paused for the hot reload, attempt {} of {}.", attempt, SWAP_ATTEMPTS);
+        }
+
+        // Nothing was swapped, the files count as unchanged again so the next change or reloadAsync retries them.
+        for (Path file : changed) {
+            reloader.forget(file);
+        }
+        stats.recordFailure();
+        LOGGER.error("Hot reload skipped, not every world paused for it.");
+    }
+
+    // Every world draws the same sprites, so each running world pauses at the start of a tick until the swaps are
+    // done. The swaps only run once all of them have paused, a world that does not arrive in time, for example
+    // one that is stopping, cancels the attempt and the paused worlds carry on untouched.
+    private boolean swapOnGameThreads(List<Runnable> swaps) {
+        List<Game> running = new ArrayList<>();
+        for (Game world : games) {
+            if (world.isRunning()) running.add(world);
+        }
+
+        CountDownLatch arrived = new CountDownLatch(running.size());
+        CountDownLatch released = new CountDownLatch(1);
+        AtomicBoolean swapped = new AtomicBoolean();
+        for (Game world : running) {
+            world.runOnGameThread(() -> {
+                arrived.countDown();
+                try {
+                    released.await();
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                }
+                if (swapped.get()) refreshLevel(world);
+            });
+        }
+
+        boolean paused = false;
+        try {
+            paused = arrived.await(SWAP_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+
+        try {
+            if (!paused) return false;
+            swapped.set(true);
+            for (Runnable swap : swaps) {
+                swap.run();
+            }
+        } finally {
+            released.countDown();
+        }
+        for (Game world : games) {
+            if (!running.contains(world)) refreshLevel(world);
+        }
+        return true;
+    }
+
+    private static void refreshLevel(Game world) {
+        State state = world.getState();
+        Level level = state != null ? state.getLevel() : null;
+        if (level != null) level.refreshTiles();
+    }
+
+    // Maps every file on disk that assets were loaded from to the reloads it needs.
+    private AssetReloader indexReloadTargets() {
+        AssetReloader index = new AssetReloader();
+        index.add(resolveFile(MANIFEST_PATH), "AssetManifest", () -> {
+            LOGGER.warn("The asset manifest changed, restart to apply it.");
+            return null;
+        });
+
+        Map<String, SpriteSheetData> spriteSheets = new LinkedHashMap<>();
+        if (assetManifest.getSpriteSheets() != null) spriteSheets.putAll(assetManifest.getSpriteSheets());
+        if (assetManifest.getRegistries() != null) {
+            for (Map.Entry<String, AssetRegistry> entry : assetManifest.getRegistries().entrySet()) {
+                if (entry.getValue().getSpriteSheet() != null) spriteSheets.put(entry.getKey(), entry.getValue().getSpriteSheet());
+            }
+        }
+        for (Map.Entry<String, SpriteSheetData> entry : spriteSheets.entrySet()) {
+            String key = entry.getKey();
+            SpriteSheetData spriteSheetData = entry.getValue();
+            index.add(resolveFile(spriteSheetData.getPath()), "SpriteSheet " + key, () -> reloadSpriteSheet(key, spriteSheetData));
+        }
+
+        for (Map.Entry<String, SpriteData> entry : getManifestSprites().entrySet()) {
+            String key = entry.getKey();
+            SpriteData spriteData = entry.getValue();
+            if (!spriteData.isStandaloneSprite()) continue;
+            index.add(resolveFile(spriteData.getPath()), "Sprite " + key, () -> reloadSprite(key, spriteData));
+        }
+
+        AutoLoadConfig autoLoadConfig = assetManifest.getAutoLoadConfig();
+        if (autoLoadConfig == null) return index;
+        for (AutoLoadDirectoryConfig directoryConfig : autoLoadConfig.getDirectories()) {
+            String directoryPath = directoryConfig.getPath();
+            String directoryType = directoryConfig.getType().toUpperCase();
+            try {
+                Path path = resolveResourceDirectory(directoryPath);
+                if (path == null || path.getFileSystem() != FileSystems.getDefault()) continue;
+
+                try (Stream<Path> paths = Files.walk(path)) {
+                    for (Path file : (Iterable<Path>) paths.filter(Files::isRegularFile)::iterator) {
+                        String key = generateKeyFromPath(getRelativePathString(path, file));
+                        String fileName = file.toString();
+
+                        switch (directoryType) {
+                            case "TILESET" -> {
+                                if (fileName.endsWith(".json")) index.add(file, "TileSet " + key, () -> reloadTileSet(key, file));
+                            }
+                            case "LEVELDATA" -> {
+                                // A binary level replaces the JSON level with the same key.
+                                boolean binary = fileName.endsWith(LevelFile.EXTENSION);
+                                boolean replaced = fileName.endsWith(".json")
+                                        && Files.exists(file.resolveSibling(file.getFileName().toString().replaceAll("\\.json$", LevelFile.EXTENSION)));
+                                if (binary || fileName.endsWith(".json") && !replaced) {
+                                    index.add(file, "LevelData " + key, () -> reloadLevelData(key, file));
+                                }
+                            }
+                            case "SPRITE" -> {
+                                if (isImageFile(fileName)) {
+                                    SpriteData spriteData = new SpriteData();
+                                    spriteData.setPath(getResourcePath(directoryPath, getRelativePathStringWithExtension(path, file)).substring(1));
+                                    index.add(file, "Sprite " + key, () -> reloadSprite(key, spriteData));
+                                }
+                            }
+                            default -> { }
+                        }
+                    }
+                }
+            } catch (Exception exception) {
+                LOGGER.warn("Cannot watch asset directory: {}", directoryPath, exception);
+            }
+        }
+        return index;
+    }
+
+    // Sprites of the manifest and its registries, registry sprites keyed like "registry.sprite".
+    private Map<String, SpriteData> getManifestSprites() {
+        Map<String, SpriteData> sprites = new LinkedHashMap<>();
+        if (assetManifest.getSprites() != null) sprites.putAll(assetManifest.getSprites());
+        if (assetManifest.getRegistries() != null) {
+            for (Map.Entry<String, AssetRegistry> entry : assetManifest.getRegistries().entrySet()) {
+                if (entry.getValue().getSprites() == null) continue;
+                for (Map.Entry<String, SpriteData> spriteEntry : entry.getValue().getSprites().entrySet()) {
+                    sprites.put(entry.getKey() + "." + spriteEntry.getKey(), spriteEntry.getValue());
+                }
+            }
+        }
+        return sprites;
+    }
+
+    // The file a resource was read from, null when it is not a plain file, like a resource inside a jar.
+    private Path resolveFile(String resourcePath) {
+        URL resource = getClass().getClassLoader().getResource(resourcePath.startsWith("/") ? resourcePath.substring(1) : resourcePath);
+        if (resource == null || !"file".equals(resource.getProtocol())) return null;
+        try {
+            return Paths.get(resource.toURI());
+        } catch (URISyntaxException exception) {
+            return null;
+        }
+    }
+
+    // Sprites keep their identity through a reload, they take over the pixels of the new ones. Sprites and
+    // animation frames cut from the sheet are cut again, and tile sets cutting from it refresh their tiles.
+    private Runnable reloadSpriteSheet(String key, SpriteSheetData config) throws AssetLoadingException {
+        SpriteSheet fresh = createSpriteSheet(key, config);
+
+        Map<String, Sprite> sprites = new HashMap<>();
+        for (Map.Entry<String, SpriteData> entry : getManifestSprites().entrySet()) {
+            if (key.equals(getSpriteSheetKey(entry.getKey(), entry.getValue()))) {
+                sprites.put(entry.getKey(), getSheetSprite(fresh, entry.getValue().getSpriteSheetReference()));
+            }
+        }
+
+        Map<String, Animation> animations = new HashMap<>();
+        AssetRegistry registry = assetManifest.getRegistries() != null ? assetManifest.getRegistries().get(key) : null;
+        if (registry != null && registry.getAnimations() != null) {
+            for (Map.Entry<String, AnimationData> entry : registry.getAnimations().entrySet()) {
+                String animationKey = key + "." + entry.getKey();
+                Animation animation = createAnimation(key, entry.getKey(), fresh, entry.getValue());
+                // Frames are replaced in place, players hold on to them.
+                Animation loaded = assetManager.peekAnimation(animationKey);
+                if (loaded != null && loaded.getFrameCount() != animation.getFrameCount()) {
+                    throw new AssetLoadingException("Frame count of animation " + animationKey + " changed, restart to apply it.");
+                }
+                animations.put(animationKey, animation);
+            }
+        }
+
+        return () -> {
+            SpriteSheet loaded = assetManager.peekSpriteSheet(key);
+            if (loaded != null) loaded.replaceWith(fresh);
+            // Tile sets hold their sheet, so it is the loaded one.
+            tileSetSheets.forEach((tileSetKey, sheetKey) -> {
+                if (!key.equals(sheetKey)) return;
+                TileSet tileSet = assetManager.peekTileSet(tileSetKey);
+                if (tileSet == null) return;
+                tileSet.reloadSprites();
+            });
+
+            sprites.forEach((spriteKey, sprite) -> replaceSprite(assetManager.peekSprite(spriteKey), sprite));
+            animations.forEach((animationKey, animation) -> replaceFrames(assetManager.peekAnimation(animationKey), animation));
+        };
+    }
+
+    private Runnable reloadSprite(String key, SpriteData config) throws AssetLoadingException {
+        Sprite fresh = createSprite(key, config);
+        return () -> replaceSprite(assetManager.peekSprite(key), fresh);
+    }
+
+    // Lazy sprites that are not loaded need nothing, their next load reads the new file.
+    private void replaceSprite(Sprite loaded, Sprite fresh) {
+        if (loaded != null) loaded.replaceWith(fresh);
+    }
+
+    private void replaceFrames(Animation loaded, Animation fresh) {
+        if (loaded == null) return;
+        Sprite[] frames = loaded.getFrames(SpriteTransform.NONE);
+        Sprite[] freshFrames = fresh.getFrames(SpriteTransform.NONE);
+        for (int i = 0; i < frames.length; i++) {
+            frames[i].replaceWith(freshFrames[i]);
+        }
+    }
+
+    private Runnable reloadTileSet(String key, Path file) throws IOException, AssetLoadingException {
+        TileSetData tilesetData = gson.fromJson(Files.readString(file), TileSetData.class);
+        Map.Entry<String, TileSetData> entry = Map.entry(key, tilesetData);
+        validateTileSetConfiguration(entry);
+        validateTileSetReferences(entry);
+
+        AssetHandle<SpriteSheet> sheet = assetManager.acquireSpriteSheet(tilesetData.getSheet().getPath());
+        TileSet fresh = createTileSet(tilesetData, sheet.get());
+        TileSet loaded = assetManager.peekTileSet(key);
+        // Layers lay out their chunks by tile size.
+        if (loaded != null && (loaded.getTileWidth() != fresh.getTileWidth() || loaded.getTileHeight() != fresh.getTileHeight())) {
+            sheet.close();
+            throw new AssetLoadingException("Tile size of tile set " + key + " changed, restart to apply it.");
+        }
+        stats.recordTileSetLoaded();
+
+        return () -> {
+            holdTileSetSheet(key, tilesetData.getSheet().getPath(), sheet);
+            if (loaded == null) {
+                assetManager.registerTileSet(key, fresh);
+                return;
+            }
+            loaded.replaceWith(fresh);
+            // Its sheet may have been reloaded in the same batch, after the tiles were cut.
+            loaded.reloadSprites();
+        };
+    }
+
+    // Levels are read when they load, the new data applies the next time the level loads.
+    private Runnable reloadLevelData(String key, Path file) throws IOException, AssetLoadingException {
+        LevelData levelData = file.toString().endsWith(LevelFile.EXTENSION)
+                ? LevelFile.read(file)
+                : gson.fromJson(Files.readString(file), LevelData.class);
+        Map.Entry<String, LevelData> entry = Map.entry(key, levelData);
+        validateLevelData(entry);
+        return () -> processLevelData(entry);
+    }
+
+    public synchronized void cleanup() {
+        stopHotReload();
         assetManager.clear();
         assetManifest = null;
+        initialized = false;
         instance = null;
     }
 
@@ -812,25 +1579,62 @@ public final class AssetLoader implements AutoCloseable {
         LOGGER.info("AssetManager closed");
     }
 
+    // Updated from the loader threads.
     public static class AssetLoadingStats {
-        private int spriteSheetsLoaded = 0;
-        private int spritesLoaded = 0;
-        private int animationsLoaded = 0;
-        private int tileSetsLoaded = 0;
-        private int levelDataLoaded = 0;
-        private int failures = 0;
-
-        void recordSpriteSheetLoaded() { spriteSheetsLoaded++; }
-        void recordSpriteLoaded() { spritesLoaded++; }
-        void recordAnimationLoaded() { animationsLoaded++; }
-        void recordTileSetLoaded() { tileSetsLoaded++; }
-        void recordLevelDataLoaded() { levelDataLoaded++; }
-        void recordFailure() { failures++; }
-        void reset() { spriteSheetsLoaded = spritesLoaded = animationsLoaded = tileSetsLoaded = levelDataLoaded = failures = 0; }
+        private final AtomicInteger spriteSheetsLoaded = new AtomicInteger();
+        private final AtomicInteger spritesLoaded = new AtomicInteger();
+        private final AtomicInteger animationsLoaded = new AtomicInteger();
+        private final AtomicInteger tileSetsLoaded = new AtomicInteger();
+        private final AtomicInteger levelDataLoaded = new AtomicInteger();
+        private final AtomicInteger spritesPrescaled = new AtomicInteger();
+        private final AtomicInteger atlasPages = new AtomicInteger();
+        private final AtomicInteger spritesPacked = new AtomicInteger();
+        private final AtomicInteger failures = new AtomicInteger();
+        private final AtomicInteger cacheHits = new AtomicInteger();
+        private final AtomicInteger cacheMisses = new AtomicInteger();
+        private final Map<String, Long> loadTimes = new ConcurrentHashMap<>();
+
+        void recordSpriteSheetLoaded() { spriteSheetsLoaded.incrementAndGet(); }
+        void recordSpriteLoaded() { spritesLoaded.incrementAndGet(); }
+        void recordAnimationLoaded() { animationsLoaded.incrementAndGet(); }
+        void recordTileSetLoaded() { tileSetsLoaded.incrementAndGet(); }
+        void recordLevelDataLoaded() { levelDataLoaded.incrementAndGet(); }
+        void recordSpritePrescaled() { spritesPrescaled.incrementAndGet(); }
+        void recordAtlasPacked(int pages, int sprites) {
+            atlasPages.addAndGet(pages);
+            spritesPacked.addAndGet(sprites);
+        }
+        void recordFailure() { failures.incrementAndGet(); }
+        void recordCacheHit() { cacheHits.incrementAndGet(); }
+        void recordCacheMiss() { cacheMisses.incrementAndGet(); }
+        void recordLoadTime(String asset, long nanos) { loadTimes.merge(asset, nanos, Long::sum); }
+        void reset() {
+            for (AtomicInteger counter : new AtomicInteger[]{spriteSheetsLoaded, spritesLoaded, animationsLoaded, tileSetsLoaded,
+                    levelDataLoaded, spritesPrescaled, atlasPages, spritesPacked, failures, cacheHits, cacheMisses}) {
+                counter.set(0);
+            }
+            loadTimes.clear();
+        }
+
+        // Time spent decoding, parsing and registering each asset, keyed like "SpriteSheet garden".
+        public Map<String, Duration> getLoadTimes() {
+            Map<String, Duration> times = new TreeMap<>();
+            loadTimes.forEach((asset, nanos) -> times.put(asset, Duration.ofNanos(nanos)));
+            return times;
+        }
+
+        public String getSlowest(int count) {
+            return loadTimes.entrySet().stream()
+                    .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                    .limit(count)
+                    .map(entry -> String.format("%s %.1fms", entry.getKey(), entry.getValue() / 1_000_000.0))
+                    .collect(Collectors.joining(", "));
+        }
 
         public String getSummary() {
-            return String.format("Loaded: %d sprite sheets, %d sprites, %d animations, %d tile sets, %d level data. Failures: %d",
-                    spriteSheetsLoaded, spritesLoaded, animationsLoaded, tileSetsLoaded, levelDataLoaded, failures);
+            return String.format("Loaded: %d sprite sheets, %d sprites, %d animations, %d tile sets, %d level data. Prescaled: %d sprites. Packed: %d sprites in %d atlas pages. Cache: %d hits, %d misses. Failures: %d",
+                    spriteSheetsLoaded.get(), spritesLoaded.get(), animationsLoaded.get(), tileSetsLoaded.get(), levelDataLoaded.get(),
+                    spritesPrescaled.get(), spritesPacked.get(), atlasPages.get(), cacheHits.get(), cacheMisses.get(), failures.get());
         }
     }
-}
\ No newline at end of file
+}
@@ -4,15 +4,27 @@ import aragon.game.assets.data.LevelData;
 import aragon.game.graphics.Animation;
 import aragon.game.graphics.Sprite;
 import aragon.game.graphics.SpriteSheet;
+import aragon.game.graphics.SpriteTransform;
 import aragon.game.level.TileSet;
 import aragon.game.main.Game;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
 
 public final class AssetManager {
     private static volatile AssetManager instance;
@@ -24,6 +36,20 @@ public final class AssetManager {
     private final Map<String, TileSet> tileSets = new ConcurrentHashMap<>();
     private final Map<String, LevelData> levelDataMap = new ConcurrentHashMap<>();
 
+    // Lazy assets are only indexed, they load on first request and are evicted least recently used first
+    // once the loaded ones exceed the budget. Assets held through a handle are never evicted, and neither is
+    // a lazy asset another loaded one was built from, like the sheet of a sprite, while that one is loaded.
+    private final Map<String, LazyAsset<Sprite>> lazySprites = new ConcurrentHashMap<>();
+    private final Map<String, LazyAsset<SpriteSheet>> lazySpriteSheets = new ConcurrentHashMap<>();
+    private final Map<String, LazyAsset<Animation>> lazyAnimations = new ConcurrentHashMap<>();
+    private final LinkedHashMap<LazyAsset<?>, Boolean> resident = new LinkedHashMap<>(16, 0.75f, true);
+    // Sprites cut from a sheet share its image, so bytes are counted once per image loaded assets hold.
+    private final Map<BufferedImage, Integer> residentImages = new IdentityHashMap<>();
+    private final ThreadLocal<LazyAsset<?>> loading = new ThreadLocal<>();
+    private long residentBytes;
+    private long evictions;
+    private volatile long budget = Integer.getInteger("aragon.assets.budget", 256) * (1L << 20);
+
     private AssetManager() {
         LOGGER.info("Instantiated new singleton.");
     }
@@ -67,6 +93,46 @@ public final class AssetManager {
         LOGGER.info("Registered level data: {}", key);
     }
 
+    public void registerLazySpriteSheet(String key, AssetSource<SpriteSheet> source) {
+        lazySpriteSheets.put(key, new LazyAsset<>("sprite sheet " + key, source, Sprite::collectImages));
+    }
+
+    public void registerLazySprite(String key, AssetSource<Sprite> source) {
+        lazySprites.put(key, new LazyAsset<>("sprite " + key, source, Sprite::collectImages));
+    }
+
+    public void registerLazyAnimation(String key, AssetSource<Animation> source) {
+        lazyAnimations.put(key, new LazyAsset<>("animation " + key, source, AssetManager::collectImages));
+    }
+
+    // Budget for the images loaded lazy assets hold, in bytes of pixels. Lowering it evicts right away.
+    public void setBudget(long bytes) {
+        budget = bytes;
+        synchronized (resident) {
+            evict(null);
+        }
+    }
+
+    public long getBudget() { return budget; }
+
+    public long getResidentBytes() {
+        synchronized (resident) {
+            return residentBytes;
+        }
+    }
+
+    public int getResidentCount() {
+        synchronized (resident) {
+            return resident.size();
+        }
+    }
+
+    public long getEvictionCount() {
+        synchronized (resident) {
+            return evictions;
+        }
+    }
+
     public TileSet getTileSet(String path) {
         TileSet tileSet = tileSets.get(path);
         if (tileSet == null) {
@@ -84,7 +150,7 @@ public final class AssetManager {
     }
 
     public Animation getAnimation(String path) {
-        Animation animation = animations.get(path);
+        Animation animation = find(animations, lazyAnimations, path);
         if (animation == null) {
             LOGGER.warn("Animation not found: {}", path);
         }
@@ -92,7 +158,7 @@ public final class AssetManager {
     }
 
     public Sprite getSprite(String path) {
-        Sprite sprite = sprites.get(path);
+        Sprite sprite = find(sprites, lazySprites, path);
         if (sprite == null) {
             LOGGER.warn("Sprite not found: {}", path);
             return createPlaceholderSprite();
@@ -110,7 +176,7 @@ public final class AssetManager {
     }
 
     public Optional<SpriteSheet> getSpriteSheetOptional(String path) {
-        return Optional.ofNullable(spriteSheets.get(path));
+        return Optional.ofNullable(find(spriteSheets, lazySpriteSheets, path));
     }
 
     public SpriteSheet getSpriteSheet(String path) {
@@ -119,9 +185,207 @@ public final class AssetManager {
     }
 
     public Optional<Animation> getAnimationOptional(String path) {
-        return Optional.ofNullable(animations.get(path));
+        return Optional.ofNullable(find(animations, lazyAnimations, path));
+    }
+
+    // Like getSprite, but a lazy sprite stays loaded until the handle is closed.
+    public AssetHandle<Sprite> acquireSprite(String path) {
+        LazyAsset<Sprite> lazy = lazySprites.get(path);
+        if (lazy == null || sprites.containsKey(path)) return new AssetHandle<>(getSprite(path), () -> {});
+        return acquire(lazy, this::createPlaceholderSprite);
+    }
+
+    // Like getSpriteSheet, the sheet and every sprite cut from it stay valid until the handle is closed.
+    public AssetHandle<SpriteSheet> acquireSpriteSheet(String path) {
+        LazyAsset<SpriteSheet> lazy = lazySpriteSheets.get(path);
+        if (lazy == null || spriteSheets.containsKey(path)) return new AssetHandle<>(getSpriteSheet(path), () -> {});
+        AssetHandle<SpriteSheet> handle = acquire(lazy, () -> null);
+        if (handle.get() != null) return handle;
+        handle.close();
+        throw new IllegalArgumentException("Sprite sheet not found: " + path);
+    }
+
+    // Like getAnimation, null when there is no such animation.
+    public AssetHandle<Animation> acquireAnimation(String path) {
+        LazyAsset<Animation> lazy = lazyAnimations.get(path);
+        if (lazy == null || animations.containsKey(path)) {
+            Animation animation = getAnimation(path);
+            return animation == null ? null : new AssetHandle<>(animation, () -> {});
+        }
+        AssetHandle<Animation> handle = acquire(lazy, () -> null);
+        if (handle.get() != null) return handle;
+        handle.close();
+        return null;
+    }
+
+    private <T> AssetHandle<T> acquire(LazyAsset<T> lazy, Supplier<T> fallback) {
+        lazy.references.incrementAndGet();
+        T asset = load(lazy);
+        return new AssetHandle<>(asset != null ? asset : fallback.get(), () -> {
+            if (lazy.references.decrementAndGet() == 0) {
+                synchronized (resident) {
+                    evict(null);
+                }
+            }
+        });
+    }
+
+    // Assets registered up front win over lazy ones with the same key.
+    private <T> T find(Map<String, T> loaded, Map<String, LazyAsset<T>> lazy, String path) {
+        T asset = loaded.get(path);
+        if (asset != null) return asset;
+        LazyAsset<T> lazyAsset = lazy.get(path);
+        return lazyAsset == null ? null : load(lazyAsset);
+    }
+
+    private <T> T load(LazyAsset<T> lazy) {
+        try {
+            return lazy.get();
+        } catch (AssetLoadingException exception) {
+            LOGGER.error("Failed to load {}", lazy.name, exception);
+            return null;
+        }
     }
 
+    // Drops least recently used assets nobody holds until the loaded ones fit the budget. Callers hold the
+    // resident lock.
+    private void evict(LazyAsset<?> keep) {
+        while (residentBytes > budget && evictOldest(keep)) {}
+    }
+
+    // Dropping an asset can unpin ones it was built from, older ones included, so each pass starts over.
+    private boolean evictOldest(LazyAsset<?> keep) {
+        Iterator<LazyAsset<?>> iterator = resident.keySet().iterator();
+        while (iterator.hasNext()) {
+            LazyAsset<?> lazy = iterator.next();
+            if (lazy == keep || lazy.references.get() > 0) continue;
+
+            iterator.remove();
+            for (BufferedImage image : lazy.images) {
+                if (residentImages.merge(image, -1, Integer::sum) == 0) {
+                    residentImages.remove(image);
+                    residentBytes -= getMemorySize(image);
+                }
+            }
+            lazy.images = List.of();
+            lazy.releaseDependencies();
+            lazy.value = null;
+            evictions++;
+            LOGGER.debug("Evicted {}", lazy.name);
+            return true;
+        }
+        return false;
+    }
+
+    private static long getMemorySize(BufferedImage image) {
+        return (long) image.getWidth() * image.getHeight() * Integer.BYTES;
+    }
+
+    private static void collectImages(Animation animation, Collection<BufferedImage> images) {
+        for (Sprite frame : animation.getFrames(SpriteTransform.NONE)) {
+            frame.collectImages(images);
+        }
+    }
+
+    private final class LazyAsset<T> {
+        private final String name;
+        private final AssetSource<T> source;
+        private final BiConsumer<T, Collection<BufferedImage>> imageCollector;
+        private final AtomicInteger references = new AtomicInteger();
+        private volatile T value;
+        // Guarded by the resident lock.
+        private List<BufferedImage> images = List.of();
+        private final List<LazyAsset<?>> dependencies = new ArrayList<>();
+
+        LazyAsset(String name, AssetSource<T> source, BiConsumer<T, Collection<BufferedImage>> imageCollector) {
+            this.name = name;
+            this.source = source;
+            this.imageCollector = imageCollector;
+        }
+
+        T get() throws AssetLoadingException {
+            // Pinned before loading, so it cannot be evicted before the asset being built holds on to it.
+            LazyAsset<?> dependent = loading.get();
+            if (dependent != null && dependent != this) dependent.dependOn(this);
+
+            T current = value;
+            if (current != null) {
+                synchronized (resident) {
+                    resident.get(this);
+                }
+                return current;
+            }
+
+            // Loads outside the resident lock, a sprite loading its sheet would otherwise hold it while decoding.
+            synchronized (this) {
+                current = value;
+                if (current == null) {
+                    loading.set(this);
+                    try {
+                        current = source.load();
+                    } catch (AssetLoadingException | RuntimeException exception) {
+                        synchronized (resident) {
+                            releaseDependencies();
+                        }
+                        throw exception;
+                    } finally {
+                        loading.set(dependent);
+                    }
+
+                    Set<BufferedImage> loadedImages = Collections.newSetFromMap(new IdentityHashMap<>());
+                    imageCollector.accept(current, loadedImages);
+                    long size = 0;
+                    synchronized (resident) {
+                        images = List.copyOf(loadedImages);
+                        for (BufferedImage image : images) {
+                            if (residentImages.merge(image, 1, Integer::sum) == 1) size += getMemorySize(image);
+                        }
+                        value = current;
+                        resident.put(this, Boolean.TRUE);
+                        residentBytes += size;
+                        evict(this);
+                    }
+                    LOGGER.info("Loaded {} ({} KB)", name, size / 1024);
+                }
+            }
+            return current;
+        }
+
+        private void dependOn(LazyAsset<?> dependency) {
+            synchronized (resident) {
+                if (dependencies.contains(dependency)) return;
+                dependency.references.incrementAndGet();
+                dependencies.add(dependency);
+            }
+        }
+
+        // Callers hold the resident lock.
+        private void releaseDependencies() {
+            for (LazyAsset<?> dependency : dependencies) {
+                dependency.references.decrementAndGet();
+            }
+            dependencies.clear();
+        }
+    }
+
+    // What is loaded under the key right now, lazy assets are not loaded by a peek. Hot reload only updates
+    // assets somebody may be holding.
+    Sprite peekSprite(String path) { return peek(sprites, lazySprites, path); }
+    SpriteSheet peekSpriteSheet(String path) { return peek(spriteSheets, lazySpriteSheets, path); }
+    Animation peekAnimation(String path) { return peek(animations, lazyAnimations, path); }
+    TileSet peekTileSet(String path) { return tileSets.get(path); }
+
+    private <T> T peek(Map<String, T> loaded, Map<String, LazyAsset<T>> lazy, String path) {
+        T asset = loaded.get(path);
+        if (asset != null) return asset;
+        LazyAsset<T> lazyAsset = lazy.get(path);
+        return lazyAsset == null ? null : lazyAsset.value;
+    }
+
+    Collection<Sprite> getRegisteredSprites() { return sprites.values(); }
+    Collection<Animation> getRegisteredAnimations() { return animations.values(); }
+    Collection<TileSet> getRegisteredTileSets() { return tileSets.values(); }
+
     private Sprite createPlaceholderSprite() {
         BufferedImage placeholder = new BufferedImage(2, 2, BufferedImage.TYPE_INT_RGB);
         for (int y = 0; y < 2; y++) {
@@ -138,5 +402,16 @@ public final class AssetManager {
         animations.clear();
         tileSets.clear();
         levelDataMap.clear();
+        lazySprites.clear();
+        lazySpriteSheets.clear();
+        lazyAnimations.clear();
+        synchronized (resident) {
+            for (LazyAsset<?> lazy : resident.keySet()) {
+                lazy.value = null;
+            }
+            resident.clear();
+            residentImages.clear();
+            residentBytes = 0;
+        }
     }
 }
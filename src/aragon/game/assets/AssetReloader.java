@@ -0,0 +1,152 @@
+package aragon.game.assets;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// The files assets were loaded from and what to rebuild when one changes. Files are compared by hash, so a
+// save that leaves the content as it was, or a touch, reloads nothing. Only files on the default file system
+// are tracked, assets inside a jar cannot change.
+final class AssetReloader implements AutoCloseable {
+    private final Logger LOGGER = LogManager.getLogger(AssetReloader.class);
+
+    // Editors write a file in several steps, events closer together than this are handled as one change.
+    private static final long SETTLE_MILLIS = 100;
+
+    @FunctionalInterface
+    interface Reload {
+        // Builds the new asset off the game thread, the returned swap installs it on the game thread.
+        Runnable prepare() throws Exception;
+    }
+
+    record Target(String asset, Reload reload) {}
+
+    private final Map<Path, List<Target>> targets = new HashMap<>();
+    private final Map<Path, String> hashes = new ConcurrentHashMap<>();
+    private WatchService watchService;
+    private Thread watcher;
+
+    void add(Path file, String asset, Reload reload) {
+        if (file == null || file.getFileSystem() != FileSystems.getDefault()) return;
+        targets.computeIfAbsent(file.toAbsolutePath().normalize(), key -> new ArrayList<>()).add(new Target(asset, reload));
+    }
+
+    Set<Path> getFiles() { return targets.keySet(); }
+
+    List<Target> getTargets(Path file) { return targets.getOrDefault(file, List.of()); }
+
+    // Hashes every tracked file, later changes are compared against these.
+    void snapshot() {
+        for (Path file : targets.keySet()) {
+            hasChanged(file);
+        }
+    }
+
+    // True when the content differs from the last time the file was hashed, or it was never hashed. Remembers
+    // the new hash. Missing files count as unchanged, an editor may be halfway through replacing them.
+    boolean hasChanged(Path file) {
+        byte[] content;
+        try {
+            content = Files.readAllBytes(file);
+        } catch (IOException exception) {
+            LOGGER.debug("Cannot read {}", file, exception);
+            return false;
+        }
+        String hash = AssetCache.key(content);
+        return !hash.equals(hashes.put(file, hash));
+    }
+
+    // The next hasChanged reports the file as changed, whatever its content.
+    void forget(Path file) {
+        hashes.remove(file);
+    }
+
+    // Hands changed files to the listener from a daemon thread, until closed.
+    synchronized void watch(Consumer<Set<Path>> listener) throws IOException {
+        if (watcher != null) return;
+
+        watchService = FileSystems.getDefault().newWatchService();
+        Set<Path> directories = new HashSet<>();
+        for (Path file : targets.keySet()) {
+            Path directory = file.getParent();
+            if (directory != null && directories.add(directory)) {
+                directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            }
+        }
+
+        WatchService service = watchService;
+        watcher = new Thread(() -> {
+            try {
+                while (true) {
+                    Set<Path> changed = new LinkedHashSet<>();
+                    collect(service.take(), changed);
+                    WatchKey key;
+                    while ((key = service.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                        collect(key, changed);
+                    }
+                    if (changed.isEmpty()) continue;
+
+                    try {
+                        listener.accept(changed);
+                    } catch (RuntimeException exception) {
+                        LOGGER.error("Hot reload failed.", exception);
+                    }
+                }
+            } catch (InterruptedException | ClosedWatchServiceException exception) {
+                LOGGER.debug("Stopped watching asset files.");
+            }
+        }, "asset-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+        LOGGER.info("Watching {} asset files in {} directories.", targets.size(), directories.size());
+    }
+
+    private void collect(WatchKey key, Collection<Path> changed) {
+        Path directory = (Path) key.watchable();
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                // Events were dropped, any file of the directory may have changed.
+                for (Path file : targets.keySet()) {
+                    if (directory.equals(file.getParent())) changed.add(file);
+                }
+                continue;
+            }
+            Path file = directory.resolve((Path) event.context());
+            if (targets.containsKey(file)) changed.add(file);
+        }
+        key.reset();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (watcher == null) return;
+        try {
+            watchService.close();
+        } catch (IOException exception) {
+            LOGGER.warn("Failed to close the asset watcher.", exception);
+        }
+        watcher.interrupt();
+        watcher = null;
+        watchService = null;
+    }
+}
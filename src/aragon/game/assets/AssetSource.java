@@ -0,0 +1,6 @@
+package aragon.game.assets;
+
+@FunctionalInterface
+public interface AssetSource<T> {
+    T load() throws AssetLoadingException;
+}
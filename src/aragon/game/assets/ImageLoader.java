@@ -1,21 +1,106 @@
 package aragon.game.assets;
 
 import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
 import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 
 public final class ImageLoader {
+    private static volatile GraphicsConfiguration graphicsConfiguration;
+    private static volatile int fallbackImageType = BufferedImage.TYPE_INT_ARGB_PRE;
+
     public static BufferedImage loadImage(String path) {
         BufferedImage image = null;
 
         try {
             InputStream input = ImageLoader.class.getClassLoader().getResourceAsStream(path);
             assert input != null;
-            image = ImageIO.read(input);
+            image = toCompatibleImage(ImageIO.read(input));
         } catch (IOException exception) {
             exception.printStackTrace();
         }
         return image;
     }
+
+    public static byte[] readResource(String path) throws IOException {
+        try (InputStream input = ImageLoader.class.getClassLoader().getResourceAsStream(path)) {
+            if (input == null) throw new IOException("Image not found: " + path);
+            return input.readAllBytes();
+        }
+    }
+
+    public static BufferedImage decodeImage(byte[] data) throws IOException {
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(data));
+        if (image == null) throw new IOException("Unsupported image format.");
+        return toCompatibleImage(image);
+    }
+
+    public static void setFallbackImageType(int imageType) {
+        fallbackImageType = imageType;
+    }
+
+    public static int getFallbackImageType() {
+        return fallbackImageType;
+    }
+
+    public static BufferedImage createCompatibleImage(int width, int height) {
+        GraphicsConfiguration configuration = getGraphicsConfiguration();
+        if (configuration == null) {
+            return new BufferedImage(width, height, fallbackImageType);
+        }
+        return configuration.createCompatibleImage(width, height, Transparency.TRANSLUCENT);
+    }
+
+    public static BufferedImage toCompatibleImage(BufferedImage source) {
+        if (source == null || isCompatible(source)) return source;
+        return copyRegion(source, 0, 0, source.getWidth(), source.getHeight());
+    }
+
+    public static BufferedImage copyRegion(BufferedImage source, int x, int y, int width, int height) {
+        BufferedImage copy = createCompatibleImage(width, height);
+        Graphics2D graphics = copy.createGraphics();
+        graphics.drawImage(source, 0, 0, width, height, x, y, x + width, y + height, null);
+        graphics.dispose();
+        return copy;
+    }
+
+    public static BufferedImage scaleImage(BufferedImage source, int width, int height) {
+        return scaleRegion(source, 0, 0, source.getWidth(), source.getHeight(), width, height);
+    }
+
+    public static BufferedImage scaleRegion(BufferedImage source, int x, int y, int regionWidth, int regionHeight, int width, int height) {
+        BufferedImage scaled = createCompatibleImage(width, height);
+        Graphics2D graphics = scaled.createGraphics();
+        graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+        graphics.drawImage(source, 0, 0, width, height, x, y, x + regionWidth, y + regionHeight, null);
+        graphics.dispose();
+        return scaled;
+    }
+
+    private static boolean isCompatible(BufferedImage image) {
+        // Sub-images share their parent's raster and are never accelerated on their own.
+        if (image.getRaster().getParent() != null) return false;
+
+        GraphicsConfiguration configuration = getGraphicsConfiguration();
+        if (configuration == null) {
+            return image.getType() == fallbackImageType;
+        }
+        return image.getColorModel().equals(configuration.getColorModel(Transparency.TRANSLUCENT));
+    }
+
+    private static GraphicsConfiguration getGraphicsConfiguration() {
+        if (GraphicsEnvironment.isHeadless()) return null;
+        if (graphicsConfiguration == null) {
+            graphicsConfiguration = GraphicsEnvironment.getLocalGraphicsEnvironment()
+                    .getDefaultScreenDevice()
+                    .getDefaultConfiguration();
+        }
+        return graphicsConfiguration;
+    }
 }
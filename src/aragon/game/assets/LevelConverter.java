@@ -0,0 +1,36 @@
+package aragon.game.assets;
+
+import aragon.game.assets.data.LevelData;
+import com.google.gson.Gson;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Converts a JSON level to the binary level format: LevelConverter <in.json> <out.level> [--compress]
+public class LevelConverter {
+    private static final Logger LOGGER = LogManager.getLogger(LevelConverter.class);
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2 || args.length > 3 || (args.length == 3 && !args[2].equals("--compress"))) {
+            System.err.println("Usage: LevelConverter <in.json> <out" + LevelFile.EXTENSION + "> [--compress]");
+            System.exit(2);
+        }
+
+        Path input = Path.of(args[0]);
+        Path output = Path.of(args[1]);
+        boolean compress = args.length == 3;
+
+        LevelData levelData;
+        try (Reader reader = Files.newBufferedReader(input)) {
+            levelData = new Gson().fromJson(reader, LevelData.class);
+        }
+        if (levelData == null || levelData.getMap() == null) throw new IOException("No level data in " + input);
+
+        LevelFile.write(levelData, output, compress);
+        LOGGER.info("Converted {} ({} bytes) to {} ({} bytes).", input, Files.size(input), output, Files.size(output));
+    }
+}
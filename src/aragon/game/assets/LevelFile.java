@@ -0,0 +1,278 @@
+package aragon.game.assets;
+
+import aragon.game.assets.data.LevelData;
+import aragon.game.assets.data.TileLayerData;
+import aragon.game.assets.data.TileLayerGrid;
+import aragon.game.assets.data.Vector2Data;
+import aragon.game.level.TileStorage;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+// Binary level format, little endian:
+//   "ARLV", u16 version, u16 header length, i32 width, i32 height, u8 has spawn, i32 spawn x, i32 spawn y,
+//   string tile set, u16 layer count, then per layer:
+//   string name, string type, u8 bytes per tile, u8 compression, i64 data offset, i64 data length.
+// Strings are a u16 byte length and UTF-8. Layer data follows the header, 8 byte aligned, row-major in the
+// level width. Uncompressed layers are memory-mapped when the file is on the default file system.
+public final class LevelFile {
+    public static final String EXTENSION = ".level";
+
+    private static final byte[] MAGIC = {'A', 'R', 'L', 'V'};
+    private static final int VERSION = 1;
+    private static final int PREAMBLE_LENGTH = 8;
+    private static final int COMPRESSION_NONE = 0;
+    private static final int COMPRESSION_DEFLATE = 1;
+
+    private LevelFile() {}
+
+    public static LevelData read(Path path) throws IOException {
+        try (SeekableByteChannel channel = Files.newByteChannel(path, StandardOpenOption.READ)) {
+            ByteBuffer preamble = readFully(channel, 0, PREAMBLE_LENGTH);
+            for (byte expected : MAGIC) {
+                if (preamble.get() != expected) throw new IOException("Not a level file: " + path);
+            }
+            int version = Short.toUnsignedInt(preamble.getShort());
+            if (version != VERSION) throw new IOException("Unsupported level file version " + version + ": " + path);
+            int headerLength = Short.toUnsignedInt(preamble.getShort());
+
+            ByteBuffer header = readFully(channel, PREAMBLE_LENGTH, headerLength);
+            try {
+                return readBody(channel, header, path);
+            } catch (BufferUnderflowException exception) {
+                throw new IOException("Level header is truncated: " + path, exception);
+            }
+        }
+    }
+
+    // Every header check fails with an IOException, so a corrupt file takes the same path as an unreadable one.
+    private static LevelData readBody(SeekableByteChannel channel, ByteBuffer header, Path path) throws IOException {
+        int width = header.getInt();
+        int height = header.getInt();
+        if (width < 0 || height < 0 || (long) width * height > Integer.MAX_VALUE) {
+            throw new IOException("Invalid level size " + width + "x" + height + ": " + path);
+        }
+        boolean hasSpawn = header.get() != 0;
+        Vector2Data spawnPoint = new Vector2Data(header.getInt(), header.getInt());
+        String tileSet = readString(header);
+
+        int layerCount = Short.toUnsignedInt(header.getShort());
+        List<TileLayerData> layers = new ArrayList<>(layerCount);
+        for (int i = 0; i < layerCount; i++) {
+            String name = readString(header);
+            String type = readString(header);
+            int bytesPerTile = Byte.toUnsignedInt(header.get());
+            int compression = Byte.toUnsignedInt(header.get());
+            long offset = header.getLong();
+            long length = header.getLong();
+
+            if (bytesPerTile != 1 && bytesPerTile != 2 && bytesPerTile != 4) {
+                throw new IOException("Layer " + name + " stores tiles in " + bytesPerTile + " bytes, expected 1, 2 or 4: " + path);
+            }
+            if (offset < 0 || length < 0 || offset > channel.size() - length) {
+                throw new IOException("Layer " + name + " data lies outside the file: " + path);
+            }
+
+            ByteBuffer data = readLayer(channel, offset, length, compression, (long) width * height * bytesPerTile, path);
+            boolean mapped = compression == COMPRESSION_NONE && channel instanceof FileChannel;
+            TileStorage storage = TileStorage.wrap(data, bytesPerTile, width * height, mapped);
+            layers.add(new TileLayerData(name, type, new TileLayerGrid(storage, width)));
+        }
+
+        return new LevelData(width, height, tileSet, hasSpawn ? spawnPoint : null, layers);
+    }
+
+    private static ByteBuffer readLayer(SeekableByteChannel channel, long offset, long length, int compression,
+                                        long expectedLength, Path path) throws IOException {
+        if (expectedLength > Integer.MAX_VALUE) throw new IOException("Layer is too large to load: " + path);
+
+        if (compression == COMPRESSION_NONE) {
+            if (length != expectedLength) throw new IOException("Layer holds " + length + " bytes, expected " + expectedLength + ": " + path);
+            // The mapping outlives the channel. It is read-only, storage copies it on the first write.
+            if (channel instanceof FileChannel fileChannel) return fileChannel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+            return readFully(channel, offset, (int) length);
+        }
+
+        if (compression != COMPRESSION_DEFLATE) throw new IOException("Unknown layer compression " + compression + ": " + path);
+        if (length > Integer.MAX_VALUE) throw new IOException("Compressed layer is too large to load: " + path);
+
+        return inflate(readFully(channel, offset, (int) length), (int) expectedLength, path);
+    }
+
+    static ByteBuffer inflate(ByteBuffer compressed, int length, Path path) throws IOException {
+        ByteBuffer data = ByteBuffer.allocate(length);
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            while (data.hasRemaining() && !inflater.finished()) {
+                if (inflater.inflate(data) == 0 && (inflater.needsInput() || inflater.needsDictionary())) break;
+            }
+            if (data.hasRemaining() || !inflater.finished()) throw new IOException("Compressed data is truncated: " + path);
+        } catch (DataFormatException exception) {
+            throw new IOException("Compressed data is corrupt: " + path, exception);
+        } finally {
+            inflater.end();
+        }
+        return data.clear();
+    }
+
+    public static void write(LevelData levelData, Path path, boolean compress) throws IOException {
+        int width = levelData.getWidth();
+        int height = levelData.getHeight();
+        List<TileLayerData> layers = levelData.getMap();
+
+        List<ByteBuffer> payloads = new ArrayList<>(layers.size());
+        int[] bytesPerTile = new int[layers.size()];
+        for (int i = 0; i < layers.size(); i++) {
+            TileLayerGrid grid = layers.get(i).getData();
+            bytesPerTile[i] = bytesPerTile(grid);
+            ByteBuffer packed = pack(grid, width, height, bytesPerTile[i]);
+            payloads.add(compress ? deflate(packed) : packed);
+        }
+
+        byte[] tileSet = encode(levelData.getTileSet());
+        int headerLength = 4 + 4 + 1 + 4 + 4 + 2 + tileSet.length + 2;
+        List<byte[]> names = new ArrayList<>();
+        List<byte[]> types = new ArrayList<>();
+        for (TileLayerData layer : layers) {
+            names.add(encode(layer.getName()));
+            types.add(encode(layer.getType()));
+            headerLength += 2 + names.get(names.size() - 1).length + 2 + types.get(types.size() - 1).length + 1 + 1 + 8 + 8;
+        }
+        if (headerLength > 0xFFFF) throw new IOException("Level header is too large: " + headerLength + " bytes");
+
+        ByteBuffer header = ByteBuffer.allocate(PREAMBLE_LENGTH + headerLength).order(ByteOrder.LITTLE_ENDIAN);
+        header.put(MAGIC).putShort((short) VERSION).putShort((short) headerLength);
+        header.putInt(width).putInt(height);
+        Vector2Data spawnPoint = levelData.getSpawnPoint();
+        header.put((byte) (spawnPoint != null ? 1 : 0));
+        header.putInt(spawnPoint != null ? spawnPoint.getX() : 0).putInt(spawnPoint != null ? spawnPoint.getY() : 0);
+        putString(header, tileSet);
+        header.putShort((short) layers.size());
+
+        long offset = align(header.capacity());
+        long[] offsets = new long[layers.size()];
+        for (int i = 0; i < layers.size(); i++) {
+            offsets[i] = offset;
+            putString(header, names.get(i));
+            putString(header, types.get(i));
+            header.put((byte) bytesPerTile[i]);
+            header.put((byte) (compress ? COMPRESSION_DEFLATE : COMPRESSION_NONE));
+            header.putLong(offset).putLong(payloads.get(i).remaining());
+            offset = align(offset + payloads.get(i).remaining());
+        }
+
+        // Loaded levels keep their file mapped, rewriting it in place would change or truncate their tiles under
+        // them. A new file is moved over the old one instead, the mapping keeps the old contents.
+        Path directory = path.toAbsolutePath().getParent();
+        Path temporary = Files.createTempFile(directory, path.getFileName() + ".", ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                writeFully(channel, header.flip(), 0);
+                for (int i = 0; i < payloads.size(); i++) {
+                    writeFully(channel, payloads.get(i), offsets[i]);
+                }
+            }
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException exception) {
+            Files.deleteIfExists(temporary);
+            throw exception;
+        }
+    }
+
+    // Narrowest width that holds every id of the layer.
+    private static int bytesPerTile(TileLayerGrid grid) {
+        TileStorage tiles = grid.getStorage();
+        int max = -1;
+        for (int i = 0; i < tiles.size(); i++) {
+            int tileId = tiles.get(i);
+            if (tileId < -1) throw new IllegalArgumentException("Tile ids below -1 can not be stored: " + tileId);
+            max = Math.max(max, tileId);
+        }
+        if (max <= TileStorage.maxTileId(1)) return 1;
+        if (max <= TileStorage.maxTileId(2)) return 2;
+        return 4;
+    }
+
+    // Lays the ids out in the level width, padding missing tiles with -1.
+    private static ByteBuffer pack(TileLayerGrid grid, int width, int height, int bytesPerTile) {
+        TileStorage source = grid.getStorage();
+        int rowWidth = grid.getRowWidth(width);
+        ByteBuffer buffer = ByteBuffer.allocate(width * height * bytesPerTile);
+        TileStorage packed = TileStorage.wrap(buffer, bytesPerTile, width * height, false);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int index = y * rowWidth + x;
+                packed.set(y * width + x, x < rowWidth && index < source.size() ? source.get(index) : -1);
+            }
+        }
+        return buffer;
+    }
+
+    static ByteBuffer deflate(ByteBuffer data) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            ByteBuffer compressed = ByteBuffer.allocate(Math.max(64, data.remaining() / 4));
+            while (!deflater.finished()) {
+                if (!compressed.hasRemaining()) {
+                    compressed = ByteBuffer.allocate(compressed.capacity() * 2).put(compressed.flip());
+                }
+                deflater.deflate(compressed);
+            }
+            return compressed.flip();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static long align(long offset) {
+        return (offset + 7) & ~7L;
+    }
+
+    private static byte[] encode(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xFFFF) throw new IllegalArgumentException("String is too long for a level file: " + value.length());
+        return bytes;
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] bytes) {
+        buffer.putShort((short) bytes.length).put(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[Short.toUnsignedInt(buffer.getShort())];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static ByteBuffer readFully(SeekableByteChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        channel.position(position);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) throw new IOException("File ends early at " + channel.position());
+        }
+        return buffer.flip();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+}
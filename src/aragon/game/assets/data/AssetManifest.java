@@ -1,6 +1,7 @@
 package aragon.game.assets.data;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
 
 import java.util.Map;
 
@@ -17,6 +18,9 @@ public class AssetManifest {
     @Valid
     private Map<String, AssetRegistry> registries;
 
+    @Min(value=1, message="Base tile size must be at least 1.")
+    private int baseTileSize = 16;
+
     public AutoLoadConfig getAutoLoadConfig() { return autoLoad; }
 
     public Map<String, SpriteSheetData> getSpriteSheets() { return spriteSheets; }
@@ -27,4 +31,6 @@ public class AssetManifest {
 
     public Map<String, AssetRegistry> getRegistries() { return registries; }
     public void setRegistries(Map<String, AssetRegistry> registries) { this.registries = registries; }
+
+    public int getBaseTileSize() { return baseTileSize; }
 }
@@ -21,6 +21,16 @@ public class LevelData {
     @NotEmpty(message="Level must have a map.")
     private List<TileLayerData> map;
 
+    public LevelData() {}
+
+    public LevelData(int width, int height, String tileSet, Vector2Data spawnPoint, List<TileLayerData> map) {
+        this.width = width;
+        this.height = height;
+        this.tileSet = tileSet;
+        this.spawnPoint = spawnPoint;
+        this.map = map;
+    }
+
     public int getWidth() { return width; }
     public int getHeight() { return height; }
     public Vector2Data getSpawnPoint() { return spawnPoint; }
@@ -13,6 +13,13 @@ public class TileData {
     @NotBlank(message ="Tile must have a tile type.")
     private String type;
 
+    public TileData() {}
+
+    public TileData(Vector2Data spriteCoordinates, String type) {
+        this.spriteCoordinates = spriteCoordinates;
+        this.type = type;
+    }
+
     public Vector2Data getSpriteCoordinates() { return spriteCoordinates; }
     public String getType() { return type; }
 
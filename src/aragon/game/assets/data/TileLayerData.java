@@ -5,8 +5,6 @@ import aragon.game.level.TileType;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 
-import java.util.List;
-
 public class TileLayerData {
     @NotBlank(message="Tile layer must have a valid name.")
     private String name;
@@ -15,11 +13,19 @@ public class TileLayerData {
     private String type;
 
     @NotNull(message="Tile layer must contain data.")
-    private List<List<Integer>> data;
+    private TileLayerGrid data;
+
+    public TileLayerData() {}
+
+    public TileLayerData(String name, String type, TileLayerGrid data) {
+        this.name = name;
+        this.type = type;
+        this.data = data;
+    }
 
     public String getName() { return name; }
     public String getType() { return type; }
-    public List<List<Integer>> getData() { return data; }
+    public TileLayerGrid getData() { return data; }
 
     public TileLayerType getResolvedType() {
         if (type != null && !type.trim().isEmpty()) {
@@ -0,0 +1,30 @@
+package aragon.game.assets.data;
+
+import aragon.game.level.TileStorage;
+import com.google.gson.annotations.JsonAdapter;
+
+// Tile ids of one layer in row-major order, -1 for no tile.
+// Width is 0 for flat and encoded data, those rows take the level width.
+@JsonAdapter(TileLayerGridAdapter.class)
+public class TileLayerGrid {
+    private final TileStorage storage;
+    private final int width;
+
+    public TileLayerGrid(int[] tiles, int length, int width) {
+        this(TileStorage.wrap(tiles, length), width);
+    }
+
+    public TileLayerGrid(TileStorage storage, int width) {
+        this.storage = storage;
+        this.width = width;
+    }
+
+    public TileStorage getStorage() { return storage; }
+    public int getLength() { return storage.size(); }
+    public int getWidth() { return width; }
+    public boolean hasWidth() { return width > 0; }
+
+    public int getRowWidth(int levelWidth) {
+        return width > 0 ? width : levelWidth;
+    }
+}
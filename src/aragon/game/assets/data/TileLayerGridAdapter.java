@@ -0,0 +1,186 @@
+package aragon.game.assets.data;
+
+import aragon.game.level.TileStorage;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.zip.GZIPInputStream;
+
+// Reads layer data straight into an int array, without boxing every id. Accepted forms:
+//   [[1, 1, 1], [1, 2, 1]]                                  rows
+//   [1, 1, 1, 1, 2, 1]                                      flat, rows are the level width
+//   {"encoding": "rle", "tiles": [3, 1, 1, 1, 1, 2]}        flat, pairs of run length and id
+//   {"encoding": "base64", "compression": "gzip", "tiles": "..."}
+//                                                           flat, little endian 32 bit ids, compression is optional
+public class TileLayerGridAdapter extends TypeAdapter<TileLayerGrid> {
+    private static final int INITIAL_CAPACITY = 256;
+
+    @Override
+    public TileLayerGrid read(JsonReader reader) throws IOException {
+        JsonToken token = reader.peek();
+        if (token == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        if (token == JsonToken.BEGIN_OBJECT) return readEncoded(reader);
+        if (token != JsonToken.BEGIN_ARRAY) throw new JsonParseException("Expected tile data at " + reader.getPath());
+
+        reader.beginArray();
+        if (reader.peek() == JsonToken.BEGIN_ARRAY) return readRows(reader);
+
+        IntList tiles = new IntList();
+        while (reader.hasNext()) tiles.add(reader.nextInt());
+        reader.endArray();
+        return new TileLayerGrid(tiles.values, tiles.size, 0);
+    }
+
+    private TileLayerGrid readRows(JsonReader reader) throws IOException {
+        IntList tiles = new IntList();
+        IntList rowLengths = new IntList();
+        int width = 0;
+        while (reader.hasNext()) {
+            int start = tiles.size;
+            reader.beginArray();
+            while (reader.hasNext()) tiles.add(reader.nextInt());
+            reader.endArray();
+
+            int rowLength = tiles.size - start;
+            rowLengths.add(rowLength);
+            width = Math.max(width, rowLength);
+        }
+        reader.endArray();
+
+        int height = rowLengths.size;
+        if (tiles.size == width * height) return new TileLayerGrid(tiles.values, tiles.size, width);
+
+        // Ragged rows, pad the short ones with empty tiles.
+        int[] padded = new int[width * height];
+        Arrays.fill(padded, -1);
+        int source = 0;
+        for (int y = 0; y < height; y++) {
+            System.arraycopy(tiles.values, source, padded, y * width, rowLengths.values[y]);
+            source += rowLengths.values[y];
+        }
+        return new TileLayerGrid(padded, padded.length, width);
+    }
+
+    private TileLayerGrid readEncoded(JsonReader reader) throws IOException {
+        String encoding = null;
+        String compression = null;
+        TileLayerGrid grid = null;
+        String packed = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "encoding" -> encoding = reader.nextString();
+                case "compression" -> compression = reader.nextString();
+                case "tiles" -> {
+                    if (reader.peek() == JsonToken.STRING) {
+                        packed = reader.nextString();
+                    } else {
+                        grid = readRuns(reader);
+                    }
+                }
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        if ("rle".equals(encoding)) {
+            if (grid == null) throw new JsonParseException("Run length tile data has to be an array of numbers.");
+            if (compression != null) throw new JsonParseException("Run length tile data does not support compression.");
+            return grid;
+        }
+        if ("base64".equals(encoding)) {
+            if (packed == null) throw new JsonParseException("Base64 tile data has to be a string.");
+            return decodeBase64(packed, compression);
+        }
+        throw new JsonParseException("Unknown tile data encoding: " + encoding);
+    }
+
+    private TileLayerGrid readRuns(JsonReader reader) throws IOException {
+        IntList tiles = new IntList();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            int count = reader.nextInt();
+            if (!reader.hasNext()) throw new JsonParseException("Run length tile data ends without an id.");
+            int tileId = reader.nextInt();
+            if (count < 0) throw new JsonParseException("Negative run length: " + count);
+            tiles.addRun(count, tileId);
+        }
+        reader.endArray();
+        return new TileLayerGrid(tiles.values, tiles.size, 0);
+    }
+
+    private TileLayerGrid decodeBase64(String packed, String compression) throws IOException {
+        byte[] bytes = Base64.getDecoder().decode(packed.trim());
+        InputStream input = new ByteArrayInputStream(bytes);
+        if ("gzip".equals(compression)) {
+            input = new GZIPInputStream(input);
+        } else if (compression != null) {
+            throw new JsonParseException("Unknown tile data compression: " + compression);
+        }
+
+        try (InputStream stream = input) {
+            bytes = stream.readAllBytes();
+        }
+        if (bytes.length % Integer.BYTES != 0) {
+            throw new JsonParseException("Base64 tile data length is not a multiple of 4 bytes: " + bytes.length);
+        }
+
+        int[] tiles = new int[bytes.length / Integer.BYTES];
+        ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer().get(tiles);
+        return new TileLayerGrid(tiles, tiles.length, 0);
+    }
+
+    @Override
+    public void write(JsonWriter writer, TileLayerGrid grid) throws IOException {
+        if (grid == null) {
+            writer.nullValue();
+            return;
+        }
+
+        TileStorage tiles = grid.getStorage();
+        writer.beginArray();
+        if (grid.hasWidth()) {
+            for (int start = 0; start < grid.getLength(); start += grid.getWidth()) {
+                writer.beginArray();
+                int end = Math.min(grid.getLength(), start + grid.getWidth());
+                for (int i = start; i < end; i++) writer.value(tiles.get(i));
+                writer.endArray();
+            }
+        } else {
+            for (int i = 0; i < grid.getLength(); i++) writer.value(tiles.get(i));
+        }
+        writer.endArray();
+    }
+
+    private static final class IntList {
+        private int[] values = new int[INITIAL_CAPACITY];
+        private int size = 0;
+
+        void add(int value) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = value;
+        }
+
+        void addRun(int count, int value) {
+            int required = size + count;
+            if (required < 0) throw new JsonParseException("Run length tile data is too large.");
+            if (required > values.length) values = Arrays.copyOf(values, Math.max(required, values.length * 2));
+            Arrays.fill(values, size, required, value);
+            size = required;
+        }
+    }
+}
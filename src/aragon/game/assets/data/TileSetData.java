@@ -13,6 +13,13 @@ public class TileSetData {
     @NotEmpty(message="TileSet must contain one or more tiles.")
     private List<TileData> tiles;
 
+    public TileSetData() {}
+
+    public TileSetData(TileSetSpriteReference sheet, List<TileData> tiles) {
+        this.sheet = sheet;
+        this.tiles = tiles;
+    }
+
     public TileSetSpriteReference getSheet() { return sheet; }
     public List<TileData> getTiles() { return tiles; }
 }
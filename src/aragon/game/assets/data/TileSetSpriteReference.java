@@ -10,6 +10,13 @@ public class TileSetSpriteReference {
     @SerializedName("size")
     private Vector2Data tileSize;
 
+    public TileSetSpriteReference() {}
+
+    public TileSetSpriteReference(String path, Vector2Data tileSize) {
+        this.path = path;
+        this.tileSize = tileSize;
+    }
+
     public String getPath() { return path; }
     public Vector2Data getTileSize() { return tileSize; }
 }
@@ -0,0 +1,9 @@
+package aragon.game.entity;
+
+// Entities that can update on a worker thread. The entity manager calls this instead of update, with or
+// without a pool, after every other entity has updated. The update may read the world, grid queries
+// included, and write the entity's own fields, every other change (moving, spawning, despawning, touching
+// other entities or the camera) has to go through the command buffer.
+public interface ConcurrentUpdatable {
+    void updateConcurrently(EntityCommandBuffer commands);
+}
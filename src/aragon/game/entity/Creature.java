@@ -1,5 +1,7 @@
 package aragon.game.entity;
 
+import aragon.game.level.Level;
+import aragon.game.level.TileLayer;
 import aragon.game.level.TileLayerType;
 import aragon.game.level.TileSet;
 import aragon.game.util.Vector2;
@@ -8,7 +10,9 @@ public abstract class Creature extends Entity {
     protected int moveSpeed;
     protected int moveXAxis = 0;
     protected int moveYAxis = 0;
-    protected Vector2 facingDirection = Vector2.xAxis;
+    protected final Vector2 facingDirection = new Vector2(Vector2.xAxis);
+    private final Vector2 moveVector = new Vector2();
+    private double plannedX, plannedY;
 
     public Creature(EntityManager entityManager, int x, int y, int size, int moveSpeed) {
         this(entityManager, x, y, size, size, moveSpeed);
@@ -20,13 +24,17 @@ public abstract class Creature extends Entity {
     }
 
     public void faceAt(Vector2 lookAtPosition) {
-        facingDirection = lookAtPosition.subtract(position).normalize();
+        facingDirection.set(lookAtPosition).subtractInPlace(position).normalizeInPlace();
     }
 
     public Vector2 getMoveVector() {
         return new Vector2(moveXAxis, moveYAxis).normalize();
     }
 
+    public boolean isMoving() {
+        return moveXAxis != 0 || moveYAxis != 0;
+    }
+
     public Vector2 getFacingDirectionVector() {
         return new Vector2(facingDirection);
     }
@@ -42,48 +50,64 @@ public abstract class Creature extends Entity {
         }
     }
 
-    public void move() {
-        Vector2 moveVector = getMoveVector().scale(moveSpeed);
-        Vector2 newPosition = position.add(moveVector);
-
-        if (moveVector.magnitude() > 0) {
-            facingDirection = moveVector.normalize();
-        }
+    public boolean move() {
+        if (!planMove()) return false;
+        setPosition(plannedX, plannedY);
+        return true;
+    }
 
-        if (!wouldCollide(newPosition)) {
-            position = newPosition;
-        } else {
-            tryMoveOnAxes(moveVector);
-        }
+    // Parallel update version of move, the move is applied when the command buffer is merged.
+    protected boolean queueMove(EntityCommandBuffer commands) {
+        if (!planMove()) return false;
+        commands.moveTo(this, plannedX, plannedY);
+        return true;
     }
 
-    private void tryMoveOnAxes(Vector2 moveVector) {
-        Vector2 horizontalMove = moveVector.multiply(Vector2.xAxis);
-        Vector2 newXPosition = position.add(horizontalMove);
+    // Works out where the creature ends up this tick. Only reads the world, so worker threads can call it.
+    private boolean planMove() {
+        moveVector.set(moveXAxis, moveYAxis).normalizeInPlace().scaleInPlace(moveSpeed);
+        if (moveVector.isZero()) return false;
 
-        if (!wouldCollide(newXPosition)) {
-            position = newXPosition;
-        }
+        facingDirection.set(moveVector).normalizeInPlace();
 
-        Vector2 verticalMove = moveVector.multiply(Vector2.yAxis);
-        Vector2 newYPosition = position.add(verticalMove);
+        plannedX = position.x;
+        plannedY = position.y;
+        if (!wouldCollide(moveVector.x, moveVector.y)) {
+            plannedX += moveVector.x;
+            plannedY += moveVector.y;
+            return true;
+        }
 
-        if (!wouldCollide(newYPosition)) {
-            position = newYPosition;
+        // Blocked diagonally, slide along whichever axis is free.
+        if (!wouldCollide(moveVector.x, 0)) {
+            plannedX += moveVector.x;
         }
+        if (!wouldCollide(plannedX - position.x, moveVector.y)) {
+            plannedY += moveVector.y;
+        }
+        return plannedX != position.x || plannedY != position.y;
     }
 
-    private boolean wouldCollide(Vector2 newPosition) {
-        if (checkEntitySolidCollisions((int) newPosition.subtract(position).x, (int) newPosition.subtract(position).y)) {
+    private boolean wouldCollide(double deltaX, double deltaY) {
+        if (entityManager.hasSolidEntityInBounds(
+                (int) (position.x + deltaX + collisionBounds.x),
+                (int) (position.y + deltaY + collisionBounds.y),
+                collisionBounds.width,
+                collisionBounds.height,
+                this)) {
             return true;
         }
 
-        double boundsLeft = newPosition.x + collisionBounds.x;
+        double boundsLeft = position.x + deltaX + collisionBounds.x;
         double boundsRight = boundsLeft + collisionBounds.width;
-        double boundsTop = newPosition.y + collisionBounds.y;
+        double boundsTop = position.y + deltaY + collisionBounds.y;
         double boundsBottom = boundsTop + collisionBounds.height;
 
-        TileSet currentTileSet = entityManager.getLevel().getTileSet();
+        Level level = entityManager.getLevel();
+        TileSet currentTileSet = level.getTileSet();
+        if (currentTileSet == null) return false;
+        TileLayer terrain = level.getLayerByType(TileLayerType.TERRAIN);
+
         int tileHeight = currentTileSet.getTileHeight();
         int tileWidth = currentTileSet.getTileWidth();
 
@@ -92,9 +116,13 @@ public abstract class Creature extends Entity {
         int topTile = (int) Math.floor(boundsTop / tileHeight);
         int bottomTile = (int) Math.floor(boundsBottom / tileHeight);
 
-        for (int x = leftTile; x <= rightTile; x++) {
-            for (int y = topTile; y <= bottomTile; y++) {
-                if (collisionWithTile(x, y)) {
+        // Outside the level counts as solid.
+        if (leftTile < 0 || topTile < 0 || rightTile >= level.getWidth() || bottomTile >= level.getHeight()) return true;
+        if (terrain == null) return false;
+
+        for (int y = topTile; y <= bottomTile; y++) {
+            for (int x = leftTile; x <= rightTile; x++) {
+                if (terrain.isSolidAt(x, y)) {
                     return true;
                 }
             }
@@ -104,9 +132,10 @@ public abstract class Creature extends Entity {
     }
 
     public boolean collisionWithTile(int x, int y) {
-        if (x < 0 || y < 0 || x >= entityManager.getLevel().getWidth() || y >= entityManager.getLevel().getHeight()) {
+        Level level = entityManager.getLevel();
+        if (x < 0 || y < 0 || x >= level.getWidth() || y >= level.getHeight()) {
             return true;
         }
-        return entityManager.getLevel().getTileAt(x, y, TileLayerType.TERRAIN).getType().isSolid();
+        return level.isSolidAt(x, y, TileLayerType.TERRAIN);
     }
 }
@@ -1,12 +1,15 @@
 package aragon.game.entity;
 
+import aragon.game.assets.AssetHandle;
 import aragon.game.util.Vector2;
 
 import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
 
 public abstract class Entity {
     protected final EntityManager entityManager;
-    public Vector2 position;
+    public final Vector2 position;
     protected Vector2 size;
     protected Rectangle collisionBounds;
     private final Vector2 originalSize;
@@ -14,6 +17,11 @@ public abstract class Entity {
     private boolean solid;
     private boolean alive=true;
 
+    // Slot in the entity store, -1 while the entity is not managed.
+    int id = -1;
+    // Assets the entity draws with, kept loaded until it is dropped from the world.
+    private List<AssetHandle<?>> assets;
+
     public Entity(EntityManager entityManager, int x, int y, int w, int h, boolean solid) {
         this.entityManager = entityManager;
         this.position = new Vector2(x, y);
@@ -32,11 +40,13 @@ public abstract class Entity {
     }
 
     public boolean checkEntityCollisions(int xOffset, int yOffset) {
-        for (Entity entity : entityManager.getLevel().getEntityManager().getEntities()) {
-            if (entity.equals(this)) continue;
-            if (entity.getCollisionBounds().intersects(getCollisionBounds(xOffset, yOffset))) return true;
-        }
-        return false;
+        return entityManager.hasEntityInBounds(
+                (int) (position.x + collisionBounds.x + xOffset),
+                (int) (position.y + collisionBounds.y + yOffset),
+                collisionBounds.width,
+                collisionBounds.height,
+                this
+        );
     }
 
     public boolean checkEntitySolidCollisions() {
@@ -44,12 +54,23 @@ public abstract class Entity {
     }
 
     public boolean checkEntitySolidCollisions(int xOffset, int yOffset) {
-        for (Entity entity : entityManager.getLevel().getEntityManager().getEntities()) {
-            if (entity.equals(this)) continue;
-            if (!entity.isSolid()) continue;
-            if (entity.getCollisionBounds().intersects(getCollisionBounds(xOffset, yOffset))) return true;
-        }
-        return false;
+        return entityManager.hasSolidEntityInBounds(
+                (int) (position.x + collisionBounds.x + xOffset),
+                (int) (position.y + collisionBounds.y + yOffset),
+                collisionBounds.width,
+                collisionBounds.height,
+                this
+        );
+    }
+
+    public boolean isWithinRadius(Vector2 center, double radius) {
+        double left = position.x + collisionBounds.x;
+        double top = position.y + collisionBounds.y;
+        double closestX = Math.max(left, Math.min(center.x, left + collisionBounds.width));
+        double closestY = Math.max(top, Math.min(center.y, top + collisionBounds.height));
+        double deltaX = center.x - closestX;
+        double deltaY = center.y - closestY;
+        return deltaX * deltaX + deltaY * deltaY <= radius * radius;
     }
 
     public Rectangle getCollisionBounds() {
@@ -65,7 +86,24 @@ public abstract class Entity {
         );
     }
 
+    public void setPosition(Vector2 position) {
+        setPosition(position.x, position.y);
+    }
+
+    public void setPosition(double x, double y) {
+        position.set(x, y);
+        entityManager.onEntityMoved(this);
+    }
+
+    public void translate(double deltaX, double deltaY) {
+        setPosition(position.x + deltaX, position.y + deltaY);
+    }
+
+    public int getId() { return id; }
+
     public Vector2 getSize() { return new Vector2(size); }
+    public double getWidth() { return size.x; }
+    public double getHeight() { return size.y; }
 
     public double getScale() {
         return scale;
@@ -74,6 +112,7 @@ public abstract class Entity {
     public void setScale(double scale) {
         this.scale = scale;
         size = originalSize.scale(scale);
+        if (entityManager != null) entityManager.onEntityChanged(this);
     }
 
     public boolean isSolid() {
@@ -82,10 +121,32 @@ public abstract class Entity {
 
     public void setSolid(boolean solid) {
         this.solid = solid;
+        if (entityManager != null) entityManager.onEntityChanged(this);
+    }
+
+    // Call when the entity looks different without moving, so partial redraws pick it up.
+    protected void invalidate() {
+        if (entityManager != null) entityManager.onEntityInvalidated(this);
+    }
+
+    protected <T> AssetHandle<T> hold(AssetHandle<T> asset) {
+        if (assets == null) assets = new ArrayList<>(2);
+        assets.add(asset);
+        return asset;
+    }
+
+    void releaseAssets() {
+        if (assets == null) return;
+        for (AssetHandle<?> asset : assets) {
+            asset.close();
+        }
+        assets = null;
     }
 
     protected void suicide() {
+        if (!alive) return;
         alive = false;
+        if (entityManager != null) entityManager.onEntityDied(this);
     }
 
     public boolean isAlive() {
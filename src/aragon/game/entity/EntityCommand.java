@@ -0,0 +1,5 @@
+package aragon.game.entity;
+
+public interface EntityCommand {
+    void apply(EntityManager entityManager);
+}
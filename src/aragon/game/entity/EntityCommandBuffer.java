@@ -0,0 +1,77 @@
+package aragon.game.entity;
+
+import java.util.Arrays;
+
+// Commands recorded by one partition of a parallel update, applied on the game thread in recording order.
+public final class EntityCommandBuffer {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private Entity[] targets = new Entity[INITIAL_CAPACITY];
+    private double[] xs = new double[INITIAL_CAPACITY];
+    private double[] ys = new double[INITIAL_CAPACITY];
+    private EntityCommand[] commands = new EntityCommand[INITIAL_CAPACITY];
+    private int size = 0;
+
+    public int size() { return size; }
+
+    // Moves are kept in primitive arrays so the common command does not allocate.
+    public void moveTo(Entity entity, double x, double y) {
+        if (size == targets.length) grow();
+        targets[size] = entity;
+        xs[size] = x;
+        ys[size] = y;
+        size++;
+    }
+
+    public void submit(EntityCommand command) {
+        if (size == targets.length) grow();
+        commands[size] = command;
+        size++;
+    }
+
+    public void despawn(Entity entity) {
+        submit(entityManager -> entityManager.removeEntity(entity));
+    }
+
+    public void spawn(Entity entity) {
+        submit(entityManager -> entityManager.addEntity(entity));
+    }
+
+    void apply(EntityManager entityManager) {
+        for (int i = 0; i < size; i++) {
+            if (commands[i] != null) {
+                commands[i].apply(entityManager);
+            } else {
+                applyMove(entityManager, targets[i], xs[i], ys[i]);
+            }
+        }
+    }
+
+    // Moves were planned against the world as it was before the merge, an earlier command may have taken the spot.
+    private static void applyMove(EntityManager entityManager, Entity entity, double x, double y) {
+        if (!entity.isAlive()) return;
+        if (entity.isSolid() && entityManager.hasSolidEntityInBounds(
+                (int) (x + entity.collisionBounds.x),
+                (int) (y + entity.collisionBounds.y),
+                entity.collisionBounds.width,
+                entity.collisionBounds.height,
+                entity)) {
+            return;
+        }
+        entity.setPosition(x, y);
+    }
+
+    void clear() {
+        Arrays.fill(targets, 0, size, null);
+        Arrays.fill(commands, 0, size, null);
+        size = 0;
+    }
+
+    private void grow() {
+        int capacity = targets.length * 2;
+        targets = Arrays.copyOf(targets, capacity);
+        xs = Arrays.copyOf(xs, capacity);
+        ys = Arrays.copyOf(ys, capacity);
+        commands = Arrays.copyOf(commands, capacity);
+    }
+}
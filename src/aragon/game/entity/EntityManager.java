@@ -1,59 +1,365 @@
 package aragon.game.entity;
 
 import aragon.game.entity.player.Player;
+import aragon.game.level.DamageTracker;
 import aragon.game.level.Level;
+import aragon.game.main.Game;
+import aragon.game.main.GameCamera;
+import aragon.game.metrics.MetricGauge;
+import aragon.game.metrics.MetricPhase;
+import aragon.game.metrics.MetricsRegistry;
+import aragon.game.util.Vector2;
 
 import java.awt.*;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 public class EntityManager {
     private final Level level;
     private Player player;
     private final List<Entity> entities= new ArrayList<>();
-    private final Comparator<Entity> renderSorter = Comparator.comparingDouble(a -> a.position.y + a.size.y);
+    private final SpatialGrid grid;
+    private final MetricsRegistry metrics;
+    private final DamageTracker damage;
+    private final EntityStore store = new EntityStore();
+
+    // Rendering only looks at entities near the camera, found through a grid over sprite bounds.
+    private static final int RENDER_CELL_TILES = 4;
+    private final SpatialGrid renderGrid;
+    private final RenderOrder visibleOrder = new RenderOrder(store);
+    private final List<Entity> visibleEntities = new ArrayList<>();
+    private final Rectangle clip = new Rectangle();
+    private int[] visibleMarks = new int[64];
+    private int visibleMark = 0;
+
+    private final List<Entity> pendingAdds = new ArrayList<>();
+    private int pendingDeaths = 0;
+    private boolean updating = false;
+
+    // Partitions run on a pool when one is set or -Daragon.entities.parallel=true is passed, else on this thread.
+    private static final int PARTITION_SIZE = 256;
+    private ForkJoinPool updatePool;
+    private final List<Entity> concurrentEntities = new ArrayList<>();
+    private final List<EntityCommandBuffer> commandBuffers = new ArrayList<>();
+    private boolean parallelPhase = false;
+    private Thread updateThread;
 
     public EntityManager(Level level) {
         this.level = level;
+        this.metrics = level.getGameState().getGame().getMetrics();
+        this.damage = level.getDamageTracker();
+        int tileSize = level.getGameState().getGame().getTileSize();
+        this.grid = new SpatialGrid(tileSize);
+        this.renderGrid = new SpatialGrid(tileSize * RENDER_CELL_TILES, SpatialGrid.Bounds.RENDER);
+        if (Boolean.getBoolean("aragon.entities.parallel")) updatePool = ForkJoinPool.commonPool();
     }
 
+    public ForkJoinPool getUpdatePool() { return updatePool; }
+    public void setUpdatePool(ForkJoinPool updatePool) { this.updatePool = updatePool; }
+
     public void update() {
-        for (int i=0; i < entities.size(); i++) {
+        long start = metrics.begin();
+        flushPending();
+
+        // Spawns go to the pending list and deaths are only flagged, so the list stays fixed during the pass.
+        updating = true;
+        try {
+            updateEntities();
+        } finally {
+            updating = false;
+        }
+
+        flushPending();
+        metrics.end(MetricPhase.ENTITY_UPDATE, start);
+    }
+
+    // Entities that cannot run concurrently update first, in list order. The rest are split into fixed
+    // partitions that record commands, and the buffers are applied in partition order. Without a pool the
+    // partitions run one after another on this thread, so the result is the same with or without a pool and
+    // for any number of threads.
+    private void updateEntities() {
+        concurrentEntities.clear();
+        for (int i = 0; i < entities.size(); i++) {
             Entity entity = entities.get(i);
-            entity.update();
+            if (!entity.isAlive()) continue;
+            if (entity instanceof ConcurrentUpdatable) {
+                concurrentEntities.add(entity);
+            } else {
+                entity.update();
+            }
+        }
+        if (concurrentEntities.isEmpty()) return;
+
+        int partitions = (concurrentEntities.size() + PARTITION_SIZE - 1) / PARTITION_SIZE;
+        while (commandBuffers.size() < partitions) commandBuffers.add(new EntityCommandBuffer());
+
+        if (updatePool == null) {
+            for (int partition = 0; partition < partitions; partition++) updatePartition(partition);
+        } else {
+            parallelPhase = true;
+            updateThread = Thread.currentThread();
+            try {
+                updatePool.invoke(new PartitionTask(0, partitions));
+            } finally {
+                parallelPhase = false;
+                updateThread = null;
+            }
+        }
+
+        for (int partition = 0; partition < partitions; partition++) {
+            EntityCommandBuffer commands = commandBuffers.get(partition);
+            try {
+                commands.apply(this);
+            } finally {
+                commands.clear();
+            }
+        }
+    }
+
+    private void updatePartition(int partition) {
+        EntityCommandBuffer commands = commandBuffers.get(partition);
+        int end = Math.min((partition + 1) * PARTITION_SIZE, concurrentEntities.size());
+        for (int i = partition * PARTITION_SIZE; i < end; i++) {
+            Entity entity = concurrentEntities.get(i);
+            if (entity.isAlive()) ((ConcurrentUpdatable) entity).updateConcurrently(commands);
+        }
+    }
+
+    private final class PartitionTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
 
-            if (!entity.isAlive()) entities.remove(entity);
+        private final int from, to;
+
+        PartitionTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                updatePartition(from);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new PartitionTask(from, middle), new PartitionTask(middle, to));
+        }
+    }
+
+    // Worker threads only read the world, any change from them would race with other partitions.
+    private void requireUpdateThread() {
+        if (parallelPhase && Thread.currentThread() != updateThread) {
+            throw new IllegalStateException("Entities updating concurrently have to change the world through their command buffer.");
+        }
+    }
+
+    private void flushPending() {
+        if (pendingDeaths > 0) {
+            pendingDeaths = 0;
+            entities.removeIf(this::unregisterIfDead);
+        }
+
+        if (!pendingAdds.isEmpty()) {
+            for (int i = 0; i < pendingAdds.size(); i++) {
+                Entity entity = pendingAdds.get(i);
+                if (entity.isAlive()) register(entity);
+            }
+            pendingAdds.clear();
         }
-        entities.sort(renderSorter);
+    }
+
+    private boolean unregisterIfDead(Entity entity) {
+        if (entity.isAlive()) return false;
+        addDamage(entity.id);
+        grid.remove(entity);
+        renderGrid.remove(entity);
+        store.remove(entity);
+        entity.releaseAssets();
+        return true;
     }
 
     public void render(Graphics graphics) {
-        for (Entity entity : entities) {
-            entity.render(graphics);
+        Game game = level.getGameState().getGame();
+        GameCamera camera = game.getCamera();
+        int margin = game.getTileSize();
+
+        // Partial redraws clip to the damaged region, the rectangle comes back untouched when there is no clip.
+        clip.setBounds(0, 0, game.getScreenWidth(), game.getScreenHeight());
+        graphics.getClipBounds(clip);
+        int left = (int) Math.floor(camera.getX()) + clip.x - margin;
+        int top = (int) Math.floor(camera.getY()) + clip.y - margin;
+
+        visibleEntities.clear();
+        renderGrid.query(left, top, clip.width + margin * 2, clip.height + margin * 2, visibleEntities);
+        updateVisibleOrder();
+
+        for (int i = 0; i < visibleOrder.size(); i++) {
+            visibleOrder.get(i).render(graphics);
         }
+
+        metrics.setGauge(MetricGauge.ENTITIES_DRAWN, visibleOrder.size());
+        metrics.setGauge(MetricGauge.ENTITIES_CULLED, store.size() - visibleOrder.size());
+    }
+
+    // The visible set barely changes between frames, so the previous order is kept: entities that left
+    // the view are dropped, new ones appended, and the incremental sort puts them in place.
+    private void updateVisibleOrder() {
+        if (store.capacity() > visibleMarks.length) {
+            visibleMarks = Arrays.copyOf(visibleMarks, Math.max(store.capacity(), visibleMarks.length * 2));
+        }
+        // Marks of the previous frame were flipped negative, a fresh positive mark can never match them.
+        if (++visibleMark < 0) {
+            visibleMark = 1;
+            Arrays.fill(visibleMarks, 0);
+        }
+
+        for (int i = 0; i < visibleEntities.size(); i++) {
+            visibleMarks[visibleEntities.get(i).id] = visibleMark;
+        }
+        visibleOrder.retainMarked(visibleMarks, visibleMark);
+        for (int i = 0; i < visibleEntities.size(); i++) {
+            Entity entity = visibleEntities.get(i);
+            if (visibleMarks[entity.id] == visibleMark) visibleOrder.add(entity);
+        }
+        visibleOrder.update();
     }
 
     public void addEntity(Entity entity) {
+        requireUpdateThread();
+        if (updating) {
+            pendingAdds.add(entity);
+        } else {
+            register(entity);
+        }
+    }
+
+    // Marks the entity dead, it is dropped at the next flush.
+    public void removeEntity(Entity entity) {
+        entity.suicide();
+    }
+
+    // Takes living entities out of the world without killing them, for example while their chunk is
+    // unloaded. The player always stays. Detached entities come back through addEntity.
+    public void detachEntities(Predicate<Entity> filter, List<Entity> detached) {
+        requireUpdateThread();
+        if (updating) throw new IllegalStateException("Entities cannot be detached during the update pass.");
+
+        entities.removeIf(entity -> {
+            if (!entity.isAlive() || entity == player || !filter.test(entity)) return false;
+            addDamage(entity.id);
+            grid.remove(entity);
+            renderGrid.remove(entity);
+            store.remove(entity);
+            detached.add(entity);
+            return true;
+        });
+    }
+
+    private void register(Entity entity) {
         entities.add(entity);
+        store.add(entity);
+        addDamage(entity.id);
+        grid.insert(entity);
+        renderGrid.insert(entity);
         if (entity instanceof Player) {
             this.player = (Player) entity;
         }
     }
 
+    void onEntityDied(Entity entity) {
+        requireUpdateThread();
+        pendingDeaths++;
+    }
+
+    void onEntityChanged(Entity entity) {
+        requireUpdateThread();
+        addDamage(entity.id);
+        store.sync(entity);
+        addDamage(entity.id);
+        grid.update(entity);
+        renderGrid.update(entity);
+    }
+
+    // The sprite changed in place, for example a new animation frame.
+    void onEntityInvalidated(Entity entity) {
+        requireUpdateThread();
+        addDamage(entity.id);
+    }
+
+    // The store still holds the previous bounds until the entity is synced, so callers mark before and after.
+    private void addDamage(int id) {
+        if (id < 0 || !damage.isEnabled()) return;
+        damage.add(store.getX(id), store.getY(id), store.getWidth(id), store.getHeight(id));
+    }
+
     public List<Entity> getEntities() {
         return new ArrayList<>(entities);
     }
 
+    void onEntityMoved(Entity entity) {
+        requireUpdateThread();
+        addDamage(entity.id);
+        store.syncPosition(entity);
+        addDamage(entity.id);
+        grid.update(entity);
+        renderGrid.update(entity);
+    }
+
+    public EntityStore getStore() {
+        return store;
+    }
+
+    public List<Entity> getEntitiesInBounds(Rectangle bounds) {
+        List<Entity> result = new ArrayList<>();
+        grid.query(bounds.x, bounds.y, bounds.width, bounds.height, result);
+        return result;
+    }
+
+    public void queryEntities(int x, int y, int width, int height, List<Entity> result) {
+        grid.query(x, y, width, height, result);
+    }
+
+    public List<Entity> getSolidEntitiesInBounds(Rectangle bounds) {
+        List<Entity> result = getEntitiesInBounds(bounds);
+        result.removeIf(entity -> !entity.isSolid());
+        return result;
+    }
+
+    public List<Entity> getEntitiesInRadius(Vector2 center, double radius) {
+        int size = (int) Math.ceil(radius * 2);
+        List<Entity> result = new ArrayList<>();
+        grid.query((int) Math.floor(center.x - radius), (int) Math.floor(center.y - radius), size, size, result);
+        result.removeIf(entity -> !entity.isWithinRadius(center, radius));
+        return result;
+    }
+
     public List<Interactable> getInteractablesInBounds(Rectangle interactionBox) {
-        return entities.stream()
+        return getEntitiesInBounds(interactionBox).stream()
                 .filter(entity -> entity instanceof Interactable)
-                .filter(entity -> entity.getCollisionBounds().intersects(interactionBox))
                 .map(entity -> (Interactable) entity)
                 .collect(Collectors.toList());
     }
 
+    public List<Collectible> getCollectiblesInBounds(Rectangle bounds) {
+        return getEntitiesInBounds(bounds).stream()
+                .filter(entity -> entity instanceof Collectible)
+                .map(entity -> (Collectible) entity)
+                .collect(Collectors.toList());
+    }
+
+    public boolean hasEntityInBounds(int x, int y, int width, int height, Entity exclude) {
+        return grid.intersectsAny(x, y, width, height, exclude, false);
+    }
+
+    public boolean hasSolidEntityInBounds(int x, int y, int width, int height, Entity exclude) {
+        return grid.intersectsAny(x, y, width, height, exclude, true);
+    }
+
     public Level getLevel() {
         return level;
     }
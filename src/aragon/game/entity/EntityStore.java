@@ -0,0 +1,93 @@
+package aragon.game.entity;
+
+import java.util.Arrays;
+
+// Packed copy of the entity bounds, indexed by entity id. Render ordering reads depths from it and
+// damage tracking reads the bounds an entity had before its last change.
+// Entities write through on every change, so the arrays always match the objects.
+public class EntityStore {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private Entity[] entities = new Entity[INITIAL_CAPACITY];
+    private double[] x = new double[INITIAL_CAPACITY];
+    private double[] y = new double[INITIAL_CAPACITY];
+    private double[] width = new double[INITIAL_CAPACITY];
+    private double[] height = new double[INITIAL_CAPACITY];
+
+    // Ids stay fixed for the life of an entity, freed ids are reused.
+    private int[] freeIds = new int[INITIAL_CAPACITY];
+    private int freeCount = 0;
+    private int highestId = 0;
+    private int size = 0;
+
+    public int size() { return size; }
+
+    // Ids are below this, size per id buffers with it.
+    public int capacity() { return highestId; }
+
+    public int add(Entity entity) {
+        if (entity.id >= 0) throw new IllegalStateException("Entity is already stored with id " + entity.id);
+
+        int id;
+        if (freeCount > 0) {
+            id = freeIds[--freeCount];
+        } else {
+            if (highestId == entities.length) grow();
+            id = highestId++;
+        }
+
+        entities[id] = entity;
+        entity.id = id;
+        size++;
+        sync(entity);
+        return id;
+    }
+
+    public void remove(Entity entity) {
+        int id = entity.id;
+        if (id < 0 || entities[id] != entity) return;
+
+        entities[id] = null;
+        entity.id = -1;
+        size--;
+
+        if (freeCount == freeIds.length) freeIds = Arrays.copyOf(freeIds, freeCount * 2);
+        freeIds[freeCount++] = id;
+    }
+
+    public void sync(Entity entity) {
+        int id = entity.id;
+        if (id < 0) return;
+
+        syncPosition(entity);
+        width[id] = entity.size.x;
+        height[id] = entity.size.y;
+    }
+
+    public void syncPosition(Entity entity) {
+        int id = entity.id;
+        if (id < 0) return;
+
+        x[id] = entity.position.x;
+        y[id] = entity.position.y;
+    }
+
+    // Per id access.
+    public Entity getEntity(int id) { return entities[id]; }
+    public double getX(int id) { return x[id]; }
+    public double getY(int id) { return y[id]; }
+    public double getWidth(int id) { return width[id]; }
+    public double getHeight(int id) { return height[id]; }
+
+    // Bottom edge of the sprite, what render ordering sorts by.
+    public double getDepth(int id) { return y[id] + height[id]; }
+
+    private void grow() {
+        int capacity = entities.length * 2;
+        entities = Arrays.copyOf(entities, capacity);
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        width = Arrays.copyOf(width, capacity);
+        height = Arrays.copyOf(height, capacity);
+    }
+}
@@ -0,0 +1,143 @@
+package aragon.game.entity;
+
+import java.util.Arrays;
+
+// Entities ordered by the bottom edge of their sprite, so lower entities are drawn over higher ones.
+// Ties go to the lower id, so any subset of entities sorts the same way the whole level would.
+public class RenderOrder {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int INSERTION_SORT_THRESHOLD = 32;
+
+    private final EntityStore store;
+
+    private int[] ids = new int[INITIAL_CAPACITY];
+    private double[] depths = new double[INITIAL_CAPACITY];
+    private int size = 0;
+
+    // Entries from here on were added since the last update and are not in order yet.
+    private int sortedSize = 0;
+
+    private int[] scratchIds = new int[INITIAL_CAPACITY];
+    private double[] scratchDepths = new double[INITIAL_CAPACITY];
+
+    public RenderOrder(EntityStore store) {
+        this.store = store;
+    }
+
+    public int size() { return size; }
+
+    public Entity get(int index) {
+        return store.getEntity(getId(index));
+    }
+
+    public int getId(int index) {
+        if (index >= size) throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        return ids[index];
+    }
+
+    // The entity has to be in the store already.
+    public void add(Entity entity) {
+        if (entity.id < 0) throw new IllegalArgumentException("Entity is not in the entity store.");
+        if (size == ids.length) grow();
+        ids[size] = entity.id;
+        depths[size] = store.getDepth(entity.id);
+        size++;
+    }
+
+    // Keeps the entries whose mark equals the given one, in order, and flips their mark to ~mark.
+    // Callers mark a new set of ids, retain, then add whatever still carries the original mark.
+    public void retainMarked(int[] marks, int mark) {
+        int kept = 0;
+        int keptSorted = 0;
+        for (int i = 0; i < size; i++) {
+            int id = ids[i];
+            if (id >= marks.length || marks[id] != mark) continue;
+            marks[id] = ~mark;
+            if (i < sortedSize) keptSorted++;
+            ids[kept] = id;
+            depths[kept] = depths[i];
+            kept++;
+        }
+        size = kept;
+        sortedSize = keptSorted;
+    }
+
+    // Most entities move little or not at all between ticks, so the previous order is nearly sorted
+    // and an insertion pass costs about one comparison per entity. Depths come from the packed store.
+    public void update() {
+        for (int i = 0; i < size; i++) {
+            depths[i] = store.getDepth(ids[i]);
+        }
+
+        insertionSort(0, sortedSize);
+        if (sortedSize < size) {
+            mergeSort(sortedSize, size);
+            merge(0, sortedSize, size);
+        }
+        sortedSize = size;
+    }
+
+    // Sorting helpers.
+    private void insertionSort(int from, int to) {
+        for (int i = from + 1; i < to; i++) {
+            double depth = depths[i];
+            int id = ids[i];
+            if (!isAfter(depths[i - 1], ids[i - 1], depth, id)) continue;
+
+            int j = i - 1;
+            while (j >= from && isAfter(depths[j], ids[j], depth, id)) {
+                depths[j + 1] = depths[j];
+                ids[j + 1] = ids[j];
+                j--;
+            }
+            depths[j + 1] = depth;
+            ids[j + 1] = id;
+        }
+    }
+
+    private static boolean isAfter(double depth, int id, double otherDepth, int otherId) {
+        return depth > otherDepth || (depth == otherDepth && id > otherId);
+    }
+
+    private void mergeSort(int from, int to) {
+        if (to - from <= INSERTION_SORT_THRESHOLD) {
+            insertionSort(from, to);
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        mergeSort(from, middle);
+        mergeSort(middle, to);
+        merge(from, middle, to);
+    }
+
+    private void merge(int from, int middle, int to) {
+        if (from == middle || middle == to || !isAfter(depths[middle - 1], ids[middle - 1], depths[middle], ids[middle])) return;
+
+        int length = middle - from;
+        System.arraycopy(ids, from, scratchIds, 0, length);
+        System.arraycopy(depths, from, scratchDepths, 0, length);
+
+        int left = 0, right = middle, target = from;
+        while (left < length && right < to) {
+            if (isAfter(scratchDepths[left], scratchIds[left], depths[right], ids[right])) {
+                depths[target] = depths[right];
+                ids[target++] = ids[right++];
+            } else {
+                depths[target] = scratchDepths[left];
+                ids[target++] = scratchIds[left++];
+            }
+        }
+        while (left < length) {
+            depths[target] = scratchDepths[left];
+            ids[target++] = scratchIds[left++];
+        }
+    }
+
+    private void grow() {
+        int capacity = ids.length * 2;
+        ids = Arrays.copyOf(ids, capacity);
+        depths = Arrays.copyOf(depths, capacity);
+        scratchIds = new int[capacity];
+        scratchDepths = new double[capacity];
+    }
+}
@@ -0,0 +1,239 @@
+package aragon.game.entity;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class SpatialGrid {
+    private static final int INITIAL_CAPACITY = 64;
+
+    // Which rectangle of an entity the grid indexes.
+    public enum Bounds { COLLISION, RENDER }
+
+    private final int cellSize;
+    private final Bounds bounds;
+    private final Map<Entity, Node> nodes = new IdentityHashMap<>();
+
+    // Open addressing table from packed cell coordinates to cells.
+    private long[] keys = new long[INITIAL_CAPACITY];
+    private Cell[] cells = new Cell[INITIAL_CAPACITY];
+    private int cellCount = 0;
+
+    public SpatialGrid(int cellSize) {
+        this(cellSize, Bounds.COLLISION);
+    }
+
+    public SpatialGrid(int cellSize, Bounds bounds) {
+        if (cellSize <= 0) {
+            throw new IllegalArgumentException("Cell size must be positive: " + cellSize);
+        }
+        this.cellSize = cellSize;
+        this.bounds = bounds;
+    }
+
+    public int getCellSize() { return cellSize; }
+    public int size() { return nodes.size(); }
+
+    public boolean contains(Entity entity) {
+        return nodes.containsKey(entity);
+    }
+
+    public void insert(Entity entity) {
+        if (nodes.containsKey(entity)) return;
+        Node node = new Node(entity);
+        nodes.put(entity, node);
+        node.refreshBounds();
+        addToCells(node);
+    }
+
+    public void update(Entity entity) {
+        Node node = nodes.get(entity);
+        if (node == null) return;
+
+        int minX = node.minX, minY = node.minY, maxX = node.maxX, maxY = node.maxY;
+        node.refreshBounds();
+        if (minX == node.minX && minY == node.minY && maxX == node.maxX && maxY == node.maxY) return;
+
+        removeFromCells(node, minX, minY, maxX, maxY);
+        addToCells(node);
+    }
+
+    public void remove(Entity entity) {
+        Node node = nodes.remove(entity);
+        if (node == null) return;
+        removeFromCells(node, node.minX, node.minY, node.maxX, node.maxY);
+    }
+
+    public void clear() {
+        nodes.clear();
+        Arrays.fill(cells, null);
+        cellCount = 0;
+    }
+
+    // Only reads the grid, so worker threads can query at the same time. An entity spanning several cells is
+    // reported in the first cell of the query it is found in, the top left one of the cells both cover.
+    public void query(int x, int y, int width, int height, List<Entity> result) {
+        int minCellX = Math.floorDiv(x, cellSize);
+        int minCellY = Math.floorDiv(y, cellSize);
+        int maxCellX = Math.floorDiv(x + width, cellSize);
+        int maxCellY = Math.floorDiv(y + height, cellSize);
+
+        for (int cellY = minCellY; cellY <= maxCellY; cellY++) {
+            for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+                Cell cell = findCell(cellX, cellY);
+                if (cell == null) continue;
+
+                for (int i = 0; i < cell.count; i++) {
+                    Node node = cell.nodes[i];
+                    if (cellX != Math.max(node.minX, minCellX) || cellY != Math.max(node.minY, minCellY)) continue;
+                    if (node.entity.isAlive() && node.intersects(x, y, width, height)) result.add(node.entity);
+                }
+            }
+        }
+    }
+
+    public boolean intersectsAny(int x, int y, int width, int height, Entity exclude, boolean solidOnly) {
+        int maxCellX = Math.floorDiv(x + width, cellSize);
+        int maxCellY = Math.floorDiv(y + height, cellSize);
+
+        for (int cellY = Math.floorDiv(y, cellSize); cellY <= maxCellY; cellY++) {
+            for (int cellX = Math.floorDiv(x, cellSize); cellX <= maxCellX; cellX++) {
+                Cell cell = findCell(cellX, cellY);
+                if (cell == null) continue;
+
+                for (int i = 0; i < cell.count; i++) {
+                    Node node = cell.nodes[i];
+                    if (node.entity == exclude || !node.entity.isAlive()) continue;
+                    if (solidOnly && !node.entity.isSolid()) continue;
+                    if (node.intersects(x, y, width, height)) return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void addToCells(Node node) {
+        for (int cellY = node.minY; cellY <= node.maxY; cellY++) {
+            for (int cellX = node.minX; cellX <= node.maxX; cellX++) {
+                getOrCreateCell(cellX, cellY).add(node);
+            }
+        }
+    }
+
+    private void removeFromCells(Node node, int minX, int minY, int maxX, int maxY) {
+        for (int cellY = minY; cellY <= maxY; cellY++) {
+            for (int cellX = minX; cellX <= maxX; cellX++) {
+                Cell cell = findCell(cellX, cellY);
+                if (cell != null) cell.remove(node);
+            }
+        }
+    }
+
+    // Cell table.
+    private static long pack(int cellX, int cellY) {
+        return ((long) cellX << 32) | (cellY & 0xFFFFFFFFL);
+    }
+
+    private static int hash(long key) {
+        key ^= key >>> 33;
+        key *= 0xFF51AFD7ED558CCDL;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+
+    private Cell findCell(int cellX, int cellY) {
+        long key = pack(cellX, cellY);
+        int mask = cells.length - 1;
+        for (int index = hash(key) & mask; cells[index] != null; index = (index + 1) & mask) {
+            if (keys[index] == key) return cells[index];
+        }
+        return null;
+    }
+
+    private Cell getOrCreateCell(int cellX, int cellY) {
+        long key = pack(cellX, cellY);
+        int mask = cells.length - 1;
+        int index = hash(key) & mask;
+        for (; cells[index] != null; index = (index + 1) & mask) {
+            if (keys[index] == key) return cells[index];
+        }
+
+        Cell cell = new Cell();
+        keys[index] = key;
+        cells[index] = cell;
+        if (++cellCount * 2 > cells.length) growTable();
+        return cell;
+    }
+
+    private void growTable() {
+        long[] oldKeys = keys;
+        Cell[] oldCells = cells;
+        keys = new long[oldKeys.length * 2];
+        cells = new Cell[oldCells.length * 2];
+
+        int mask = cells.length - 1;
+        for (int i = 0; i < oldCells.length; i++) {
+            if (oldCells[i] == null) continue;
+            int index = hash(oldKeys[i]) & mask;
+            while (cells[index] != null) index = (index + 1) & mask;
+            keys[index] = oldKeys[i];
+            cells[index] = oldCells[i];
+        }
+    }
+
+    private static final class Cell {
+        private Node[] nodes = new Node[4];
+        private int count = 0;
+
+        void add(Node node) {
+            if (count == nodes.length) nodes = Arrays.copyOf(nodes, count * 2);
+            nodes[count++] = node;
+        }
+
+        void remove(Node node) {
+            for (int i = 0; i < count; i++) {
+                if (nodes[i] == node) {
+                    nodes[i] = nodes[--count];
+                    nodes[count] = null;
+                    return;
+                }
+            }
+        }
+    }
+
+    private final class Node {
+        private final Entity entity;
+        private int x, y, width, height;
+        private int minX, minY, maxX, maxY;
+
+        Node(Entity entity) {
+            this.entity = entity;
+        }
+
+        void refreshBounds() {
+            if (bounds == Bounds.RENDER) {
+                x = (int) Math.floor(entity.position.x);
+                y = (int) Math.floor(entity.position.y);
+                width = (int) Math.ceil(entity.position.x + entity.size.x) - x;
+                height = (int) Math.ceil(entity.position.y + entity.size.y) - y;
+            } else {
+                x = (int) (entity.position.x + entity.collisionBounds.x);
+                y = (int) (entity.position.y + entity.collisionBounds.y);
+                width = entity.collisionBounds.width;
+                height = entity.collisionBounds.height;
+            }
+
+            minX = Math.floorDiv(x, cellSize);
+            minY = Math.floorDiv(y, cellSize);
+            maxX = Math.floorDiv(x + width, cellSize);
+            maxY = Math.floorDiv(y + height, cellSize);
+        }
+
+        boolean intersects(int otherX, int otherY, int otherWidth, int otherHeight) {
+            return otherWidth > 0 && otherHeight > 0 && width > 0 && height > 0 &&
+                    otherX < x + width && otherX + otherWidth > x &&
+                    otherY < y + height && otherY + otherHeight > y;
+        }
+    }
+}
@@ -1,15 +1,19 @@
 package aragon.game.entity.interactable;
 
+import aragon.game.assets.AssetHandle;
+import aragon.game.entity.ConcurrentUpdatable;
+import aragon.game.entity.EntityCommandBuffer;
 import aragon.game.entity.EntityManager;
 import aragon.game.entity.player.Player;
 import aragon.game.graphics.Sprite;
+import aragon.game.main.GameCamera;
 import aragon.game.util.Vector2;
 
 import java.awt.*;
 
-public class Door extends InteractableEntity {
-    private final Sprite openedSprite;
-    private final Sprite closedSprite;
+public class Door extends InteractableEntity implements ConcurrentUpdatable {
+    private final AssetHandle<Sprite> openedSprite;
+    private final AssetHandle<Sprite> closedSprite;
     private boolean closed;
     private final boolean requiresKey;
 
@@ -22,8 +26,8 @@ public class Door extends InteractableEntity {
                 axis.x > axis.y ? entityManager.getLevel().getGameState().getGame().getTileSize()/2 : entityManager.getLevel().getGameState().getGame().getTileSize(),
                 closed
         );
-        this.openedSprite = entityManager.getLevel().getGameState().getGame().getAssetManager().getSprite(openedSprite);
-        this.closedSprite = entityManager.getLevel().getGameState().getGame().getAssetManager().getSprite(closedSprite);
+        this.openedSprite = hold(entityManager.getLevel().getGameState().getGame().getAssetManager().acquireSprite(openedSprite));
+        this.closedSprite = hold(entityManager.getLevel().getGameState().getGame().getAssetManager().acquireSprite(closedSprite));
         this.requiresKey = requiresKey;
         this.closed = closed;
     }
@@ -49,19 +53,18 @@ public class Door extends InteractableEntity {
     @Override
     public void update() {}
 
+    @Override
+    public void updateConcurrently(EntityCommandBuffer commands) {}
+
     @Override
     public void render(Graphics graphics) {
-        Vector2 cameraPosition = entityManager.getLevel().getGameState().getGame().getCamera().getPosition();
-        Vector2 screenPosition = position.subtract(cameraPosition);
-        Sprite currentSprite = closed ? closedSprite : openedSprite;
+        GameCamera camera = entityManager.getLevel().getGameState().getGame().getCamera();
+        Sprite currentSprite = (closed ? closedSprite : openedSprite).get();
 
-        graphics.drawImage(
-                currentSprite.getImage(),
-                (int) screenPosition.x,
-                (int) screenPosition.y,
-                (int) size.x,
-                (int) size.y,
-                null
+        currentSprite.getScaled((int) size.x, (int) size.y).draw(
+                graphics,
+                (int) (position.x - camera.getX()),
+                (int) (position.y - camera.getY())
         );
     }
 }
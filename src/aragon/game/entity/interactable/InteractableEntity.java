@@ -4,7 +4,6 @@ import aragon.game.entity.Entity;
 import aragon.game.entity.EntityManager;
 import aragon.game.entity.Interactable;
 import aragon.game.entity.player.Player;
-import aragon.game.util.Vector2;
 
 public abstract class InteractableEntity extends Entity implements Interactable {
     private int interactionRange;
@@ -24,8 +23,8 @@ public abstract class InteractableEntity extends Entity implements Interactable
 
     @Override
     public boolean canInteract(Player player) {
-        Vector2 playerCenter = player.position.add(player.getSize().scale(0.5));
-        Vector2 interactableCenter = position.add(size.scale(0.5));
-        return playerCenter.subtract(interactableCenter).magnitude() <= interactionRange;
+        double deltaX = (player.position.x + player.getWidth()*0.5) - (position.x + size.x*0.5);
+        double deltaY = (player.position.y + player.getHeight()*0.5) - (position.y + size.y*0.5);
+        return Math.hypot(deltaX, deltaY) <= interactionRange;
     }
 }
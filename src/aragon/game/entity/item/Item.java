@@ -1,20 +1,23 @@
 package aragon.game.entity.item;
 
+import aragon.game.assets.AssetHandle;
 import aragon.game.entity.Collectible;
+import aragon.game.entity.ConcurrentUpdatable;
 import aragon.game.entity.Entity;
+import aragon.game.entity.EntityCommandBuffer;
 import aragon.game.entity.EntityManager;
 import aragon.game.entity.player.Player;
 import aragon.game.graphics.Sprite;
-import aragon.game.util.Vector2;
+import aragon.game.main.GameCamera;
 
 import java.awt.*;
 
-public class Item extends Entity implements Collectible {
-    private final Sprite sprite;
+public class Item extends Entity implements Collectible, ConcurrentUpdatable {
+    private final AssetHandle<Sprite> sprite;
 
     public Item(EntityManager entityManager, String spritePath, int x, int y) {
         super(entityManager, x, y, entityManager.getLevel().getGameState().getGame().getTileSize(), false);
-        this.sprite = entityManager.getLevel().getGameState().getGame().getAssetManager().getSprite(spritePath);
+        this.sprite = hold(entityManager.getLevel().getGameState().getGame().getAssetManager().acquireSprite(spritePath));
 
         int collisionOffset = (int) (entityManager.getLevel().getGameState().getGame().getTileSize()*0.4);
         int collisionSize = (int) (entityManager.getLevel().getGameState().getGame().getTileSize()*0.5);
@@ -36,25 +39,21 @@ public class Item extends Entity implements Collectible {
     }
 
     @Override
-    public void update() {
-        Player player = entityManager.getLevel().getEntityManager().getPlayer();
-        if (canCollect(player)) onCollect(player);
-    }
+    public void update() {}
+
+    @Override
+    public void updateConcurrently(EntityCommandBuffer commands) {}
 
     @Override
     public void render(Graphics graphics) {
-        Vector2 cameraPosition = entityManager.getLevel().getGameState().getGame().getCamera().getPosition();
-        Vector2 worldPosition = position.subtract(cameraPosition);
+        GameCamera camera = entityManager.getLevel().getGameState().getGame().getCamera();
         double spriteXSize = size.x*0.5;
         double spriteYSize = size.y*0.5;
 
-        graphics.drawImage(
-                sprite.getImage(),
-                (int) (worldPosition.x + spriteXSize*0.5),
-                (int) (worldPosition.y + spriteYSize*0.5),
-                (int) spriteXSize,
-                (int) spriteYSize,
-                null
+        sprite.get().getScaled((int) spriteXSize, (int) spriteYSize).draw(
+                graphics,
+                (int) (position.x - camera.getX() + spriteXSize*0.5),
+                (int) (position.y - camera.getY() + spriteYSize*0.5)
         );
     }
 }
@@ -1,31 +1,44 @@
 package aragon.game.entity.player;
 
+import aragon.game.assets.AssetHandle;
+import aragon.game.assets.AssetManager;
 import aragon.game.entity.*;
 import aragon.game.graphics.Animation;
+import aragon.game.graphics.AnimationPlayer;
 import aragon.game.graphics.Sprite;
+import aragon.game.graphics.SpriteTransform;
 import aragon.game.input.InputActionEventListener;
 import aragon.game.main.Game;
+import aragon.game.main.GameCamera;
 import aragon.game.util.Vector2;
 
 import java.awt.*;
+import java.util.ArrayList;
 import java.util.List;
 
-public class Player extends Creature implements InputActionEventListener {
+public class Player extends Creature implements InputActionEventListener, ConcurrentUpdatable {
     private static final int DEFAULT_SPEED = 3;
     private static final int WALK_SPEED = 1;
 
-    private final Animation idleAnimation;
-    private final Animation walkAnimation;
-    private final Animation runAnimation;
-    private final Animation sitAnimation;
-    private final Animation standAnimation;
+    // Animations are shared by every world, the playback state is this player's own.
+    private final AnimationPlayer idleAnimation;
+    private final AnimationPlayer walkAnimation;
+    private final AnimationPlayer runAnimation;
+    private final AnimationPlayer sitAnimation;
+    private final AnimationPlayer standAnimation;
 
-    private Animation animation;
+    private AnimationPlayer animation;
+    private Sprite shownSprite;
     private boolean flipped = false;
     private boolean isWalking = false;
 
     private int keys = 0;
     private final Rectangle interactionBounds = new Rectangle(16, 16);
+    private final List<Entity> nearbyEntities = new ArrayList<>();
+
+    // Kept as fields so a concurrent update records them without allocating.
+    private final EntityCommand invalidateCommand = entityManager -> invalidate();
+    private final EntityCommand afterMoveCommand = entityManager -> afterMove();
 
     public Player(EntityManager entityManager, int width, int height) {
         super(entityManager, 0, 0, width, height);
@@ -33,14 +46,24 @@ public class Player extends Creature implements InputActionEventListener {
         moveSpeed = DEFAULT_SPEED;
 
         Game game = entityManager.getLevel().getGameState().getGame();
-        idleAnimation = game.getAssetManager().getAnimation("player.idle");
-        walkAnimation = game.getAssetManager().getAnimation("player.walk");
-        runAnimation = game.getAssetManager().getAnimation("player.run");
-        sitAnimation = game.getAssetManager().getAnimation("player.sit");
-        standAnimation = game.getAssetManager().getAnimation("player.stand");
+        AssetManager assetManager = game.getAssetManager();
+        idleAnimation = holdAnimation(assetManager, "player.idle");
+        walkAnimation = holdAnimation(assetManager, "player.walk");
+        runAnimation = holdAnimation(assetManager, "player.run");
+        sitAnimation = holdAnimation(assetManager, "player.sit");
+        standAnimation = holdAnimation(assetManager, "player.stand");
         animation = idleAnimation;
         animation.restart();
 
+        // Build the mirrored and scaled frames up front so rendering never allocates.
+        for (AnimationPlayer playerAnimation : List.of(idleAnimation, walkAnimation, runAnimation, sitAnimation, standAnimation)) {
+            for (SpriteTransform transform : List.of(SpriteTransform.NONE, SpriteTransform.FLIP_HORIZONTAL)) {
+                for (Sprite frame : playerAnimation.getAnimation().getFrames(transform)) {
+                    frame.getScaled(width, height);
+                }
+            }
+        }
+
         game.getInputManager().addCategoryListener("player_control", this);
     }
 
@@ -48,6 +71,12 @@ public class Player extends Creature implements InputActionEventListener {
         this(entityManager, size, size);
     }
 
+    // The player switches between its animations by identity, so it keeps them loaded for its whole life.
+    private AnimationPlayer holdAnimation(AssetManager assetManager, String path) {
+        AssetHandle<Animation> handle = assetManager.acquireAnimation(path);
+        return handle == null ? null : new AnimationPlayer(hold(handle).get());
+    }
+
     @Override
     public void onActionTriggered(String actionName) {
         switch (actionName) {
@@ -123,8 +152,8 @@ public class Player extends Creature implements InputActionEventListener {
         };
     }
 
-    private Animation getAnimation(boolean isMoving) {
-        Animation targetAnimation = animation;
+    private AnimationPlayer getAnimation(boolean isMoving) {
+        AnimationPlayer targetAnimation = animation;
 
         if (isMoving) {
             if (animation == standAnimation && !animation.isPlaying()) {
@@ -147,8 +176,7 @@ public class Player extends Creature implements InputActionEventListener {
 
     private void handleInteraction() {
         Rectangle interactionBox = getInteractionBounds();
-        List<Interactable> interactablesInBounds = entityManager.getLevel()
-                .getEntityManager().getInteractablesInBounds(interactionBox);
+        List<Interactable> interactablesInBounds = entityManager.getInteractablesInBounds(interactionBox);
 
         Interactable closestInteractable = null;
         double closestDistance = Double.MAX_VALUE;
@@ -173,6 +201,23 @@ public class Player extends Creature implements InputActionEventListener {
         }
     }
 
+    private void collectItems() {
+        nearbyEntities.clear();
+        entityManager.queryEntities(
+                (int) (position.x + collisionBounds.x),
+                (int) (position.y + collisionBounds.y),
+                collisionBounds.width,
+                collisionBounds.height,
+                nearbyEntities
+        );
+
+        for (int i = 0; i < nearbyEntities.size(); i++) {
+            if (nearbyEntities.get(i) instanceof Collectible collectible) {
+                collectible.onCollect(this);
+            }
+        }
+    }
+
     public void addKey() {
         keys++;
     }
@@ -188,15 +233,28 @@ public class Player extends Creature implements InputActionEventListener {
 
     @Override
     public void update() {
-        Vector2 moveVector = getMoveVector();
+        if (updateAnimation()) invalidate();
+        move();
+        afterMove();
+    }
 
+    // Same order as update, collecting items and moving the camera run once the move has been applied.
+    @Override
+    public void updateConcurrently(EntityCommandBuffer commands) {
+        if (updateAnimation()) commands.submit(invalidateCommand);
+        queueMove(commands);
+        commands.submit(afterMoveCommand);
+    }
+
+    // Only touches the player's own state, true when the shown sprite changed.
+    private boolean updateAnimation() {
         if (facingDirection.x > 0) {
             flipped = false;
         } else if (facingDirection.x < 0) {
             flipped = true;
         }
 
-        Animation targetAnimation = getAnimation(moveVector.magnitude() > 0);
+        AnimationPlayer targetAnimation = getAnimation(isMoving());
         if (targetAnimation != animation) {
             animation.reset();
             animation = targetAnimation;
@@ -204,23 +262,26 @@ public class Player extends Creature implements InputActionEventListener {
         }
 
         animation.update();
-        move();
+        Sprite sprite = animation.getSprite(flipped ? SpriteTransform.FLIP_HORIZONTAL : SpriteTransform.NONE);
+        if (sprite == shownSprite) return false;
+        shownSprite = sprite;
+        return true;
+    }
+
+    private void afterMove() {
+        collectItems();
         entityManager.getLevel().getGameState().getGame().getCamera().setCameraSubject(this);
     }
 
     @Override
     public void render(Graphics graphics) {
-        Vector2 cameraPosition = entityManager.getLevel().getGameState().getGame().getCamera().getPosition();
-        Vector2 worldPosition = position.subtract(cameraPosition);
-        Sprite sprite = flipped ? animation.getSprite().flipHorizontal() : animation.getSprite();
-
-        graphics.drawImage(
-                sprite.getImage(),
-                (int) worldPosition.x,
-                (int) worldPosition.y,
-                (int) size.x,
-                (int) size.y,
-                null
+        GameCamera camera = entityManager.getLevel().getGameState().getGame().getCamera();
+        Sprite sprite = animation.getSprite(flipped ? SpriteTransform.FLIP_HORIZONTAL : SpriteTransform.NONE);
+
+        sprite.getScaled((int) size.x, (int) size.y).draw(
+                graphics,
+                (int) (position.x - camera.getX()),
+                (int) (position.y - camera.getY())
         );
     }
 
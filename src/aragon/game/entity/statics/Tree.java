@@ -1,13 +1,16 @@
 package aragon.game.entity.statics;
 
+import aragon.game.assets.AssetHandle;
+import aragon.game.entity.ConcurrentUpdatable;
+import aragon.game.entity.EntityCommandBuffer;
 import aragon.game.entity.EntityManager;
 import aragon.game.graphics.Sprite;
-import aragon.game.util.Vector2;
+import aragon.game.main.GameCamera;
 
 import java.awt.*;
 
-public class Tree extends StaticEntity {
-    private final Sprite sprite;
+public class Tree extends StaticEntity implements ConcurrentUpdatable {
+    private final AssetHandle<Sprite> sprite;
     public Tree(EntityManager entityManager, int x, int y) {
         super(
                 entityManager,
@@ -18,23 +21,23 @@ public class Tree extends StaticEntity {
                 true
         );
         int tileSize = entityManager.getLevel().getGameState().getGame().getTileSize();
-        sprite = entityManager.getLevel().getGameState().getGame().getAssetManager().getSprite("garden.tree");
+        sprite = hold(entityManager.getLevel().getGameState().getGame().getAssetManager().acquireSprite("garden.tree"));
         collisionBounds = new Rectangle(tileSize, (int) (tileSize*4.6), tileSize, tileSize/4);
     }
 
     @Override
     public void update() {}
 
+    @Override
+    public void updateConcurrently(EntityCommandBuffer commands) {}
+
     @Override
     public void render(Graphics graphics) {
-        Vector2 cameraPosition = entityManager.getLevel().getGameState().getGame().getCamera().getPosition();
-        graphics.drawImage(
-                sprite.getImage(),
-                (int) (position.x - cameraPosition.x),
-                (int) (position.y - cameraPosition.y),
-                (int) size.x,
-                (int) size.y,
-                null
+        GameCamera camera = entityManager.getLevel().getGameState().getGame().getCamera();
+        sprite.get().getScaled((int) size.x, (int) size.y).draw(
+                graphics,
+                (int) (position.x - camera.getX()),
+                (int) (position.y - camera.getY())
         );
     }
 }
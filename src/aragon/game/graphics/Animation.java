@@ -3,95 +3,39 @@ package aragon.game.graphics;
 import java.util.ArrayList;
 import java.util.List;
 
+// The frames of an animation. Animations come from the asset manager and every world of the process shares
+// them, so nothing here changes once built; playback state lives in an AnimationPlayer per entity.
 public class Animation {
     private final int frameDelay;
-    private final int totalFrames;
-    private AnimationPriority priority;
-    private int currentFrame;
-    private int frameCount;
-
-    private boolean stopped;
-    private boolean loops;
-    private double speed;
+    private final AnimationPriority priority;
+    private final boolean loops;
 
     private final List<AnimationFrame> frames = new ArrayList<>();
 
     public Animation(Sprite[] frames, AnimationPriority priority, int frameDelay, boolean loops) {
         this.priority = priority;
         this.frameDelay = frameDelay;
-        this.stopped = true;
         this.loops = loops;
 
         for (Sprite sprite : frames) {
-            addFrame(sprite, frameDelay);
+            this.frames.add(new AnimationFrame(sprite, frameDelay));
         }
-
-        this.speed = 1;
-        this.frameCount = 0;
-        this.currentFrame = 0;
-        this.totalFrames = this.frames.size();
-    }
-
-    public void setLooping(boolean loops) { this.loops = loops; }
-
-    public void setSpeed(double speed) {
-        this.speed = speed;
     }
 
-    public boolean isPlaying() {
-        return !stopped;
-    }
+    public int getFrameDelay() { return frameDelay; }
+    public AnimationPriority getPriority() { return priority; }
+    public boolean isLooping() { return loops; }
 
-    public void play() {
-        if (!stopped) return;
-        if (frames.isEmpty()) return;
-        stopped = false;
+    public Sprite getSprite(int frame) {
+        return frames.get(frame).getSprite();
     }
 
-    public void stop() {
-        if (frames.isEmpty()) return;
-        stopped = true;
-    }
-
-    public void restart() {
-        if (frames.isEmpty()) return;
-        currentFrame = 0;
-        stopped = false;
-    }
-
-    public void reset() {
-        this.stopped = true;
-        this.frameCount = 0;
-        this.currentFrame = 0;
-    }
-
-    private void addFrame(Sprite sprite, int duration) {
-        frames.add(new AnimationFrame(sprite, duration));
-        currentFrame = 0;
-    }
-
-    public Sprite getSprite() {
-        return frames.get(currentFrame).getSprite();
-    }
-    public int getFrameCount() { return frames.size(); }
-
-    public void update() {
-        if (stopped) return;
-        frameCount++;
-
-        int delay = Math.max((int)Math.floor(frameDelay / speed), 1);
-
-        if (frameCount < delay) return;
-        frameCount = 0;
-        currentFrame++;
-
-        if (currentFrame > totalFrames - 1) {
-            if (!loops) {
-                currentFrame = totalFrames - 1;
-                stop();
-            } else {
-                currentFrame = 0;
-            }
+    public Sprite[] getFrames(SpriteTransform transform) {
+        Sprite[] sprites = new Sprite[frames.size()];
+        for (int i = 0; i < sprites.length; i++) {
+            sprites[i] = frames.get(i).getSprite().getVariant(transform);
         }
+        return sprites;
     }
+    public int getFrameCount() { return frames.size(); }
 }
@@ -0,0 +1,74 @@
+package aragon.game.graphics;
+
+// Plays a shared animation for one entity: which frame shows, how long it has shown and how fast it runs.
+public class AnimationPlayer {
+    private final Animation animation;
+    private int currentFrame;
+    private int frameCount;
+
+    private boolean stopped = true;
+    private double speed = 1;
+
+    public AnimationPlayer(Animation animation) {
+        this.animation = animation;
+    }
+
+    public Animation getAnimation() { return animation; }
+
+    public void setSpeed(double speed) {
+        this.speed = speed;
+    }
+
+    public boolean isPlaying() {
+        return !stopped;
+    }
+
+    public void play() {
+        if (animation.getFrameCount() == 0) return;
+        stopped = false;
+    }
+
+    public void stop() {
+        if (animation.getFrameCount() == 0) return;
+        stopped = true;
+    }
+
+    public void restart() {
+        if (animation.getFrameCount() == 0) return;
+        currentFrame = 0;
+        stopped = false;
+    }
+
+    public void reset() {
+        this.stopped = true;
+        this.frameCount = 0;
+        this.currentFrame = 0;
+    }
+
+    public Sprite getSprite() {
+        return animation.getSprite(currentFrame);
+    }
+
+    public Sprite getSprite(SpriteTransform transform) {
+        return animation.getSprite(currentFrame).getVariant(transform);
+    }
+
+    public void update() {
+        if (stopped) return;
+        frameCount++;
+
+        int delay = Math.max((int)Math.floor(animation.getFrameDelay() / speed), 1);
+
+        if (frameCount < delay) return;
+        frameCount = 0;
+
+        int nextFrame = currentFrame + 1;
+        if (nextFrame < animation.getFrameCount()) {
+            currentFrame = nextFrame;
+        } else if (animation.isLooping()) {
+            currentFrame = 0;
+        } else {
+            stop();
+        }
+    }
+}
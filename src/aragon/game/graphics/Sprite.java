@@ -4,60 +4,166 @@ import aragon.game.assets.ImageLoader;
 
 import java.awt.Graphics;
 import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
 
+// A region of an image. Sub-sprites share the image of their parent, and packing moves sprites into
+// shared atlas pages, so draw through draw() rather than blitting the image.
 public class Sprite {
-    protected final BufferedImage image;
+    // Packing and hot reload point the sprite at a new region while other threads draw it, so the image and
+    // its bounds are swapped together as one immutable value.
+    private record Region(BufferedImage image, int x, int y, int width, int height) {}
+
+    private volatile Region region;
+    private final Map<SpriteTransform, Sprite> variants = new EnumMap<>(SpriteTransform.class);
+    private Sprite[] scaledVariants = new Sprite[0];
 
     public Sprite(BufferedImage image) {
-        this.image = image;
+        this(image, 0, 0, image.getWidth(), image.getHeight());
+    }
+
+    public Sprite(BufferedImage image, int x, int y, int width, int height) {
+        if (x < 0 || y < 0 || x + width > image.getWidth() || y + height > image.getHeight()) {
+            throw new IllegalArgumentException(String.format("Region %d, %d %dx%d is outside of the %dx%d image.",
+                    x, y, width, height, image.getWidth(), image.getHeight()));
+        }
+        this.region = new Region(image, x, y, width, height);
     }
 
     public Sprite(Sprite sprite) {
-        int width = sprite.image.getWidth();
-        int height = sprite.image.getHeight();
-        image = new BufferedImage(width, height, sprite.image.getType());
-        Graphics graphics = image.createGraphics();
-        graphics.drawImage(image, 0, 0, width, height, null);
-        graphics.dispose();
+        this(copy(sprite.region));
     }
 
-    public Sprite(String path) {
-        image = ImageLoader.loadImage(path);
+    private static BufferedImage copy(Region region) {
+        return ImageLoader.copyRegion(region.image, region.x, region.y, region.width, region.height);
     }
 
-    public BufferedImage getImage() {
-        return image;
+    public Sprite(String path) {
+        this(ImageLoader.loadImage(path));
     }
 
+    // The image holding the sprite, which may be an atlas page holding many sprites.
+    public BufferedImage getAtlas() { return region.image; }
+    public int getX() { return region.x; }
+    public int getY() { return region.y; }
+
     public int getWidth() {
-        return image.getWidth();
+        return region.width;
     }
 
     public int getHeight() {
-        return image.getHeight();
+        return region.height;
+    }
+
+    public void draw(Graphics graphics, int drawX, int drawY) {
+        Region r = region;
+        graphics.drawImage(r.image, drawX, drawY, drawX + r.width, drawY + r.height, r.x, r.y, r.x + r.width, r.y + r.height, null);
+    }
+
+    public void draw(Graphics graphics, int drawX, int drawY, int drawWidth, int drawHeight) {
+        Region r = region;
+        graphics.drawImage(r.image, drawX, drawY, drawX + drawWidth, drawY + drawHeight, r.x, r.y, r.x + r.width, r.y + r.height, null);
+    }
+
+    public Sprite getSubSprite(int subX, int subY, int subWidth, int subHeight) {
+        Region r = region;
+        return new Sprite(r.image, r.x + subX, r.y + subY, subWidth, subHeight);
+    }
+
+    public synchronized Sprite getScaled(int scaledWidth, int scaledHeight) {
+        Region r = region;
+        if (scaledWidth == r.width && scaledHeight == r.height) return this;
+
+        for (Sprite scaled : scaledVariants) {
+            if (scaled.getWidth() == scaledWidth && scaled.getHeight() == scaledHeight) return scaled;
+        }
+
+        Sprite scaled = new Sprite(ImageLoader.scaleRegion(r.image, r.x, r.y, r.width, r.height, scaledWidth, scaledHeight));
+        Sprite[] expanded = Arrays.copyOf(scaledVariants, scaledVariants.length + 1);
+        expanded[scaledVariants.length] = scaled;
+        scaledVariants = expanded;
+        return scaled;
     }
 
-    public Sprite getSubSprite(int x, int y, int w, int h) {
-        return new Sprite(image.getSubimage(x, y, w, h));
+    public synchronized Sprite getVariant(SpriteTransform transform) {
+        if (transform == SpriteTransform.NONE) return this;
+
+        Sprite variant = variants.get(transform);
+        if (variant == null) {
+            variant = new Sprite(createTransformedImage(transform));
+            variants.put(transform, variant);
+        }
+        return variant;
     }
 
     public Sprite flipHorizontal() {
-        int width = image.getWidth();
-        int height = image.getHeight();
-        BufferedImage flipped = new BufferedImage(width, height, image.getType());
-        Graphics graphics = flipped.createGraphics();
-        graphics.drawImage(image, 0, 0, width, height, width, 0, 0, height, null);
-        graphics.dispose();
-        return new Sprite(flipped);
+        return getVariant(SpriteTransform.FLIP_HORIZONTAL);
     }
 
     public Sprite flipVertical() {
-        int width = image.getWidth();
-        int height = image.getHeight();
-        BufferedImage flipped = new BufferedImage(width, height, image.getType());
-        Graphics graphics = flipped.createGraphics();
-        graphics.drawImage(image, 0, 0, width, height, 0, height, width, 0, null);
+        return getVariant(SpriteTransform.FLIP_VERTICAL);
+    }
+
+    // The images holding the pixels of the sprite and the variants created so far. A sprite cut from a sheet
+    // adds the sheet's image.
+    public void collectImages(Collection<BufferedImage> out) {
+        List<Sprite> sprites = new ArrayList<>();
+        collectVariants(sprites);
+        for (Sprite sprite : sprites) {
+            out.add(sprite.getAtlas());
+        }
+    }
+
+    // This sprite and every scaled or transformed variant created so far.
+    synchronized void collectVariants(Collection<Sprite> out) {
+        out.add(this);
+        out.addAll(Arrays.asList(scaledVariants));
+        for (Sprite variant : variants.values()) {
+            variant.collectVariants(out);
+        }
+    }
+
+    // Takes over the pixels of source, for a hot reload. Everything holding this sprite or one of its variants
+    // draws the new pixels; variants are rebuilt at their old sizes. A draw on another thread sees the old region
+    // or the new one, never a mix of the two.
+    public synchronized void replaceWith(Sprite source) {
+        Region r = source.region;
+        region = r;
+
+        for (Sprite scaled : scaledVariants) {
+            scaled.replaceWith(new Sprite(ImageLoader.scaleRegion(r.image, r.x, r.y, r.width, r.height, scaled.getWidth(), scaled.getHeight())));
+        }
+        for (Map.Entry<SpriteTransform, Sprite> variant : variants.entrySet()) {
+            variant.getValue().replaceWith(new Sprite(createTransformedImage(variant.getKey())));
+        }
+    }
+
+    // Points the sprite at its copy in an atlas page.
+    synchronized void relocate(BufferedImage atlas, int atlasX, int atlasY) {
+        Region r = region;
+        region = new Region(atlas, atlasX, atlasY, r.width, r.height);
+    }
+
+    private BufferedImage createTransformedImage(SpriteTransform transform) {
+        Region r = region;
+        int x = r.x, y = r.y, width = r.width, height = r.height;
+        BufferedImage transformed = ImageLoader.createCompatibleImage(width, height);
+        Graphics graphics = transformed.createGraphics();
+        int right = x + width;
+        int bottom = y + height;
+
+        switch (transform) {
+            case FLIP_HORIZONTAL -> graphics.drawImage(r.image, 0, 0, width, height, right, y, x, bottom, null);
+            case FLIP_VERTICAL -> graphics.drawImage(r.image, 0, 0, width, height, x, bottom, right, y, null);
+            case ROTATE_180 -> graphics.drawImage(r.image, 0, 0, width, height, right, bottom, x, y, null);
+            default -> graphics.drawImage(r.image, 0, 0, width, height, x, y, right, bottom, null);
+        }
+
         graphics.dispose();
-        return new Sprite(flipped);
+        return transformed;
     }
 }
@@ -0,0 +1,135 @@
+package aragon.game.graphics;
+
+import aragon.game.assets.ImageLoader;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Packs sprites into a few shared pages at load time, so a frame blits from a handful of images instead
+// of one per sprite. Shelf packing by descending height: each page is filled row by row, a row as tall as
+// its first sprite. Sprites keep their identity, they are only pointed at their copy in a page.
+public final class SpriteAtlas {
+    public static final int MAX_PAGE_SIZE = 2048;
+    // Transparent gap between sprites, so filtered or scaled draws never sample a neighbour.
+    private static final int PADDING = 1;
+
+    private final List<BufferedImage> pages;
+    private final int spriteCount;
+    private final int standaloneCount;
+
+    private SpriteAtlas(List<BufferedImage> pages, int spriteCount, int standaloneCount) {
+        this.pages = pages;
+        this.spriteCount = spriteCount;
+        this.standaloneCount = standaloneCount;
+    }
+
+    public List<BufferedImage> getPages() { return Collections.unmodifiableList(pages); }
+    public int getSpriteCount() { return spriteCount; }
+    // Sprites too large for a page, left in their own image.
+    public int getStandaloneCount() { return standaloneCount; }
+
+    // Packs the sprites and every variant they have created so far. Sprites sharing a region of the same
+    // image, like a tile and the sheet sprite it came from, share one copy in the page.
+    public static SpriteAtlas pack(Collection<Sprite> sprites) {
+        List<Sprite> collected = new ArrayList<>();
+        for (Sprite sprite : sprites) {
+            sprite.collectVariants(collected);
+        }
+
+        Set<Sprite> unique = Collections.newSetFromMap(new IdentityHashMap<>());
+        Map<Region, List<Sprite>> regions = new LinkedHashMap<>();
+        for (Sprite sprite : collected) {
+            if (!unique.add(sprite)) continue;
+            Region region = new Region(sprite.getAtlas(), sprite.getX(), sprite.getY(), sprite.getWidth(), sprite.getHeight());
+            regions.computeIfAbsent(region, key -> new ArrayList<>()).add(sprite);
+        }
+
+        List<Region> packable = new ArrayList<>();
+        int standalone = 0;
+        long area = 0;
+        int widest = 1;
+        for (Region region : regions.keySet()) {
+            if (region.width() + PADDING * 2 > MAX_PAGE_SIZE || region.height() + PADDING * 2 > MAX_PAGE_SIZE) {
+                standalone += regions.get(region).size();
+                continue;
+            }
+            packable.add(region);
+            area += (long) (region.width() + PADDING * 2) * (region.height() + PADDING * 2);
+            widest = Math.max(widest, region.width() + PADDING * 2);
+        }
+
+        packable.sort(Comparator.comparingInt(Region::height).reversed().thenComparing(Comparator.comparingInt(Region::width).reversed()));
+
+        // Square-ish pages for small sets, full width ones once the sprites would not fit a single page.
+        int pageWidth = Math.max(widest, Math.min(MAX_PAGE_SIZE, Integer.highestOneBit((int) Math.ceil(Math.sqrt(area * 1.25)) - 1) << 1));
+
+        List<List<Placement>> pagePlacements = new ArrayList<>();
+        List<Integer> pageHeights = new ArrayList<>();
+        List<Placement> current = new ArrayList<>();
+        int shelfX = 0, shelfY = 0, shelfHeight = 0;
+        for (Region region : packable) {
+            int paddedWidth = region.width() + PADDING * 2;
+            int paddedHeight = region.height() + PADDING * 2;
+
+            if (shelfX + paddedWidth > pageWidth) {
+                shelfY += shelfHeight;
+                shelfX = 0;
+                shelfHeight = 0;
+            }
+            if (shelfY + paddedHeight > MAX_PAGE_SIZE) {
+                pagePlacements.add(current);
+                pageHeights.add(shelfY);
+                current = new ArrayList<>();
+                shelfX = shelfY = shelfHeight = 0;
+            }
+
+            current.add(new Placement(region, regions.get(region), shelfX + PADDING, shelfY + PADDING));
+            shelfX += paddedWidth;
+            shelfHeight = Math.max(shelfHeight, paddedHeight);
+        }
+        if (!current.isEmpty()) {
+            pagePlacements.add(current);
+            pageHeights.add(shelfY + shelfHeight);
+        }
+
+        List<BufferedImage> pages = new ArrayList<>();
+        for (int i = 0; i < pagePlacements.size(); i++) {
+            pages.add(drawPage(pagePlacements.get(i), pageWidth, pageHeights.get(i)));
+        }
+        return new SpriteAtlas(pages, unique.size() - standalone, standalone);
+    }
+
+    private record Region(BufferedImage image, int x, int y, int width, int height) {}
+    private record Placement(Region region, List<Sprite> sprites, int x, int y) {}
+
+    private static BufferedImage drawPage(List<Placement> placements, int width, int height) {
+        BufferedImage page = ImageLoader.createCompatibleImage(width, height);
+        Graphics2D graphics = page.createGraphics();
+        // Copy pixels as they are, blending onto the empty page would change premultiplied edges.
+        graphics.setComposite(AlphaComposite.Src);
+        for (Placement placement : placements) {
+            Region region = placement.region();
+            graphics.drawImage(region.image(), placement.x(), placement.y(),
+                    placement.x() + region.width(), placement.y() + region.height(),
+                    region.x(), region.y(), region.x() + region.width(), region.y() + region.height(), null);
+        }
+        graphics.dispose();
+
+        for (Placement placement : placements) {
+            for (Sprite sprite : placement.sprites()) {
+                sprite.relocate(page, placement.x(), placement.y());
+            }
+        }
+        return page;
+    }
+}
@@ -4,11 +4,11 @@ import aragon.game.util.Vector2;
 
 import java.awt.image.BufferedImage;
 
+// Sprites are cut by grid position. Lookups hold no state between calls, so sprites can be cut from
+// several loader threads at once; set the size and offset before the sheet is shared.
 public class SpriteSheet extends Sprite {
-    private Vector2 offset = Vector2.zero;
-    private Vector2 spriteSize = Vector2.zero;
-    private Vector2 tempOffset = Vector2.zero;
-    private Vector2 tempSpriteSize = Vector2.zero;
+    private volatile Vector2 offset = Vector2.zero;
+    private volatile Vector2 spriteSize = Vector2.zero;
 
     public SpriteSheet(BufferedImage image) {
         super(image);
@@ -24,49 +24,49 @@ public class SpriteSheet extends Sprite {
 
     public void setSpriteSize(int x, int y) {
         spriteSize = new Vector2(x, y);
-        tempSpriteSize = spriteSize;
     }
 
     public void setOffset(int x, int y) {
         offset = new Vector2(x, y);
-        tempOffset = offset;
     }
 
-    public void withSpriteSize(int x, int y) {
-        tempSpriteSize = new Vector2(x, y);
+    public Vector2 getSpriteSize() {
+        return new Vector2(spriteSize);
     }
 
-    public void withOffset(int x, int y) {
-        tempOffset = new Vector2(x, y);
+    @Override
+    public synchronized void replaceWith(Sprite source) {
+        super.replaceWith(source);
+        if (source instanceof SpriteSheet sheet) {
+            offset = sheet.offset;
+            spriteSize = sheet.spriteSize;
+        }
     }
 
-    public Vector2 getSpriteSize() {
-        return new Vector2(spriteSize);
+    public Sprite getSprite(int x, int y) {
+        Vector2 sheetOffset = offset;
+        return getSprite(x, y, (int) sheetOffset.x, (int) sheetOffset.y);
     }
 
-    public Sprite getSprite(int x, int y) {
-        Vector2 cachedOffset = tempOffset;
-        tempOffset = offset;
-        Vector2 cachedSize = tempSpriteSize;
-        tempSpriteSize = spriteSize;
+    // Cuts a sprite with its own offset instead of the sheet's.
+    public Sprite getSprite(int x, int y, int offsetX, int offsetY) {
+        Vector2 size = spriteSize;
         return getSubSprite(
-                (int) (cachedOffset.x + (x * cachedSize.x)),
-                (int) (cachedOffset.y + (y * cachedSize.y)),
-                (int) (cachedSize.x),
-                (int) (cachedSize.y)
+                (int) (offsetX + (x * size.x)),
+                (int) (offsetY + (y * size.y)),
+                (int) (size.x),
+                (int) (size.y)
         );
     }
 
     public SpriteSheet getSpriteSheet(int x0, int y0, int x1, int y1) {
-        Vector2 cachedOffset = tempOffset;
-        tempOffset = offset;
-        Vector2 cachedSize = tempSpriteSize;
-        tempSpriteSize = spriteSize;
+        Vector2 sheetOffset = offset;
+        Vector2 size = spriteSize;
         return new SpriteSheet(getSubSprite(
-                (int) (cachedOffset.x + (x0 * cachedSize.x)),
-                (int) (cachedOffset.y + (y0 * cachedSize.y)),
-                (int) (cachedOffset.x + (x1 * cachedSize.x)),
-                (int) (cachedOffset.y + (y1 * cachedSize.y))
+                (int) (sheetOffset.x + (x0 * size.x)),
+                (int) (sheetOffset.y + (y0 * size.y)),
+                (int) (sheetOffset.x + (x1 * size.x)),
+                (int) (sheetOffset.y + (y1 * size.y))
         ));
     }
 }
@@ -0,0 +1,8 @@
+package aragon.game.graphics;
+
+public enum SpriteTransform {
+    NONE,
+    FLIP_HORIZONTAL,
+    FLIP_VERTICAL,
+    ROTATE_180
+}
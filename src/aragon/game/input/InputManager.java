@@ -21,7 +21,7 @@ public final class InputManager implements KeyListener, MouseListener, MouseMoti
     private final boolean[] previousButtons = new boolean[MAX_MOUSE_BUTTONS];
 
     // Mouse management.
-    private Vector2 lastMousePosition = Vector2.zero;
+    private final Vector2 lastMousePosition = new Vector2();
     private Vector2 mousePosition = Vector2.zero;
     private int scrollDelta = 0;
 
@@ -53,10 +53,14 @@ public final class InputManager implements KeyListener, MouseListener, MouseMoti
     private final Map<String, Long> actionPressTime = new HashMap<>();
 
     private InputManager(Game game) {
-        game.getDisplay().getCanvas().addKeyListener(this);
-        game.getDisplay().getCanvas().addMouseListener(this);
-        game.getDisplay().getCanvas().addMouseMotionListener(this);
-        game.getDisplay().getCanvas().addMouseWheelListener(this);
+        if (game.getDisplay() != null) {
+            game.getDisplay().getCanvas().addKeyListener(this);
+            game.getDisplay().getCanvas().addMouseListener(this);
+            game.getDisplay().getCanvas().addMouseMotionListener(this);
+            game.getDisplay().getCanvas().addMouseWheelListener(this);
+        } else {
+            LOGGER.info("No display available, input devices are not attached.");
+        }
         LOGGER.info("Instantiated new singleton.");
     }
 
@@ -716,9 +720,11 @@ public final class InputManager implements KeyListener, MouseListener, MouseMoti
             previousStates.put(actionName, currentlyPressed);
         }
 
-        Vector2 mouseDelta = getMouseDelta();
-        if (mouseDelta.magnitude() > 0 || scrollDelta != 0) {
-            InputMouseEvent mouseEvent = new InputMouseEvent(getMousePosition(), mouseDelta, scrollDelta);
+        Vector2 currentMousePosition = mousePosition;
+        boolean mouseMoved = currentMousePosition.x != lastMousePosition.x || currentMousePosition.y != lastMousePosition.y;
+        if (mouseMoved || scrollDelta != 0) {
+            Vector2 mouseDelta = currentMousePosition.subtract(lastMousePosition);
+            InputMouseEvent mouseEvent = new InputMouseEvent(new Vector2(currentMousePosition), mouseDelta, scrollDelta);
             fireInputMouseEvent(mouseEvent);
         }
     }
@@ -726,7 +732,7 @@ public final class InputManager implements KeyListener, MouseListener, MouseMoti
     public void update() {
         updateBuffer();
 
-        lastMousePosition = new Vector2(mousePosition);
+        lastMousePosition.set(mousePosition);
         scrollDelta = 0;
         System.arraycopy(keys, 0, previousKeys, 0, keys.length);
         System.arraycopy(buttons, 0, previousButtons, 0, buttons.length);
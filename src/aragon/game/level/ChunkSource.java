@@ -0,0 +1,15 @@
+package aragon.game.level;
+
+// Tiles of a streamed level, read a chunk at a time. Reads run on loader threads, so they have to be
+// safe to call concurrently.
+public interface ChunkSource {
+    int getWidth();
+    int getHeight();
+
+    int getLayerCount();
+    String getLayerName(int layer);
+    TileLayerType getLayerType(int layer);
+
+    // Row-major ids of the rectangle into out, width ids per row. Tiles outside the level read as -1.
+    void readTiles(int layer, int x, int y, int width, int height, int[] out);
+}
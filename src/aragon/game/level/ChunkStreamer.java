@@ -0,0 +1,340 @@
+package aragon.game.level;
+
+import aragon.game.entity.Entity;
+import aragon.game.entity.EntityManager;
+import aragon.game.main.Game;
+import aragon.game.main.GameCamera;
+import aragon.game.metrics.MetricGauge;
+import aragon.game.metrics.MetricsRegistry;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Keeps the chunks around the camera of a streamed level resident. Missing chunks are read on loader
+// threads and installed on the game thread at the next update. Past the memory budget the least recently
+// wanted chunks are evicted, and the entities standing in them are parked until the chunk loads again.
+// Chunks with edited tiles keep their tiles on the heap when evicted, outside the budget.
+public class ChunkStreamer {
+    public static final int CHUNK_TILES = TileLayer.CHUNK_SIZE * 4;
+    // Chunks past each edge of the view that load ahead of the camera.
+    private static final int LOAD_MARGIN = 1;
+    private static final int RETRY_TICKS = 300;
+
+    private static final byte UNLOADED = 0;
+    private static final byte LOADING = 1;
+    private static final byte RESIDENT = 2;
+
+    private static final AtomicInteger LOADER_THREADS = new AtomicInteger();
+    private static final ExecutorService LOADER = Executors.newFixedThreadPool(2, runnable -> {
+        Thread thread = new Thread(runnable, "chunk-loader-" + LOADER_THREADS.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Logger LOGGER = LogManager.getLogger(ChunkStreamer.class);
+
+    private final Level level;
+    private final ChunkSource source;
+    private final TileSet tileSet;
+    private final TileLayer[] layers;
+    private final ChunkedTileStorage[] storages;
+    private final int chunkColumns, chunkRows;
+    private final long chunkBytes;
+    private long budget;
+
+    // Chunks that are loading, resident, or hold parked entities or edited tiles, least recently wanted first.
+    private final LinkedHashMap<Integer, Chunk> chunks = new LinkedHashMap<>(64, 0.75f, true);
+    private final BitSet resident = new BitSet();
+    private final Queue<Chunk> loaded = new ConcurrentLinkedQueue<>();
+    private final List<Chunk> missing = new ArrayList<>();
+    private final Map<Integer, Chunk> evicting = new HashMap<>();
+    private final List<Entity> detached = new ArrayList<>();
+
+    private long residentBytes = 0;
+    private int residentCount = 0;
+    private int loadingCount = 0;
+    private int parkedCount = 0;
+    private long tick = 0;
+    private volatile boolean closed = false;
+
+    private static final class Chunk {
+        final int index;
+        byte state = UNLOADED;
+        long wantedTick = -1;
+        long retryTick = 0;
+        // Written by a loader thread before the chunk goes on the loaded queue.
+        int[][] tiles;
+        RuntimeException failure;
+        List<Entity> parked;
+
+        Chunk(int index) {
+            this.index = index;
+        }
+    }
+
+    public ChunkStreamer(Level level, ChunkSource source, TileSet tileSet, long budget) {
+        this.level = level;
+        this.source = source;
+        this.tileSet = tileSet;
+        this.budget = budget;
+
+        int width = source.getWidth();
+        int height = source.getHeight();
+        this.chunkColumns = (width + CHUNK_TILES - 1) / CHUNK_TILES;
+        this.chunkRows = (height + CHUNK_TILES - 1) / CHUNK_TILES;
+        this.chunkBytes = (long) source.getLayerCount() * CHUNK_TILES * CHUNK_TILES * Integer.BYTES;
+
+        layers = new TileLayer[source.getLayerCount()];
+        storages = new ChunkedTileStorage[layers.length];
+        for (int i = 0; i < layers.length; i++) {
+            storages[i] = new ChunkedTileStorage(width, height, CHUNK_TILES);
+            layers[i] = new TileLayer(source.getLayerName(i), width, height, source.getLayerType(i), tileSet, storages[i]);
+        }
+    }
+
+    public TileLayer[] getLayers() { return layers.clone(); }
+
+    public long getBudget() { return budget; }
+    public void setBudget(long budget) { this.budget = budget; }
+
+    public int getResidentChunkCount() { return residentCount; }
+    public int getParkedEntityCount() { return parkedCount; }
+
+    // Loads the chunks under a screen centered on the point on the calling thread, and parks every
+    // entity outside of them. For the first frame of a level.
+    public void prime(double centerX, double centerY) {
+        Game game = level.getGameState().getGame();
+        int left = (int) Math.floor(centerX) - game.getScreenWidth() / 2;
+        int top = (int) Math.floor(centerY) - game.getScreenHeight() / 2;
+
+        tick++;
+        collectMissing(left, top, game.getScreenWidth(), game.getScreenHeight());
+        for (Chunk chunk : missing) {
+            if (chunk.tiles == null) chunk.tiles = read(chunk.index);
+            install(chunk);
+        }
+        parkEntitiesOutsideResidentChunks();
+        publish();
+    }
+
+    public void update() {
+        tick++;
+        installLoaded();
+
+        Game game = level.getGameState().getGame();
+        GameCamera camera = game.getCamera();
+        collectMissing((int) Math.floor(camera.getX()), (int) Math.floor(camera.getY()), game.getScreenWidth(), game.getScreenHeight());
+        for (Chunk chunk : missing) {
+            load(chunk);
+        }
+
+        evictOverBudget();
+        publish();
+    }
+
+    // Stops installing loads, chunks still loading are dropped.
+    public void close() {
+        closed = true;
+    }
+
+    // Marks the chunks under the view and its margin as wanted and collects the ones that are not
+    // resident, nearest to the center of the view first.
+    private void collectMissing(int left, int top, int viewWidth, int viewHeight) {
+        int chunkWidth = CHUNK_TILES * tileSet.getTileWidth();
+        int chunkHeight = CHUNK_TILES * tileSet.getTileHeight();
+        int startX = Math.max(0, Math.floorDiv(left, chunkWidth) - LOAD_MARGIN);
+        int endX = Math.min(chunkColumns - 1, Math.floorDiv(left + viewWidth - 1, chunkWidth) + LOAD_MARGIN);
+        int startY = Math.max(0, Math.floorDiv(top, chunkHeight) - LOAD_MARGIN);
+        int endY = Math.min(chunkRows - 1, Math.floorDiv(top + viewHeight - 1, chunkHeight) + LOAD_MARGIN);
+
+        missing.clear();
+        for (int y = startY; y <= endY; y++) {
+            for (int x = startX; x <= endX; x++) {
+                int index = y * chunkColumns + x;
+                Chunk chunk = chunks.get(index);
+                if (chunk == null) {
+                    chunk = new Chunk(index);
+                    chunks.put(index, chunk);
+                }
+                chunk.wantedTick = tick;
+                if (chunk.state == UNLOADED && tick >= chunk.retryTick) missing.add(chunk);
+            }
+        }
+
+        double centerX = (left + viewWidth / 2.0) / chunkWidth - 0.5;
+        double centerY = (top + viewHeight / 2.0) / chunkHeight - 0.5;
+        missing.sort((first, second) -> Double.compare(distance(first, centerX, centerY), distance(second, centerX, centerY)));
+    }
+
+    private double distance(Chunk chunk, double centerX, double centerY) {
+        double deltaX = chunk.index % chunkColumns - centerX;
+        double deltaY = chunk.index / chunkColumns - centerY;
+        return deltaX * deltaX + deltaY * deltaY;
+    }
+
+    private void load(Chunk chunk) {
+        // Edited chunks kept their tiles, there is nothing to read.
+        if (chunk.tiles != null) {
+            install(chunk);
+            return;
+        }
+
+        chunk.state = LOADING;
+        loadingCount++;
+        LOADER.execute(() -> {
+            if (closed) return;
+            try {
+                chunk.tiles = read(chunk.index);
+            } catch (RuntimeException exception) {
+                chunk.failure = exception;
+            }
+            loaded.add(chunk);
+        });
+    }
+
+    private int[][] read(int index) {
+        int x = (index % chunkColumns) * CHUNK_TILES;
+        int y = (index / chunkColumns) * CHUNK_TILES;
+        int[][] tiles = new int[layers.length][];
+        for (int layer = 0; layer < layers.length; layer++) {
+            tiles[layer] = new int[CHUNK_TILES * CHUNK_TILES];
+            source.readTiles(layer, x, y, CHUNK_TILES, CHUNK_TILES, tiles[layer]);
+        }
+        return tiles;
+    }
+
+    private void installLoaded() {
+        Chunk chunk;
+        while ((chunk = loaded.poll()) != null) {
+            loadingCount--;
+            if (chunk.failure != null) {
+                LOGGER.error("Failed to load chunk {}, {}, retrying in {} ticks.",
+                        chunk.index % chunkColumns, chunk.index / chunkColumns, RETRY_TICKS, chunk.failure);
+                chunk.failure = null;
+                chunk.state = UNLOADED;
+                chunk.retryTick = tick + RETRY_TICKS;
+                continue;
+            }
+            install(chunk);
+        }
+    }
+
+    private void install(Chunk chunk) {
+        for (int layer = 0; layer < layers.length; layer++) {
+            storages[layer].install(chunk.index, chunk.tiles[layer]);
+        }
+        chunk.tiles = null;
+        chunk.state = RESIDENT;
+        resident.set(chunk.index);
+        residentCount++;
+        residentBytes += chunkBytes;
+        invalidate(chunk.index);
+
+        if (chunk.parked != null) {
+            EntityManager entityManager = level.getEntityManager();
+            for (Entity entity : chunk.parked) {
+                entityManager.addEntity(entity);
+            }
+            parkedCount -= chunk.parked.size();
+            chunk.parked = null;
+        }
+    }
+
+    private void evictOverBudget() {
+        if (residentBytes <= budget) return;
+
+        // Wanted chunks were touched this tick, so they all come after the chunks that may go.
+        long remaining = residentBytes;
+        evicting.clear();
+        Iterator<Chunk> iterator = chunks.values().iterator();
+        while (remaining > budget && iterator.hasNext()) {
+            Chunk chunk = iterator.next();
+            if (chunk.wantedTick == tick) break;
+            if (chunk.state != RESIDENT) continue;
+            evicting.put(chunk.index, chunk);
+            remaining -= chunkBytes;
+        }
+        if (evicting.isEmpty()) return;
+
+        for (Chunk chunk : evicting.values()) {
+            boolean edited = false;
+            int[][] tiles = new int[layers.length][];
+            for (int layer = 0; layer < layers.length; layer++) {
+                edited |= storages[layer].isModified(chunk.index);
+                tiles[layer] = storages[layer].evict(chunk.index);
+            }
+            chunk.tiles = edited ? tiles : null;
+            chunk.state = UNLOADED;
+            resident.clear(chunk.index);
+            residentCount--;
+            residentBytes -= chunkBytes;
+            invalidate(chunk.index);
+        }
+
+        parkEntitiesOutsideResidentChunks();
+
+        for (Chunk chunk : evicting.values()) {
+            if (chunk.tiles == null && chunk.parked == null) chunks.remove(chunk.index);
+        }
+        evicting.clear();
+    }
+
+    private void parkEntitiesOutsideResidentChunks() {
+        int chunkWidth = CHUNK_TILES * tileSet.getTileWidth();
+        int chunkHeight = CHUNK_TILES * tileSet.getTileHeight();
+
+        detached.clear();
+        level.getEntityManager().detachEntities(entity -> {
+            int index = chunkIndexAt(entity, chunkWidth, chunkHeight);
+            return index >= 0 && !resident.get(index);
+        }, detached);
+
+        for (Entity entity : detached) {
+            int index = chunkIndexAt(entity, chunkWidth, chunkHeight);
+            Chunk chunk = chunks.get(index);
+            if (chunk == null) {
+                chunk = new Chunk(index);
+                chunks.put(index, chunk);
+            }
+            if (chunk.parked == null) chunk.parked = new ArrayList<>();
+            chunk.parked.add(entity);
+        }
+        parkedCount += detached.size();
+        detached.clear();
+    }
+
+    // Entities belong to the chunk under their position, -1 outside the level.
+    private int chunkIndexAt(Entity entity, int chunkWidth, int chunkHeight) {
+        int x = (int) Math.floor(entity.position.x / chunkWidth);
+        int y = (int) Math.floor(entity.position.y / chunkHeight);
+        if (x < 0 || x >= chunkColumns || y < 0 || y >= chunkRows) return -1;
+        return y * chunkColumns + x;
+    }
+
+    private void invalidate(int index) {
+        int x = (index % chunkColumns) * CHUNK_TILES;
+        int y = (index / chunkColumns) * CHUNK_TILES;
+        for (TileLayer layer : layers) {
+            layer.invalidateTiles(x, y, x + CHUNK_TILES, y + CHUNK_TILES);
+        }
+    }
+
+    private void publish() {
+        MetricsRegistry metrics = level.getGameState().getGame().getMetrics();
+        metrics.setGauge(MetricGauge.CHUNKS_RESIDENT, residentCount);
+        metrics.setGauge(MetricGauge.CHUNKS_LOADING, loadingCount);
+        metrics.setGauge(MetricGauge.ENTITIES_PARKED, parkedCount);
+    }
+}
@@ -0,0 +1,82 @@
+package aragon.game.level;
+
+import java.util.BitSet;
+
+// Tile ids held per square chunk, for streamed levels. Chunks that are not resident read as -1 and drop
+// writes. Each resident chunk is a full chunkSize * chunkSize array, edge chunks are padded with -1.
+final class ChunkedTileStorage implements TileStorage {
+    private final int width, height;
+    private final int chunkSize;
+    private final int chunkColumns;
+    private final int[][] chunks;
+    private final BitSet modified = new BitSet();
+
+    ChunkedTileStorage(int width, int height, int chunkSize) {
+        if ((long) width * height > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Levels hold at most " + Integer.MAX_VALUE + " tiles per layer, not " + (long) width * height);
+        }
+        this.width = width;
+        this.height = height;
+        this.chunkSize = chunkSize;
+        this.chunkColumns = (width + chunkSize - 1) / chunkSize;
+        this.chunks = new int[chunkColumns * ((height + chunkSize - 1) / chunkSize)][];
+    }
+
+    @Override
+    public int size() { return width * height; }
+
+    @Override
+    public int get(int index) {
+        int x = index % width;
+        int y = index / width;
+        int[] chunk = chunks[(y / chunkSize) * chunkColumns + x / chunkSize];
+        return chunk == null ? -1 : chunk[(y % chunkSize) * chunkSize + x % chunkSize];
+    }
+
+    @Override
+    public void set(int index, int tileId) {
+        int x = index % width;
+        int y = index / width;
+        int chunkIndex = (y / chunkSize) * chunkColumns + x / chunkSize;
+        int[] chunk = chunks[chunkIndex];
+        if (chunk == null) return;
+        chunk[(y % chunkSize) * chunkSize + x % chunkSize] = tileId;
+        modified.set(chunkIndex);
+    }
+
+    @Override
+    public boolean isLoaded(int index) {
+        int x = index % width;
+        int y = index / width;
+        return chunks[(y / chunkSize) * chunkColumns + x / chunkSize] != null;
+    }
+
+    @Override
+    public TileStorage copyOnWrite() {
+        ChunkedTileStorage copy = new ChunkedTileStorage(width, height, chunkSize);
+        for (int i = 0; i < chunks.length; i++) {
+            if (chunks[i] != null) copy.chunks[i] = chunks[i].clone();
+        }
+        copy.modified.or(modified);
+        return copy;
+    }
+
+    void install(int chunkIndex, int[] tileIds) {
+        if (tileIds.length != chunkSize * chunkSize) {
+            throw new IllegalArgumentException("Chunk holds " + tileIds.length + " tiles, expected " + chunkSize * chunkSize);
+        }
+        chunks[chunkIndex] = tileIds;
+    }
+
+    // The ids of the chunk, null when it was not resident.
+    int[] evict(int chunkIndex) {
+        int[] tileIds = chunks[chunkIndex];
+        chunks[chunkIndex] = null;
+        return tileIds;
+    }
+
+    // True once a tile of the chunk was changed after it was installed.
+    boolean isModified(int chunkIndex) {
+        return modified.get(chunkIndex);
+    }
+}
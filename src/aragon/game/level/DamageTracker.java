@@ -0,0 +1,93 @@
+package aragon.game.level;
+
+import java.awt.Rectangle;
+
+// World space regions that changed since the last frame, for partial redraws.
+// Overlapping regions are merged, past MAX_REGIONS the region that grows least absorbs the new one.
+public class DamageTracker {
+    private static final int MAX_REGIONS = 16;
+
+    private final int[] left = new int[MAX_REGIONS];
+    private final int[] top = new int[MAX_REGIONS];
+    private final int[] right = new int[MAX_REGIONS];
+    private final int[] bottom = new int[MAX_REGIONS];
+    private int count = 0;
+
+    private boolean enabled = false;
+    private boolean everything = false;
+
+    public boolean isEnabled() { return enabled; }
+
+    // Recording starts with the next change, callers redraw everything when enabling.
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        clear();
+    }
+
+    public void add(double x, double y, double width, double height) {
+        if (!enabled) return;
+        addBounds((int) Math.floor(x), (int) Math.floor(y), (int) Math.ceil(x + width), (int) Math.ceil(y + height));
+    }
+
+    public void addBounds(int regionLeft, int regionTop, int regionRight, int regionBottom) {
+        if (!enabled || everything || regionRight <= regionLeft || regionBottom <= regionTop) return;
+
+        for (int i = 0; i < count; i++) {
+            if (regionLeft <= right[i] && regionRight >= left[i] && regionTop <= bottom[i] && regionBottom >= top[i]) {
+                union(i, regionLeft, regionTop, regionRight, regionBottom);
+                return;
+            }
+        }
+
+        if (count < MAX_REGIONS) {
+            left[count] = regionLeft;
+            top[count] = regionTop;
+            right[count] = regionRight;
+            bottom[count] = regionBottom;
+            count++;
+            return;
+        }
+
+        int best = 0;
+        long bestGrowth = Long.MAX_VALUE;
+        for (int i = 0; i < count; i++) {
+            long merged = (long) (Math.max(right[i], regionRight) - Math.min(left[i], regionLeft)) *
+                    (Math.max(bottom[i], regionBottom) - Math.min(top[i], regionTop));
+            long growth = merged - (long) (right[i] - left[i]) * (bottom[i] - top[i]);
+            if (growth < bestGrowth) {
+                bestGrowth = growth;
+                best = i;
+            }
+        }
+        union(best, regionLeft, regionTop, regionRight, regionBottom);
+    }
+
+    private void union(int index, int regionLeft, int regionTop, int regionRight, int regionBottom) {
+        left[index] = Math.min(left[index], regionLeft);
+        top[index] = Math.min(top[index], regionTop);
+        right[index] = Math.max(right[index], regionRight);
+        bottom[index] = Math.max(bottom[index], regionBottom);
+    }
+
+    // For changes that affect the whole view, like a layer turning invisible.
+    public void addEverything() {
+        if (!enabled) return;
+        everything = true;
+        count = 0;
+    }
+
+    public boolean isEverything() { return everything; }
+    public boolean isEmpty() { return !everything && count == 0; }
+    public int size() { return count; }
+
+    public Rectangle getRegion(int index, Rectangle out) {
+        if (index >= count) throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + count);
+        out.setBounds(left[index], top[index], right[index] - left[index], bottom[index] - top[index]);
+        return out;
+    }
+
+    public void clear() {
+        count = 0;
+        everything = false;
+    }
+}
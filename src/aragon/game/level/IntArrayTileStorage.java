@@ -0,0 +1,34 @@
+package aragon.game.level;
+
+import java.util.Arrays;
+
+final class IntArrayTileStorage implements TileStorage {
+    private final int[] tileIds;
+    private final int size;
+
+    IntArrayTileStorage(int[] tileIds, int size) {
+        if (size < 0 || size > tileIds.length) {
+            throw new IllegalArgumentException("Size " + size + " out of bounds for " + tileIds.length + " tiles");
+        }
+        this.tileIds = tileIds;
+        this.size = size;
+    }
+
+    @Override
+    public int size() { return size; }
+
+    @Override
+    public int get(int index) {
+        return tileIds[index];
+    }
+
+    @Override
+    public void set(int index, int tileId) {
+        tileIds[index] = tileId;
+    }
+
+    @Override
+    public TileStorage copyOnWrite() {
+        return new IntArrayTileStorage(Arrays.copyOf(tileIds, size), size);
+    }
+}
@@ -3,18 +3,23 @@ package aragon.game.level;
 import aragon.game.assets.AssetManager;
 import aragon.game.assets.data.LevelData;
 import aragon.game.assets.data.TileLayerData;
+import aragon.game.assets.data.TileLayerGrid;
 import aragon.game.entity.EntityManager;
 import aragon.game.entity.interactable.Door;
 import aragon.game.entity.item.Item;
 import aragon.game.entity.player.Player;
 import aragon.game.entity.statics.Tree;
 import aragon.game.main.states.State;
+import aragon.game.metrics.MetricPhase;
+import aragon.game.metrics.MetricsRegistry;
 import aragon.game.util.Vector2;
 
 import java.awt.Graphics;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 
 public class Level {
     private static final AssetManager ASSET_MANAGER = AssetManager.get();
@@ -23,11 +28,21 @@ public class Level {
     private int width, height;
     private TileSet tileSet;
     private final List<TileLayer> layers;
+    // Lowest layer of each type, rebuilt whenever the layer list changes.
+    private final Map<TileLayerType, TileLayer> layersByType = new EnumMap<>(TileLayerType.class);
 
     private final EntityManager entityManager;
+    private final MetricsRegistry metrics;
+    private final DamageTracker damage = new DamageTracker();
+
+    // Streamed levels keep only the chunks around the camera resident, off unless -Daragon.level.streaming=true.
+    private boolean streaming = Boolean.getBoolean("aragon.level.streaming");
+    private long streamingBudget = Integer.getInteger("aragon.level.streaming.budget", 64) * (1L << 20);
+    private ChunkStreamer streamer;
 
     public Level(State gameState) {
         this.gameState = gameState;
+        this.metrics = gameState.getGame().getMetrics();
         int tileSize = gameState.getGame().getTileSize();
         layers = new ArrayList<>();
         entityManager = new EntityManager(this);
@@ -52,7 +67,7 @@ public class Level {
 
     public void loadLevelData(LevelData levelData) {
         if (levelData == null) return;
-        layers.clear();
+        clearLayers();
 
         width = levelData.getWidth();
         height = levelData.getHeight();
@@ -69,11 +84,33 @@ public class Level {
 
         tileSet = ASSET_MANAGER.getTileSet(levelData.getTileSet());
 
-        for (TileLayerData layerData : levelData.getMap()) {
-            createLayer(layerData.getName(), layerData.getResolvedType(), layerData.getData());
+        if (streaming && tileSet != null) {
+            streamer = new ChunkStreamer(this, new LevelDataChunkSource(levelData), tileSet, streamingBudget);
+            for (TileLayer layer : streamer.getLayers()) {
+                registerLayer(layer);
+            }
+        } else {
+            for (TileLayerData layerData : levelData.getMap()) {
+                createLayer(layerData.getName(), layerData.getResolvedType(), layerData.getData());
+            }
         }
 
-        entityManager.getPlayer().position = new Vector2(spawnX, spawnY);
+        entityManager.getPlayer().setPosition(spawnX, spawnY);
+        if (streamer != null) streamer.prime(spawnX, spawnY);
+    }
+
+    // Applies to the next loaded level.
+    public boolean isStreaming() { return streaming; }
+    public void setStreaming(boolean streaming) { this.streaming = streaming; }
+
+    public long getStreamingBudget() { return streamingBudget; }
+    public void setStreamingBudget(long streamingBudget) {
+        this.streamingBudget = streamingBudget;
+        if (streamer != null) streamer.setBudget(streamingBudget);
+    }
+
+    public ChunkStreamer getStreamer() {
+        return streamer;
     }
 
     public State getGameState() {
@@ -88,9 +125,23 @@ public class Level {
         return tileSet;
     }
 
+    public DamageTracker getDamageTracker() {
+        return damage;
+    }
+
     private void registerLayer(TileLayer layer) {
+        layer.setDamageTracker(damage);
         layers.add(layer);
         Collections.sort(layers);
+        indexLayers();
+        damage.addEverything();
+    }
+
+    private void indexLayers() {
+        layersByType.clear();
+        for (TileLayer layer : layers) {
+            layersByType.putIfAbsent(layer.getLayerType(), layer);
+        }
     }
 
     public void addLayer(String name, TileLayerType type) {
@@ -99,6 +150,20 @@ public class Level {
         registerLayer(newLayer);
     }
 
+    public void createLayer(String name, TileLayerType type, TileLayerGrid grid) {
+        if (tileSet == null) return;
+        TileStorage storage = grid.getStorage();
+        TileLayer newLayer;
+        if (storage.isMapped() && grid.getRowWidth(width) == width && storage.size() == width * height) {
+            // Mapped level files back the layer directly, the layer only copies them when a tile changes.
+            newLayer = new TileLayer(name, width, height, type, tileSet, storage.copyOnWrite());
+        } else {
+            newLayer = new TileLayer(name, width, height, type, tileSet);
+            newLayer.setTiles(storage, grid.getRowWidth(width));
+        }
+        registerLayer(newLayer);
+    }
+
     public void createLayer(String name, TileLayerType type, List<List<Integer>> map) {
         if (tileSet == null) return;
         TileLayer newLayer = new TileLayer(name, width, height, type, tileSet);
@@ -119,20 +184,39 @@ public class Level {
 
     public TileLayer getLayerByType(TileLayerType layerType) {
         if (tileSet == null) return null;
-        return layers.stream().filter(layer -> layerType.equals(layer.getLayerType())).findFirst().orElse(null);
+        return layersByType.get(layerType);
+    }
+
+    // Bakes every layer again, after the tiles or their sprites were reloaded.
+    public void refreshTiles() {
+        for (TileLayer layer : layers) {
+            layer.invalidateTiles(0, 0, width, height);
+        }
+        damage.addEverything();
     }
 
     private void clearLayers() {
+        if (streamer != null) {
+            streamer.close();
+            streamer = null;
+        }
         layers.clear();
+        layersByType.clear();
+        damage.addEverything();
     }
 
     public Tile getTileAt(int x, int y, TileLayerType type) {
         if (tileSet == null) return null;
-        TileLayer layer = getLayerByType(type);
+        TileLayer layer = layersByType.get(type);
         if (layer == null) return null;
         return tileSet.getTile(layer.getTileId(x, y));
     }
 
+    public boolean isSolidAt(int x, int y, TileLayerType type) {
+        TileLayer layer = layersByType.get(type);
+        return layer != null && layer.isSolidAt(x, y);
+    }
+
     public int getWidth() {
         return width;
     }
@@ -142,13 +226,20 @@ public class Level {
     }
 
     public void update() {
+        if (streamer != null) streamer.update();
         entityManager.update();
     }
 
     public void render(Graphics graphics) {
+        long levelStart = metrics.begin();
         for (TileLayer layer : layers) {
             layer.render(graphics, this);
         }
+        metrics.end(MetricPhase.TILE_LAYER_RENDER, levelStart);
+
+        long entitiesStart = metrics.begin();
         entityManager.render(graphics);
+        metrics.end(MetricPhase.ENTITY_RENDER, entitiesStart);
+        metrics.end(MetricPhase.LEVEL_RENDER, levelStart);
     }
 }
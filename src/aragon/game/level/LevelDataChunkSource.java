@@ -0,0 +1,55 @@
+package aragon.game.level;
+
+import aragon.game.assets.data.LevelData;
+import aragon.game.assets.data.TileLayerData;
+import aragon.game.assets.data.TileLayerGrid;
+
+import java.util.List;
+
+// Streams the layers of loaded level data. Mapped level files stay on disk until a chunk is read.
+public class LevelDataChunkSource implements ChunkSource {
+    private final int width, height;
+    private final List<TileLayerData> layers;
+    private final TileLayerType[] types;
+
+    public LevelDataChunkSource(LevelData levelData) {
+        this.width = levelData.getWidth();
+        this.height = levelData.getHeight();
+        this.layers = List.copyOf(levelData.getMap());
+        this.types = new TileLayerType[layers.size()];
+        for (int i = 0; i < types.length; i++) {
+            types[i] = layers.get(i).getResolvedType();
+        }
+    }
+
+    @Override
+    public int getWidth() { return width; }
+
+    @Override
+    public int getHeight() { return height; }
+
+    @Override
+    public int getLayerCount() { return layers.size(); }
+
+    @Override
+    public String getLayerName(int layer) { return layers.get(layer).getName(); }
+
+    @Override
+    public TileLayerType getLayerType(int layer) { return types[layer]; }
+
+    @Override
+    public void readTiles(int layer, int x, int y, int readWidth, int readHeight, int[] out) {
+        TileLayerGrid grid = layers.get(layer).getData();
+        TileStorage source = grid.getStorage();
+        int rowWidth = grid.getRowWidth(width);
+        for (int row = 0; row < readHeight; row++) {
+            int tileY = y + row;
+            for (int column = 0; column < readWidth; column++) {
+                int tileX = x + column;
+                int index = tileY * rowWidth + tileX;
+                boolean inside = tileX >= 0 && tileX < width && tileX < rowWidth && tileY >= 0 && tileY < height && index < source.size();
+                out[row * readWidth + column] = inside ? source.get(index) : -1;
+            }
+        }
+    }
+}
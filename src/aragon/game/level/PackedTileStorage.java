@@ -0,0 +1,84 @@
+package aragon.game.level;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+final class PackedTileStorage implements TileStorage {
+    private ByteBuffer buffer;
+    private int bytesPerTile;
+    private final int size;
+    private int maxTileId;
+    private boolean mapped;
+
+    PackedTileStorage(ByteBuffer buffer, int bytesPerTile, int size, boolean mapped) {
+        this.maxTileId = TileStorage.maxTileId(bytesPerTile);
+        if ((long) size * bytesPerTile > buffer.capacity()) {
+            throw new IllegalArgumentException(size + " tiles of " + bytesPerTile + " bytes do not fit in " + buffer.capacity() + " bytes");
+        }
+        this.buffer = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        this.bytesPerTile = bytesPerTile;
+        this.size = size;
+        this.mapped = mapped;
+    }
+
+    @Override
+    public int size() { return size; }
+
+    @Override
+    public boolean isMapped() { return mapped; }
+
+    @Override
+    public TileStorage copyOnWrite() {
+        if (buffer.isReadOnly()) return new PackedTileStorage(buffer.duplicate(), bytesPerTile, size, mapped);
+        return new PackedTileStorage(copy(buffer), bytesPerTile, size, false);
+    }
+
+    private static ByteBuffer copy(ByteBuffer source) {
+        ByteBuffer copy = ByteBuffer.allocate(source.capacity());
+        copy.put(source.duplicate().clear());
+        return copy.clear();
+    }
+
+    @Override
+    public int get(int index) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        return switch (bytesPerTile) {
+            case 1 -> (buffer.get(index) & 0xFF) - 1;
+            case 2 -> (buffer.getShort(index << 1) & 0xFFFF) - 1;
+            default -> buffer.getInt(index << 2);
+        };
+    }
+
+    @Override
+    public void set(int index, int tileId) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        if (tileId < -1) throw new IllegalArgumentException("Tile ids below -1 can not be stored: " + tileId);
+        if (tileId > maxTileId) {
+            widen(tileId <= TileStorage.maxTileId(2) ? 2 : 4);
+        } else if (buffer.isReadOnly()) {
+            buffer = copy(buffer).order(ByteOrder.LITTLE_ENDIAN);
+            mapped = false;
+        }
+        switch (bytesPerTile) {
+            case 1 -> buffer.put(index, (byte) (tileId + 1));
+            case 2 -> buffer.putShort(index << 1, (short) (tileId + 1));
+            default -> buffer.putInt(index << 2, tileId);
+        }
+    }
+
+    // Repacks into a wider heap buffer, for ids past the width the layer was saved with.
+    private void widen(int wider) {
+        ByteBuffer widened = ByteBuffer.allocate(size * wider).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < size; i++) {
+            int tileId = get(i);
+            switch (wider) {
+                case 2 -> widened.putShort(i << 1, (short) (tileId + 1));
+                default -> widened.putInt(i << 2, tileId);
+            }
+        }
+        buffer = widened;
+        bytesPerTile = wider;
+        maxTileId = TileStorage.maxTileId(wider);
+        mapped = false;
+    }
+}
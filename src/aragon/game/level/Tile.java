@@ -1,17 +1,15 @@
 package aragon.game.level;
 
 import aragon.game.graphics.Sprite;
-import aragon.game.util.Vector2;
 
 import java.awt.*;
-import java.awt.image.BufferedImage;
 import java.util.HashMap;
 import java.util.Map;
 
 public class Tile {
     private final int id;
     private final TileType type;
-    private final BufferedImage image;
+    private final Sprite sprite;
     private final int tileWidth;
     private final int tileHeight;
     private final Map<String, Object> properties;
@@ -21,12 +19,13 @@ public class Tile {
         this.tileWidth = tileWidth;
         this.tileHeight = tileHeight;
         this.type = type;
-        this.image = sprite.getImage();
+        this.sprite = sprite;
         this.properties = new HashMap<>();
     }
 
     public int getId() { return id; }
     public TileType getType() { return type; }
+    public Sprite getSprite() { return sprite; }
 
     public void setProperty(String key, Object value) {
         properties.put(key, value);
@@ -48,17 +47,12 @@ public class Tile {
         return defaultValue;
     }
 
-    public void render(Graphics graphics, Level level, int x, int y) {
-        if (image == null) return;
-        Vector2 cameraPosition = level.getGameState().getGame().getCamera().getPosition();
-
-        graphics.drawImage(
-                image,
-                (int) (x - cameraPosition.x),
-                (int) (y - cameraPosition.y),
-                tileWidth,
-                tileHeight,
-                null
-        );
+    public void render(Graphics graphics, int x, int y) {
+        if (sprite == null) return;
+        if (sprite.getWidth() == tileWidth && sprite.getHeight() == tileHeight) {
+            sprite.draw(graphics, x, y);
+        } else {
+            sprite.draw(graphics, x, y, tileWidth, tileHeight);
+        }
     }
 }
@@ -1,10 +1,20 @@
 package aragon.game.level;
 
+import aragon.game.assets.ImageLoader;
+import aragon.game.main.GameCamera;
 import aragon.game.util.Vector2;
 
 import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
 
 public class TileLayer implements Comparable<TileLayer> {
+    public static final int CHUNK_SIZE = 16;
+    private static final byte CHUNK_DIRTY = 0;
+    private static final byte CHUNK_BAKED = 1;
+    private static final byte CHUNK_EMPTY = 2;
+    private static final int SOLID_WORDS = CHUNK_SIZE * CHUNK_SIZE / 64;
+
     private final String name;
     private final int width, height;
     private final TileSet tileSet;
@@ -13,9 +23,32 @@ public class TileLayer implements Comparable<TileLayer> {
     private boolean visible;
     private float opacity;
     private int zOrder;
-    private final int[][] tiles;
+
+    // Row-major tile ids, -1 for no tile, and per chunk a bit per tile that is set when the tile is solid.
+    // Solid bits are filled per chunk on first use, so mapped layers open without reading every tile.
+    // Tiles that are not loaded count as solid.
+    private final TileStorage tiles;
+    private final long[][] solid;
+
+    // Pre-rendered chunks.
+    private final int chunkColumns, chunkRows;
+    private final BufferedImage[] chunkImages;
+    private final byte[] chunkStates;
+    private int[] residentChunks = new int[64];
+    private int residentChunkCount;
+
+    private DamageTracker damage;
+    private final Rectangle clip = new Rectangle();
 
     public TileLayer(String name, int width, int height, TileLayerType type, TileSet tileSet) {
+        this(name, width, height, type, tileSet, TileStorage.allocate(width * height));
+    }
+
+    // Uses the storage as is, no copy. It has to hold width * height tiles.
+    public TileLayer(String name, int width, int height, TileLayerType type, TileSet tileSet, TileStorage tiles) {
+        if (tiles.size() != width * height) {
+            throw new IllegalArgumentException("Tile storage holds " + tiles.size() + " tiles, expected " + width * height);
+        }
         this.name = name;
         this.width = width;
         this.height = height;
@@ -25,17 +58,13 @@ public class TileLayer implements Comparable<TileLayer> {
         this.visible = type.isVisible();
         this.opacity = 1f;
         this.zOrder = type.getZOrder();
-        this.tiles = new int[height][width];
-
-        initializeEmptyLayer();
-    }
+        this.tiles = tiles;
 
-    private void initializeEmptyLayer() {
-        for (int y = 0; y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                tiles[y][x] = -1;
-            }
-        }
+        this.chunkColumns = (width + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        this.chunkRows = (height + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        this.chunkImages = new BufferedImage[chunkColumns * chunkRows];
+        this.chunkStates = new byte[chunkColumns * chunkRows];
+        this.solid = new long[chunkColumns * chunkRows][];
     }
 
     private boolean isValidPosition(int x, int y) {
@@ -44,54 +73,210 @@ public class TileLayer implements Comparable<TileLayer> {
 
     public int getTileId(int x, int y) {
         if (isValidPosition(x, y)) {
-            return tiles[y][x];
+            return tiles.get(y * width + x);
         }
         return -1;
     }
 
     public void setTileId(int x, int y, int tileId) {
-        if (isValidPosition(x, y)) {
-            tiles[y][x] = tileId;
+        int index = y * width + x;
+        if (isValidPosition(x, y) && tiles.get(index) != tileId) {
+            tiles.set(index, tileId);
+            int chunk = (y / CHUNK_SIZE) * chunkColumns + (x / CHUNK_SIZE);
+            if (solid[chunk] != null) setSolid(solid[chunk], x, y, tileSet.isSolid(tileId) || !tiles.isLoaded(index));
+            chunkStates[chunk] = CHUNK_DIRTY;
+            if (damage != null) {
+                damage.addBounds(x * tileSet.getTileWidth(), y * tileSet.getTileHeight(),
+                        (x + 1) * tileSet.getTileWidth(), (y + 1) * tileSet.getTileHeight());
+            }
+        }
+    }
+
+    // Bulk copy from row-major ids, rows of rowWidth ids. Ids outside the layer are ignored.
+    public void setTiles(TileStorage source, int rowWidth) {
+        if (rowWidth <= 0) throw new IllegalArgumentException("Row width must be positive: " + rowWidth);
+
+        int length = source.size();
+        int rows = Math.min(height, (length + rowWidth - 1) / rowWidth);
+        for (int y = 0; y < height; y++) {
+            int start = y * rowWidth;
+            int columns = y < rows ? Math.min(width, Math.min(rowWidth, length - start)) : 0;
+            for (int x = 0; x < width; x++) {
+                tiles.set(y * width + x, x < columns ? source.get(start + x) : -1);
+            }
+        }
+
+        Arrays.fill(solid, null);
+        Arrays.fill(chunkStates, CHUNK_DIRTY);
+        if (damage != null) damage.addEverything();
+    }
+
+    // The tiles in the rectangle changed behind the layer's back, like a streamed chunk loading.
+    void invalidateTiles(int startX, int startY, int endX, int endY) {
+        startX = Math.max(0, startX);
+        startY = Math.max(0, startY);
+        endX = Math.min(width, endX);
+        endY = Math.min(height, endY);
+        if (endX <= startX || endY <= startY) return;
+
+        for (int y = startY / CHUNK_SIZE; y <= (endY - 1) / CHUNK_SIZE; y++) {
+            for (int x = startX / CHUNK_SIZE; x <= (endX - 1) / CHUNK_SIZE; x++) {
+                int chunk = y * chunkColumns + x;
+                solid[chunk] = null;
+                chunkStates[chunk] = CHUNK_DIRTY;
+            }
+        }
+        if (damage != null) {
+            damage.addBounds(startX * tileSet.getTileWidth(), startY * tileSet.getTileHeight(),
+                    endX * tileSet.getTileWidth(), endY * tileSet.getTileHeight());
         }
     }
 
     public boolean hasTileAt(int x, int y) {
-        return isValidPosition(x, y) && tiles[y][x] != -1;
+        return isValidPosition(x, y) && tiles.get(y * width + x) != -1;
     }
 
     public void render(Graphics graphics, Level level) {
-        if (!visible) return;
+        if (!visible || chunkImages.length == 0) return;
+
+        GameCamera camera = level.getGameState().getGame().getCamera();
+        int cameraX = (int) Math.floor(camera.getX());
+        int cameraY = (int) Math.floor(camera.getY());
+        int chunkWidth = CHUNK_SIZE * tileSet.getTileWidth();
+        int chunkHeight = CHUNK_SIZE * tileSet.getTileHeight();
 
-        Vector2 cameraPosition = level.getGameState().getGame().getCamera().getPosition();
+        int startX = Math.max(0, Math.floorDiv(cameraX, chunkWidth));
+        int endX = Math.min(chunkColumns - 1, Math.floorDiv(cameraX + level.getGameState().getGame().getScreenWidth() - 1, chunkWidth));
+        int startY = Math.max(0, Math.floorDiv(cameraY, chunkHeight));
+        int endY = Math.min(chunkRows - 1, Math.floorDiv(cameraY + level.getGameState().getGame().getScreenHeight() - 1, chunkHeight));
 
-        int startX = (int) Math.max(0, cameraPosition.x / tileSet.getTileWidth()-1);
-        int endX = (int) Math.min(width, (cameraPosition.x + level.getGameState().getGame().getScreenWidth()) / tileSet.getTileWidth()+1);
-        int startY = (int) Math.max(0, cameraPosition.y / tileSet.getTileHeight()-1);
-        int endY = (int) Math.min(height, (cameraPosition.y + level.getGameState().getGame().getScreenHeight()) / tileSet.getTileHeight()+1);
+        evictChunksOutside(startX - 1, endX + 1, startY - 1, endY + 1);
 
-        // TODO: Apply opacity to Sprites.
+        // Partial redraws clip to the damaged region, only the chunks under it need drawing.
+        // The rectangle comes back untouched when there is no clip.
+        clip.setBounds(0, 0, level.getGameState().getGame().getScreenWidth(), level.getGameState().getGame().getScreenHeight());
+        graphics.getClipBounds(clip);
+        startX = Math.max(startX, Math.floorDiv(cameraX + clip.x, chunkWidth));
+        endX = Math.min(endX, Math.floorDiv(cameraX + clip.x + clip.width - 1, chunkWidth));
+        startY = Math.max(startY, Math.floorDiv(cameraY + clip.y, chunkHeight));
+        endY = Math.min(endY, Math.floorDiv(cameraY + clip.y + clip.height - 1, chunkHeight));
+
+        Composite composite = null;
+        if (opacity < 1f && graphics instanceof Graphics2D graphics2D) {
+            composite = graphics2D.getComposite();
+            graphics2D.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, opacity));
+        }
 
+        for (int y = startY; y <= endY; y++) {
+            for (int x = startX; x <= endX; x++) {
+                int index = y * chunkColumns + x;
+                if (chunkStates[index] == CHUNK_DIRTY) bakeChunk(x, y);
+                if (chunkStates[index] == CHUNK_EMPTY) continue;
+
+                graphics.drawImage(chunkImages[index], x * chunkWidth - cameraX, y * chunkHeight - cameraY, null);
+            }
+        }
+
+        if (composite != null) {
+            ((Graphics2D) graphics).setComposite(composite);
+        }
+    }
+
+    private void bakeChunk(int chunkX, int chunkY) {
+        int index = chunkY * chunkColumns + chunkX;
+        int tileWidth = tileSet.getTileWidth();
+        int tileHeight = tileSet.getTileHeight();
+
+        int startX = chunkX * CHUNK_SIZE;
+        int endX = Math.min(width, startX + CHUNK_SIZE);
+        int startY = chunkY * CHUNK_SIZE;
+        int endY = Math.min(height, startY + CHUNK_SIZE);
+
+        BufferedImage image = chunkImages[index];
+        if (image == null) {
+            image = ImageLoader.createCompatibleImage((endX - startX) * tileWidth, (endY - startY) * tileHeight);
+            chunkImages[index] = image;
+            if (residentChunkCount == residentChunks.length) residentChunks = Arrays.copyOf(residentChunks, residentChunkCount * 2);
+            residentChunks[residentChunkCount++] = index;
+        }
+
+        Graphics2D graphics = image.createGraphics();
+        graphics.setComposite(AlphaComposite.Clear);
+        graphics.fillRect(0, 0, image.getWidth(), image.getHeight());
+        graphics.setComposite(AlphaComposite.SrcOver);
+
+        boolean empty = true;
         for (int y = startY; y < endY; y++) {
             for (int x = startX; x < endX; x++) {
-                int tileId = tiles[y][x];
-                if (tileId != -1) {
-                    Tile tile = tileSet.getTile(tileId);
-                    if (tile != null) {
-                        tile.render(graphics, level,x * tileSet.getTileWidth(), y * tileSet.getTileHeight());
-                    }
+                int tileId = tiles.get(y * width + x);
+                if (tileId == -1) continue;
+
+                Tile tile = tileSet.getTile(tileId);
+                if (tile != null) {
+                    tile.render(graphics, (x - startX) * tileWidth, (y - startY) * tileHeight);
+                    empty = false;
                 }
             }
         }
+        graphics.dispose();
+
+        chunkStates[index] = empty ? CHUNK_EMPTY : CHUNK_BAKED;
+    }
+
+    private void evictChunksOutside(int startX, int endX, int startY, int endY) {
+        int kept = 0;
+        for (int i = 0; i < residentChunkCount; i++) {
+            int index = residentChunks[i];
+            int x = index % chunkColumns;
+            int y = index / chunkColumns;
+
+            if (x >= startX && x <= endX && y >= startY && y <= endY) {
+                residentChunks[kept++] = index;
+            } else {
+                chunkImages[index].flush();
+                chunkImages[index] = null;
+                chunkStates[index] = CHUNK_DIRTY;
+            }
+        }
+        residentChunkCount = kept;
     }
 
     public boolean isSolidAt(int x, int y) {
-        int tileId = getTileId(x, y);
-        if (tileId == -1) return false;
+        if (!isValidPosition(x, y)) return false;
+        int chunk = (y / CHUNK_SIZE) * chunkColumns + (x / CHUNK_SIZE);
+        long[] bits = solid[chunk];
+        if (bits == null) bits = indexSolidChunk(chunk);
+        int bit = (y % CHUNK_SIZE) * CHUNK_SIZE + (x % CHUNK_SIZE);
+        return (bits[bit >>> 6] & (1L << bit)) != 0;
+    }
 
-        Tile tile = tileSet.getTile(tileId);
-        return tile != null && tile.getType().isSolid();
+    private long[] indexSolidChunk(int chunk) {
+        long[] bits = new long[SOLID_WORDS];
+        int startX = (chunk % chunkColumns) * CHUNK_SIZE;
+        int startY = (chunk / chunkColumns) * CHUNK_SIZE;
+        int endX = Math.min(width, startX + CHUNK_SIZE);
+        int endY = Math.min(height, startY + CHUNK_SIZE);
+        for (int y = startY; y < endY; y++) {
+            for (int x = startX; x < endX; x++) {
+                int index = y * width + x;
+                setSolid(bits, x, y, tileSet.isSolid(tiles.get(index)) || !tiles.isLoaded(index));
+            }
+        }
+        solid[chunk] = bits;
+        return bits;
     }
 
+    private static void setSolid(long[] bits, int x, int y, boolean isSolid) {
+        int bit = (y % CHUNK_SIZE) * CHUNK_SIZE + (x % CHUNK_SIZE);
+        if (isSolid) {
+            bits[bit >>> 6] |= 1L << bit;
+        } else {
+            bits[bit >>> 6] &= ~(1L << bit);
+        }
+    }
+
+    public TileStorage getStorage() { return tiles; }
+
     public Vector2 getPositionAt(int x, int y, float scale) {
         return new Vector2(x * tileSet.getTileWidth() * scale, y * tileSet.getTileHeight() * scale);
     }
@@ -101,15 +286,24 @@ public class TileLayer implements Comparable<TileLayer> {
     public int getHeight() { return height; }
 
     public boolean isVisible() { return visible; }
-    public void setVisible(boolean visible) { this.visible = visible; }
+    public void setVisible(boolean visible) {
+        this.visible = visible;
+        if (damage != null) damage.addEverything();
+    }
 
     public float getOpacity() { return opacity; }
     public void setOpacity(float opacity) {
         this.opacity = Math.max(0.0f, Math.min(1.0f, opacity));
+        if (damage != null) damage.addEverything();
     }
 
     public int getZOrder() { return zOrder; }
-    public void setZOrder(int zOrder) { this.zOrder = zOrder; }
+    public void setZOrder(int zOrder) {
+        this.zOrder = zOrder;
+        if (damage != null) damage.addEverything();
+    }
+
+    void setDamageTracker(DamageTracker damage) { this.damage = damage; }
 
     public TileLayerType getLayerType() { return type; }
 
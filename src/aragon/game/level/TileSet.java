@@ -1,31 +1,107 @@
 package aragon.game.level;
 
+import aragon.game.graphics.Sprite;
 import aragon.game.graphics.SpriteSheet;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
 
 public class TileSet {
-    private final SpriteSheet sheet;
+    private static final int INITIAL_CAPACITY = 16;
+    private static final TileType[] TYPES = TileType.values();
+
+    private static final byte SOLID = 1;
+    private static final byte WALKABLE = 1 << 1;
+
+    private SpriteSheet sheet;
     private final int tileWidth;
     private final int tileHeight;
-    private final Map<Integer, Tile> tiles;
+
+    // Tile ids are dense from 0, so tiles and their flags are looked up by index. Missing ids hold null and -1.
+    private Tile[] tiles = new Tile[INITIAL_CAPACITY];
+    private byte[] types = new byte[INITIAL_CAPACITY];
+    private byte[] flags = new byte[INITIAL_CAPACITY];
+    // Where each tile sits in the sheet, in sprites, so a reloaded sheet can be cut again.
+    private int[] sheetX = new int[INITIAL_CAPACITY];
+    private int[] sheetY = new int[INITIAL_CAPACITY];
+    private int tileCount = 0;
 
     public TileSet(SpriteSheet sheet, int tileWidth, int tileHeight) {
         this.sheet = sheet;
         this.tileWidth = tileWidth;
         this.tileHeight = tileHeight;
-        this.tiles = new HashMap<>();
+        Arrays.fill(types, (byte) -1);
     }
 
     public void addNewTile(int id, TileType type, int x, int y) {
-        tiles.put(id, new Tile(id, tileWidth, tileHeight, type, sheet.getSprite(x, y)));
+        if (id < 0) throw new IllegalArgumentException("Tile id must not be negative: " + id);
+        if (id >= tiles.length) grow(id + 1);
+
+        Sprite sprite = sheet.getSprite(x, y).getScaled(tileWidth, tileHeight);
+        tiles[id] = new Tile(id, tileWidth, tileHeight, type, sprite);
+        types[id] = (byte) type.ordinal();
+        flags[id] = (byte) ((type.isSolid() ? SOLID : 0) | (type.isWalkable() ? WALKABLE : 0));
+        sheetX[id] = x;
+        sheetY[id] = y;
+        tileCount = Math.max(tileCount, id + 1);
     }
 
     public int getTileWidth() { return tileWidth; }
     public int getTileHeight() { return tileHeight; }
 
+    // Ids are below this.
+    public int getTileCount() { return tileCount; }
+
     public Tile getTile(int id) {
-        return tiles.get(id);
+        return id >= 0 && id < tileCount ? tiles[id] : null;
+    }
+
+    public TileType getType(int id) {
+        if (id < 0 || id >= tileCount || types[id] < 0) return null;
+        return TYPES[types[id]];
+    }
+
+    public boolean isSolid(int id) {
+        return id >= 0 && id < tileCount && (flags[id] & SOLID) != 0;
+    }
+
+    public boolean isWalkable(int id) {
+        return id >= 0 && id < tileCount && (flags[id] & WALKABLE) != 0;
+    }
+
+    public SpriteSheet getSheet() { return sheet; }
+
+    // Cuts the tile sprites again after the sheet was reloaded in place. Tiles keep their sprite objects, which
+    // take over the new pixels.
+    public void reloadSprites() {
+        for (int id = 0; id < tileCount; id++) {
+            if (tiles[id] == null) continue;
+            tiles[id].getSprite().replaceWith(sheet.getSprite(sheetX[id], sheetY[id]).getScaled(tileWidth, tileHeight));
+        }
+    }
+
+    // Takes over the tiles of a reloaded set, so layers and levels holding this set see the new tiles.
+    public void replaceWith(TileSet source) {
+        if (source.tileWidth != tileWidth || source.tileHeight != tileHeight) {
+            throw new IllegalArgumentException(String.format("Tile size changed from %dx%d to %dx%d.",
+                    tileWidth, tileHeight, source.tileWidth, source.tileHeight));
+        }
+        sheet = source.sheet;
+        tiles = source.tiles;
+        types = source.types;
+        flags = source.flags;
+        sheetX = source.sheetX;
+        sheetY = source.sheetY;
+        tileCount = source.tileCount;
+    }
+
+    private void grow(int minimum) {
+        int capacity = Math.max(minimum, tiles.length * 2);
+        int oldCapacity = tiles.length;
+        tiles = Arrays.copyOf(tiles, capacity);
+        types = Arrays.copyOf(types, capacity);
+        flags = Arrays.copyOf(flags, capacity);
+        sheetX = Arrays.copyOf(sheetX, capacity);
+        sheetY = Arrays.copyOf(sheetY, capacity);
+        Arrays.fill(types, oldCapacity, capacity, (byte) -1);
     }
 }
@@ -0,0 +1,48 @@
+package aragon.game.level;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+// Row-major tile ids backing a layer, -1 for no tile. Heap arrays by default, or packed ids in a
+// buffer, which can be a mapped level file.
+public interface TileStorage {
+    int size();
+    int get(int index);
+    void set(int index, int tileId);
+
+    // True while the ids are read straight from a mapped file.
+    default boolean isMapped() { return false; }
+
+    // False for tiles of a streamed chunk that is not resident, those read as -1.
+    default boolean isLoaded(int index) { return true; }
+
+    // Storage with the same ids whose writes do not reach this one. Mapped storage shares the mapping and
+    // copies it to the heap on its first write.
+    TileStorage copyOnWrite();
+
+    static TileStorage allocate(int size) {
+        int[] tileIds = new int[size];
+        Arrays.fill(tileIds, -1);
+        return new IntArrayTileStorage(tileIds, size);
+    }
+
+    static TileStorage wrap(int[] tileIds, int size) {
+        return new IntArrayTileStorage(tileIds, size);
+    }
+
+    // Ids take 1, 2 or 4 bytes. Narrow ids are stored plus one, so 0 is no tile. A read-only buffer,
+    // like a read-only mapping, is copied to the heap on the first write, and ids too wide for the
+    // buffer repack it wider.
+    static TileStorage wrap(ByteBuffer buffer, int bytesPerTile, int size, boolean mapped) {
+        return new PackedTileStorage(buffer, bytesPerTile, size, mapped);
+    }
+
+    static int maxTileId(int bytesPerTile) {
+        return switch (bytesPerTile) {
+            case 1 -> 0xFE;
+            case 2 -> 0xFFFE;
+            case 4 -> Integer.MAX_VALUE;
+            default -> throw new IllegalArgumentException("Tiles take 1, 2 or 4 bytes, not " + bytesPerTile);
+        };
+    }
+}
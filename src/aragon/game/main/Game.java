@@ -2,17 +2,30 @@ package aragon.game.main;
 
 import aragon.game.assets.AssetLoader;
 import aragon.game.assets.AssetManager;
+import aragon.game.input.InputActionEventListener;
 import aragon.game.input.InputLoader;
 import aragon.game.input.InputLoadingException;
 import aragon.game.input.InputManager;
+import aragon.game.level.DamageTracker;
+import aragon.game.level.Level;
+import aragon.game.main.loop.FixedStepLoop;
+import aragon.game.main.loop.GameLoop;
 import aragon.game.main.states.GameState;
 import aragon.game.main.states.State;
+import aragon.game.metrics.MetricGauge;
+import aragon.game.metrics.MetricPhase;
+import aragon.game.metrics.MetricsOverlay;
+import aragon.game.metrics.MetricsRegistry;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.awt.Graphics;
 import java.awt.Color;
+import java.awt.Rectangle;
 import java.awt.image.BufferStrategy;
+import java.awt.image.BufferedImage;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 public class Game implements Runnable {
     private final Logger LOGGER = LogManager.getLogger(Game.class);
@@ -23,28 +36,55 @@ public class Game implements Runnable {
 
     private GameCamera camera;
 
+    private final MetricsRegistry metrics;
+    private final MetricsOverlay metricsOverlay;
+
     private InputLoader inputLoader;
     private AssetLoader assetLoader;
 
     private BufferStrategy bufferStrategy;
     private Graphics graphics;
 
-    private State gameState;
+    private BufferedImage offscreenBuffer;
+
+    // Partial redraws, off unless enabled or -Daragon.render.partial=true is passed. Frames are kept in an
+    // image and only the regions the level reports as damaged are repainted.
+    private boolean partialRedraw = Boolean.getBoolean("aragon.render.partial");
+    private BufferedImage frameBuffer;
+    private Level lastLevel;
+    private double lastCameraX, lastCameraY;
+    private boolean lastOverlayVisible;
+    private final Rectangle damageRegion = new Rectangle();
+
+    private volatile State state;
     private Thread gameThread;
+    private volatile boolean running;
+    private GameLoop loop;
+    // Work handed over by other threads, run between ticks.
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
 
     public String title;
 
     private final int tileSize;
     private int width, height;
+    private final boolean headless;
 
     private final int updatesPerSecond = 60;
     private final int framesPerSecond = 30;
 
     public Game(String title, int tileSize, int width, int height) {
+        this(title, tileSize, width, height, false);
+    }
+
+    public Game(String title, int tileSize, int width, int height, boolean headless) {
         this.title = title;
         this.width = width;
         this.height = height;
         this.tileSize = tileSize;
+        this.headless = headless;
+        this.loop = new FixedStepLoop(updatesPerSecond, framesPerSecond);
+        this.metrics = new MetricsRegistry(this);
+        this.metricsOverlay = new MetricsOverlay(metrics);
     }
 
     public int getWidth() {
@@ -69,13 +109,70 @@ public class Game implements Runnable {
         return display;
     }
     public GameCamera getCamera() { return camera; }
+    public MetricsRegistry getMetrics() { return metrics; }
+    public MetricsOverlay getMetricsOverlay() { return metricsOverlay; }
+
+    public boolean isHeadless() { return headless; }
+    public boolean isRunning() { return running; }
+
+    public State getState() { return state; }
+    public void setState(State state) { this.state = state; }
+
+    public BufferedImage getOffscreenBuffer() { return offscreenBuffer; }
+    public void setOffscreenRendering(boolean enabled) {
+        if (!headless) {
+            throw new IllegalStateException("Offscreen rendering is only available in headless mode.");
+        }
+        offscreenBuffer = enabled ? new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE) : null;
+    }
+
+    public boolean isPartialRedraw() { return partialRedraw; }
+    public void setPartialRedraw(boolean partialRedraw) {
+        this.partialRedraw = partialRedraw;
+        lastLevel = null;
+    }
 
     public AssetManager getAssetManager() { return assetManager; }
     public InputManager getInputManager() { return inputManager; }
 
-    private void init() throws InputLoadingException {
-        LOGGER.info("Initializing display.");
-        display = new GameDisplay(this, title, width, height);
+    public GameLoop getLoop() { return loop; }
+    public synchronized void setLoop(GameLoop loop) {
+        if (gameThread != null) {
+            throw new IllegalStateException("Cannot replace the game loop while the game is running.");
+        }
+        this.loop = loop;
+    }
+
+    public double getTicksPerSecond() { return loop.getStats().getTicksPerSecond(); }
+    public double getFramesPerSecond() { return loop.getStats().getFramesPerSecond(); }
+
+    private void init() throws Exception {
+        if (headless) {
+            // Managers and loaders are process-wide singletons, build headless worlds one at a time.
+            synchronized (Game.class) {
+                build();
+                assetLoader.initializeOnce();
+                start();
+            }
+            return;
+        }
+
+        build();
+        assetLoader.initializeAsync()
+                .thenRun(this::start)
+                .exceptionally(exception -> {
+                    LOGGER.error("Asset loading failed.", exception);
+                    return null;
+                });
+    }
+
+    private void build() throws InputLoadingException {
+        if (headless) {
+            LOGGER.info("Running headless, no display.");
+        } else {
+            LOGGER.info("Initializing display.");
+            display = new GameDisplay(this, title, width, height);
+        }
         LOGGER.info("Building managers.");
         inputManager = InputManager.build(this);
         assetManager = AssetManager.build();
@@ -87,101 +184,214 @@ public class Game implements Runnable {
         inputLoader = InputLoader.build(this);
         assetLoader = AssetLoader.build(this);
 
-        // Load assets.
+        // Load inputs, assets are loaded by init.
         LOGGER.info("Initializing loaders.");
         inputLoader.initialize();
-        assetLoader.initializeAsync()
-                .thenRun(() -> {
-                    // Start.
-                    gameState = new GameState(this);
-                    State.setState(gameState);
-                })
-                .exceptionally(exception -> {
-                    LOGGER.error("Asset loading failed.", exception);
-                    return null;
-                });
+
+        if (!headless) {
+            inputManager.addActionListener("debug_overlay", new InputActionEventListener() {
+                @Override
+                public void onActionTriggered(String actionName) {
+                    metricsOverlay.toggle();
+                }
+            });
+        }
+    }
+
+    private void start() {
+        setState(new GameState(this));
+    }
+
+    // Runs the task on the game thread before the next tick, nothing updates or draws while it runs. Runs it
+    // right away when the game is not running.
+    public void runOnGameThread(Runnable task) {
+        if (!running) {
+            task.run();
+            return;
+        }
+        tasks.add(task);
+    }
+
+    private void runTasks() {
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                LOGGER.error("Game thread task failed.", e);
+            }
+        }
     }
 
     private void update() {
-        if (State.getState() != null) State.getState().update();
-        inputManager.update();
+        long tickStart = metrics.beginTick();
+        runTasks();
+
+        long start = metrics.begin();
+        if (state != null) state.update();
+        metrics.end(MetricPhase.STATE_UPDATE, start);
+
+        if (!headless) {
+            start = metrics.begin();
+            inputManager.update();
+            metrics.end(MetricPhase.INPUT_UPDATE, start);
+        }
+
+        metrics.endTick(tickStart);
     }
 
     private void render() {
+        if (headless) {
+            renderOffscreen();
+            return;
+        }
+
         bufferStrategy = display.getCanvas().getBufferStrategy();
         if (bufferStrategy == null) {
             display.getCanvas().createBufferStrategy(3);
             return;
         }
+
+        if (partialRedraw) {
+            if (frameBuffer == null) frameBuffer = display.getCanvas().getGraphicsConfiguration().createCompatibleImage(width, height);
+            // Nothing changed, the last presented frame is still correct.
+            if (!renderFrame(frameBuffer) && !bufferStrategy.contentsLost()) return;
+
+            graphics = bufferStrategy.getDrawGraphics();
+            graphics.drawImage(frameBuffer, 0, 0, null);
+            bufferStrategy.show();
+            graphics.dispose();
+            return;
+        }
+
         graphics = bufferStrategy.getDrawGraphics();
         // Render.
+        long start = metrics.begin();
         graphics.setColor(Color.BLACK);
         graphics.fillRect(0, 0, width, height);
-        if (State.getState() != null) State.getState().render(graphics);
+        if (state != null) state.render(graphics);
+        metricsOverlay.render(graphics);
+        metrics.end(MetricPhase.FRAME, start);
         // Dispose.
         bufferStrategy.show();
         graphics.dispose();
     }
 
-    @Override
-    public void run() {
-        double updateInterval = 1_000_000_000 / (double)updatesPerSecond;
-        double renderInterval = 1_000_000_000 / (double)framesPerSecond;
+    private void renderOffscreen() {
+        if (offscreenBuffer == null) return;
+        if (partialRedraw) {
+            renderFrame(offscreenBuffer);
+            return;
+        }
 
-        double renderDelta = 0, updateDelta = 0;
-        int frames = 0, ticks = 0;
-        long lastTime = System.nanoTime();
+        long start = metrics.begin();
+        Graphics graphics = offscreenBuffer.createGraphics();
+        graphics.setColor(Color.BLACK);
+        graphics.fillRect(0, 0, width, height);
+        if (state != null) state.render(graphics);
+        metricsOverlay.render(graphics);
+        graphics.dispose();
+        metrics.end(MetricPhase.FRAME, start);
+    }
 
-        long timer = System.currentTimeMillis();
+    // Repaints what changed in a frame kept from the last call, returns false when nothing did.
+    // Camera movement shifts every pixel, so it redraws the whole frame.
+    private boolean renderFrame(BufferedImage image) {
+        long start = metrics.begin();
+        Level level = state == null ? null : state.getLevel();
+        DamageTracker damage = level == null ? null : level.getDamageTracker();
+        boolean overlayVisible = metricsOverlay.isVisible();
+
+        boolean full = damage == null || !damage.isEnabled() || damage.isEverything() || level != lastLevel ||
+                camera.getX() != lastCameraX || camera.getY() != lastCameraY || overlayVisible != lastOverlayVisible;
+        lastLevel = level;
+        lastCameraX = camera.getX();
+        lastCameraY = camera.getY();
+        lastOverlayVisible = overlayVisible;
+
+        if (!full) {
+            // The overlay text changes on its own, its area is repainted every frame it shows.
+            Rectangle overlay = metricsOverlay.getDrawnBounds();
+            if (!overlay.isEmpty()) {
+                damage.add(overlay.x + camera.getX(), overlay.y + camera.getY(), overlay.width, overlay.height);
+            }
+            if (damage.isEmpty()) {
+                metrics.setGauge(MetricGauge.REDRAWN_PIXELS, 0);
+                return false;
+            }
+        }
+
+        Graphics graphics = image.createGraphics();
+        long redrawn = 0;
+        if (full) {
+            graphics.setColor(Color.BLACK);
+            graphics.fillRect(0, 0, width, height);
+            if (state != null) state.render(graphics);
+            redrawn = (long) width * height;
+            if (damage != null) damage.setEnabled(true);
+        } else {
+            for (int i = 0; i < damage.size(); i++) {
+                damage.getRegion(i, damageRegion);
+                // Entities truncate their screen position, a pixel of slack covers the rounding.
+                int left = Math.max(0, (int) Math.floor(damageRegion.x - camera.getX()) - 1);
+                int top = Math.max(0, (int) Math.floor(damageRegion.y - camera.getY()) - 1);
+                int right = Math.min(width, (int) Math.ceil(damageRegion.x + damageRegion.width - camera.getX()) + 1);
+                int bottom = Math.min(height, (int) Math.ceil(damageRegion.y + damageRegion.height - camera.getY()) + 1);
+                if (right <= left || bottom <= top) continue;
+
+                graphics.setClip(left, top, right - left, bottom - top);
+                graphics.setColor(Color.BLACK);
+                graphics.fillRect(left, top, right - left, bottom - top);
+                state.render(graphics);
+                redrawn += (long) (right - left) * (bottom - top);
+            }
+            graphics.setClip(null);
+            damage.clear();
+        }
+        metricsOverlay.render(graphics);
+        graphics.dispose();
 
+        metrics.setGauge(MetricGauge.REDRAWN_PIXELS, redrawn);
+        metrics.end(MetricPhase.FRAME, start);
+        return true;
+    }
+
+    @Override
+    public void run() {
         try {
             init();
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
 
-        while (gameThread != null) {
-            long currentTime = System.nanoTime();
-            updateDelta += (currentTime - lastTime) / updateInterval;
-            renderDelta += (currentTime - lastTime) / renderInterval;
-            lastTime = currentTime;
-
-            if (updateDelta >= 1) {
-                update();
-                ticks++;
-                updateDelta--;
-            }
-
-            if (renderDelta >= 1) {
-                render();
-                frames++;
-                renderDelta--;
-            }
-
-            if (System.currentTimeMillis() - timer > 1_000) {
-                frames = 0;
-                ticks = 0;
-                timer += 1_000;
-            }
-        }
+        loop.run(() -> running, this::update, this::render);
 
         abort();
     }
 
     public synchronized void launch() {
         if (gameThread != null) return;
-        gameThread = new Thread(this);
+        running = true;
+        gameThread = new Thread(this, title);
         gameThread.start();
     }
 
-    public synchronized void abort() {
-        if (gameThread == null) return;
-        assetLoader.cleanup();
-        try {
-            gameThread.join();
+    public void abort() {
+        Thread thread;
+        synchronized (this) {
+            if (gameThread == null) return;
+            running = false;
+            thread = gameThread;
             gameThread = null;
+        }
+
+        try {
+            if (thread != Thread.currentThread()) thread.join();
         } catch (InterruptedException e) {
             LOGGER.fatal(e);
+            Thread.currentThread().interrupt();
         }
+        // Assets are shared by every world of the process, whoever started the worlds frees them once all stopped.
+        if (assetLoader != null) assetLoader.detach(this);
     }
 }
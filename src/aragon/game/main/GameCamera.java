@@ -8,53 +8,44 @@ import aragon.game.util.Vector2;
 
 public class GameCamera {
     private final Game game;
-    private Vector2 position = Vector2.zero;
+    private final Vector2 position = new Vector2();
 
     public GameCamera(Game game) {
         this.game = game;
     }
 
     public Vector2 getPosition() { return new Vector2(position); }
+    public double getX() { return position.x; }
+    public double getY() { return position.y; }
 
     private void applyLimits() {
-        Level level = State.getState().getLevel();
-        if (level == null) return;
+        State state = game.getState();
+        if (state == null || state.getLevel() == null) return;
+        Level level = state.getLevel();
         TileSet levelTileSet = level.getTileSet();
+        if (levelTileSet == null) return;
 
         int cameraXLimit = (level.getWidth()*levelTileSet.getTileWidth()) - game.getScreenWidth();
         int cameraYLimit = (level.getHeight()*levelTileSet.getTileHeight()) - game.getScreenHeight();
 
-        if (position.x < 0 && position.y < 0) {
-            position = Vector2.zero;
-        } else if (position.x < 0) {
-            position = new Vector2(0, position.y);
-        } else if (position.y < 0) {
-            position = new Vector2(position.x, 0);
-        }
-
-        if (position.x > cameraXLimit && position.y > cameraYLimit) {
-            position = new Vector2(cameraXLimit, cameraYLimit);
-        } else if (position.x > cameraXLimit) {
-            position = new Vector2(cameraXLimit, position.y);
-        } else if (position.y > cameraYLimit) {
-            position = new Vector2(position.x, cameraYLimit);
-        }
+        double x = Math.max(0, position.x);
+        double y = Math.max(0, position.y);
+        if (x > cameraXLimit) x = cameraXLimit;
+        if (y > cameraYLimit) y = cameraYLimit;
+        position.set(x, y);
     }
 
     public void move(int x, int y) {
-        position = position.add(new Vector2(x, y));
+        position.addInPlace(x, y);
         applyLimits();
     }
 
     public void setCameraSubject(Entity entity) {
-        Vector2 entitySize = entity.getSize();
         int screenWidth = game.getScreenWidth();
         int screenHeight = game.getScreenHeight();
-        position = entity.position.subtract(
-                new Vector2(
-                        (double) screenWidth/2 - entitySize.x/2,
-                        (double) screenHeight/2 - entitySize.y/2
-                )
+        position.set(
+                entity.position.x - ((double) screenWidth/2 - entity.getWidth()/2),
+                entity.position.y - ((double) screenHeight/2 - entity.getHeight()/2)
         );
         applyLimits();
     }
@@ -0,0 +1,48 @@
+package aragon.game.main;
+
+import aragon.game.assets.AssetLoader;
+import aragon.game.main.loop.UnthrottledLoop;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class HeadlessRunner {
+    private static final Logger LOGGER = LogManager.getLogger(HeadlessRunner.class);
+
+    public static void main(String[] args) throws InterruptedException {
+        System.setProperty("java.awt.headless", "true");
+
+        int worlds = args.length > 0 ? Integer.parseInt(args[0]) : 1;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        boolean unthrottled = args.length < 3 || Boolean.parseBoolean(args[2]);
+        boolean offscreen = args.length > 3 && Boolean.parseBoolean(args[3]);
+
+        List<Game> instances = new ArrayList<>();
+        for (int i = 0; i < worlds; i++) {
+            Game instance = new Game("Headless world " + i, 64, 256 * 4, 192 * 4, true);
+            if (unthrottled) instance.setLoop(new UnthrottledLoop(offscreen ? 30 : 0));
+            if (offscreen) instance.setOffscreenRendering(true);
+            instance.launch();
+            instances.add(instance);
+        }
+
+        for (int second = 1; second <= seconds; second++) {
+            Thread.sleep(1_000);
+            double totalTicks = 0;
+            for (Game instance : instances) {
+                totalTicks += instance.getTicksPerSecond();
+            }
+            LOGGER.info("{}s: {} worlds, {} ticks/s total, {} ticks/s per world.",
+                    second, worlds, String.format("%.0f", totalTicks), String.format("%.0f", totalTicks / worlds));
+        }
+
+        for (Game instance : instances) {
+            instance.abort();
+        }
+        // The worlds share one set of assets, free it once none of them runs.
+        AssetLoader assetLoader = AssetLoader.get();
+        if (assetLoader != null) assetLoader.close();
+    }
+}
@@ -0,0 +1,87 @@
+package aragon.game.main.loop;
+
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+public class FixedStepLoop implements GameLoop {
+    private static final int DEFAULT_MAX_CATCH_UP_TICKS = 5;
+    private static final long DEFAULT_SPIN_WINDOW = 1_000_000L;
+
+    private final long updateInterval;
+    private final long renderInterval;
+    private final int maxCatchUpTicks;
+    private final long spinWindow;
+
+    private final LoopStats stats = new LoopStats();
+
+    public FixedStepLoop(int updatesPerSecond, int framesPerSecond) {
+        this(updatesPerSecond, framesPerSecond, DEFAULT_MAX_CATCH_UP_TICKS, DEFAULT_SPIN_WINDOW);
+    }
+
+    public FixedStepLoop(int updatesPerSecond, int framesPerSecond, int maxCatchUpTicks, long spinWindowNanos) {
+        if (updatesPerSecond <= 0 || framesPerSecond <= 0) {
+            throw new IllegalArgumentException("Loop rates must be positive.");
+        }
+        this.updateInterval = 1_000_000_000L / updatesPerSecond;
+        this.renderInterval = 1_000_000_000L / framesPerSecond;
+        this.maxCatchUpTicks = Math.max(1, maxCatchUpTicks);
+        this.spinWindow = Math.max(0, spinWindowNanos);
+    }
+
+    @Override
+    public void run(BooleanSupplier running, Runnable update, Runnable render) {
+        long now = System.nanoTime();
+        long nextUpdate = now;
+        long nextRender = now;
+        stats.start(now);
+
+        while (running.getAsBoolean()) {
+            int caughtUp = 0;
+            while (now - nextUpdate >= 0 && caughtUp < maxCatchUpTicks) {
+                update.run();
+                stats.recordTick();
+                nextUpdate += updateInterval;
+                caughtUp++;
+            }
+
+            now = System.nanoTime();
+            // Still behind after the catch-up budget, drop the backlog instead of spiralling.
+            if (now - nextUpdate >= 0) {
+                nextUpdate = now + updateInterval;
+            }
+
+            if (now - nextRender >= 0) {
+                render.run();
+                stats.recordFrame();
+                nextRender += renderInterval;
+
+                now = System.nanoTime();
+                if (now - nextRender >= 0) {
+                    nextRender = now + renderInterval;
+                }
+            }
+
+            stats.sample(now);
+            now = waitUntil(nextUpdate - nextRender < 0 ? nextUpdate : nextRender);
+        }
+    }
+
+    private long waitUntil(long deadline) {
+        long now = System.nanoTime();
+        long remaining = deadline - now;
+
+        while (remaining > 0) {
+            if (remaining > spinWindow) {
+                LockSupport.parkNanos(remaining - spinWindow);
+            } else {
+                Thread.onSpinWait();
+            }
+            now = System.nanoTime();
+            remaining = deadline - now;
+        }
+        return now;
+    }
+
+    @Override
+    public LoopStats getStats() { return stats; }
+}
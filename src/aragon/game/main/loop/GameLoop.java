@@ -0,0 +1,8 @@
+package aragon.game.main.loop;
+
+import java.util.function.BooleanSupplier;
+
+public interface GameLoop {
+    void run(BooleanSupplier running, Runnable update, Runnable render);
+    LoopStats getStats();
+}
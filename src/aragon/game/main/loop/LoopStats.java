@@ -0,0 +1,51 @@
+package aragon.game.main.loop;
+
+public final class LoopStats {
+    private static final long SAMPLE_WINDOW = 1_000_000_000L;
+
+    private long windowStart;
+    private int ticks;
+    private int frames;
+    private long totalTicks;
+    private long totalFrames;
+
+    private volatile double ticksPerSecond;
+    private volatile double framesPerSecond;
+
+    public void start(long now) {
+        windowStart = now;
+        ticks = 0;
+        frames = 0;
+    }
+
+    public void recordTick() {
+        ticks++;
+        totalTicks++;
+    }
+
+    public void recordFrame() {
+        frames++;
+        totalFrames++;
+    }
+
+    public void sample(long now) {
+        long elapsed = now - windowStart;
+        if (elapsed < SAMPLE_WINDOW) return;
+
+        ticksPerSecond = ticks * 1_000_000_000.0 / elapsed;
+        framesPerSecond = frames * 1_000_000_000.0 / elapsed;
+        windowStart = now;
+        ticks = 0;
+        frames = 0;
+    }
+
+    public double getTicksPerSecond() { return ticksPerSecond; }
+    public double getFramesPerSecond() { return framesPerSecond; }
+    public long getTotalTicks() { return totalTicks; }
+    public long getTotalFrames() { return totalFrames; }
+
+    @Override
+    public String toString() {
+        return String.format("LoopStats[ tps: %.1f, fps: %.1f ]", ticksPerSecond, framesPerSecond);
+    }
+}
@@ -0,0 +1,40 @@
+package aragon.game.main.loop;
+
+import java.util.function.BooleanSupplier;
+
+public class UnthrottledLoop implements GameLoop {
+    private final long renderInterval;
+    private final LoopStats stats = new LoopStats();
+
+    public UnthrottledLoop() {
+        this(0);
+    }
+
+    public UnthrottledLoop(int framesPerSecond) {
+        this.renderInterval = framesPerSecond > 0 ? 1_000_000_000L / framesPerSecond : -1;
+    }
+
+    @Override
+    public void run(BooleanSupplier running, Runnable update, Runnable render) {
+        long now = System.nanoTime();
+        long nextRender = now;
+        stats.start(now);
+
+        while (running.getAsBoolean()) {
+            update.run();
+            stats.recordTick();
+
+            now = System.nanoTime();
+            if (renderInterval > 0 && now - nextRender >= 0) {
+                render.run();
+                stats.recordFrame();
+                nextRender = now + renderInterval;
+            }
+
+            stats.sample(now);
+        }
+    }
+
+    @Override
+    public LoopStats getStats() { return stats; }
+}
@@ -6,14 +6,6 @@ import aragon.game.main.Game;
 import java.awt.Graphics;
 
 public abstract class State {
-    private static State currentState = null;
-    public static void setState(State state) {
-        currentState = state;
-    }
-    public static State getState() {
-        return currentState;
-    }
-
     protected Game game;
     protected Level level;
 
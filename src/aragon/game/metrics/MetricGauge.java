@@ -0,0 +1,18 @@
+package aragon.game.metrics;
+
+public enum MetricGauge {
+    ENTITIES_DRAWN("entities.drawn"),
+    ENTITIES_CULLED("entities.culled"),
+    REDRAWN_PIXELS("frame.redrawn.pixels"),
+    CHUNKS_RESIDENT("level.chunks.resident"),
+    CHUNKS_LOADING("level.chunks.loading"),
+    ENTITIES_PARKED("level.entities.parked");
+
+    private final String key;
+
+    MetricGauge(String key) {
+        this.key = key;
+    }
+
+    public String getKey() { return key; }
+}
@@ -0,0 +1,20 @@
+package aragon.game.metrics;
+
+public enum MetricPhase {
+    TICK("tick"),
+    STATE_UPDATE("state.update"),
+    ENTITY_UPDATE("entities.update"),
+    INPUT_UPDATE("input.update"),
+    FRAME("frame"),
+    LEVEL_RENDER("level.render"),
+    TILE_LAYER_RENDER("tiles.render"),
+    ENTITY_RENDER("entities.render");
+
+    private final String key;
+
+    MetricPhase(String key) {
+        this.key = key;
+    }
+
+    public String getKey() { return key; }
+}
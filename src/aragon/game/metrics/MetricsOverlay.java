@@ -0,0 +1,90 @@
+package aragon.game.metrics;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public class MetricsOverlay {
+    private static final long REFRESH_INTERVAL = 250_000_000L;
+    private static final int PADDING = 6;
+
+    private final MetricsRegistry metrics;
+    private final Font font = new Font(Font.MONOSPACED, Font.PLAIN, 12);
+    private final Color background = new Color(0, 0, 0, 170);
+
+    private final List<String> lines = new ArrayList<>();
+    private final Rectangle drawnBounds = new Rectangle();
+    private long nextRefresh = 0;
+    private boolean visible = false;
+
+    public MetricsOverlay(MetricsRegistry metrics) {
+        this.metrics = metrics;
+    }
+
+    public boolean isVisible() { return visible; }
+    public void setVisible(boolean visible) { this.visible = visible; }
+    public void toggle() { visible = !visible; }
+
+    // Screen area covered by the last render, empty when nothing was drawn.
+    public Rectangle getDrawnBounds() { return drawnBounds; }
+
+    public void render(Graphics graphics) {
+        if (!visible) {
+            drawnBounds.setBounds(0, 0, 0, 0);
+            return;
+        }
+
+        // Formatting allocates, so the text only changes a few times per second.
+        long now = System.nanoTime();
+        if (now - nextRefresh >= 0) {
+            refresh(metrics.snapshot());
+            nextRefresh = now + REFRESH_INTERVAL;
+        }
+
+        graphics.setFont(font);
+        FontMetrics fontMetrics = graphics.getFontMetrics();
+        int lineHeight = fontMetrics.getHeight();
+        int width = 0;
+        for (String line : lines) width = Math.max(width, fontMetrics.stringWidth(line));
+
+        drawnBounds.setBounds(0, 0, width + PADDING * 2, lines.size() * lineHeight + PADDING * 2);
+        graphics.setColor(background);
+        graphics.fillRect(drawnBounds.x, drawnBounds.y, drawnBounds.width, drawnBounds.height);
+
+        graphics.setColor(Color.WHITE);
+        int y = PADDING + fontMetrics.getAscent();
+        for (String line : lines) {
+            graphics.drawString(line, PADDING, y);
+            y += lineHeight;
+        }
+    }
+
+    private void refresh(MetricsSnapshot snapshot) {
+        lines.clear();
+        lines.add(String.format("tps %.1f  fps %.1f", snapshot.ticksPerSecond(), snapshot.framesPerSecond()));
+        lines.add(String.format("%-16s %7s %7s %7s %7s", "phase (ms)", "p50", "p95", "p99", "max"));
+        for (Map.Entry<String, RollingWindow.Summary> phase : snapshot.phaseMillis().entrySet()) {
+            RollingWindow.Summary summary = phase.getValue();
+            lines.add(String.format("%-16s %7.3f %7.3f %7.3f %7.3f",
+                    phase.getKey(), summary.p50(), summary.p95(), summary.p99(), summary.max()));
+        }
+
+        Map<String, Long> gauges = snapshot.gauges();
+        lines.add(String.format("entities drawn %d  culled %d",
+                gauges.get(MetricGauge.ENTITIES_DRAWN.getKey()), gauges.get(MetricGauge.ENTITIES_CULLED.getKey())));
+        lines.add(String.format("redrawn %d px", gauges.get(MetricGauge.REDRAWN_PIXELS.getKey())));
+        lines.add(String.format("chunks resident %d  loading %d  parked entities %d",
+                gauges.get(MetricGauge.CHUNKS_RESIDENT.getKey()), gauges.get(MetricGauge.CHUNKS_LOADING.getKey()),
+                gauges.get(MetricGauge.ENTITIES_PARKED.getKey())));
+
+        RollingWindow.Summary allocated = snapshot.allocatedBytesPerTick();
+        lines.add(String.format("alloc/tick p50 %.0f B  max %.0f B", allocated.p50(), allocated.max()));
+        lines.add(String.format("gc %d (%d ms) last second", snapshot.gcCollectionsLastSecond(), snapshot.gcMillisLastSecond()));
+        lines.add(String.format("heap %.1f MB", snapshot.heapUsedBytes() / (1024.0 * 1024.0)));
+    }
+}
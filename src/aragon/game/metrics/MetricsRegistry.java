@@ -0,0 +1,194 @@
+package aragon.game.metrics;
+
+import aragon.game.main.Game;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Timers are recorded from the game thread only, snapshots are meant for that thread too.
+public class MetricsRegistry {
+    private final Logger LOGGER = LogManager.getLogger(MetricsRegistry.class);
+
+    private static final int WINDOW_SIZE = 256;
+    private static final long SECOND = 1_000_000_000L;
+    private static final double NANOS_TO_MILLIS = 1.0 / 1_000_000.0;
+
+    private final Game game;
+    private final RollingWindow[] phases = new RollingWindow[MetricPhase.values().length];
+    private final RollingWindow allocatedPerTick = new RollingWindow(WINDOW_SIZE);
+    private final long[] gauges = new long[MetricGauge.values().length];
+
+    // Allocation counting is a HotSpot extension, fall back to nothing when it is missing.
+    private final com.sun.management.ThreadMXBean allocationBean;
+    private final List<GarbageCollectorMXBean> garbageCollectors = ManagementFactory.getGarbageCollectorMXBeans();
+
+    private long tickAllocationStart;
+
+    private long nextGcSample = 0;
+    private long lastGcCount = 0;
+    private long lastGcMillis = 0;
+    private long gcCollectionsLastSecond = 0;
+    private long gcMillisLastSecond = 0;
+
+    private long reportInterval = 0;
+    private long nextReport = 0;
+    private Path reportFile;
+    private final Gson gson = new GsonBuilder().serializeSpecialFloatingPointValues().create();
+
+    public MetricsRegistry(Game game) {
+        this.game = game;
+        for (int i = 0; i < phases.length; i++) {
+            phases[i] = new RollingWindow(WINDOW_SIZE);
+        }
+
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        if (threadBean instanceof com.sun.management.ThreadMXBean hotspotBean && hotspotBean.isThreadAllocatedMemorySupported()) {
+            hotspotBean.setThreadAllocatedMemoryEnabled(true);
+            allocationBean = hotspotBean;
+        } else {
+            LOGGER.warn("Thread allocation counting is not supported, allocation per tick will read 0.");
+            allocationBean = null;
+        }
+
+        // Start the GC counters from now, so the first second does not include startup collections.
+        sampleGarbageCollection();
+        gcCollectionsLastSecond = 0;
+        gcMillisLastSecond = 0;
+
+        // Periodic reporting, for example -Daragon.metrics.interval=10 -Daragon.metrics.file=metrics.jsonl
+        setReportInterval(Integer.getInteger("aragon.metrics.interval", 0));
+        String file = System.getProperty("aragon.metrics.file");
+        if (file != null) reportFile = Path.of(file);
+    }
+
+    // Timing.
+    public long begin() {
+        return System.nanoTime();
+    }
+
+    public void end(MetricPhase phase, long start) {
+        phases[phase.ordinal()].record(System.nanoTime() - start);
+    }
+
+    // Gauges hold the last value set.
+    public void setGauge(MetricGauge gauge, long value) {
+        gauges[gauge.ordinal()] = value;
+    }
+
+    public long getGauge(MetricGauge gauge) {
+        return gauges[gauge.ordinal()];
+    }
+
+    public long beginTick() {
+        if (allocationBean != null) tickAllocationStart = allocationBean.getCurrentThreadAllocatedBytes();
+        return System.nanoTime();
+    }
+
+    public void endTick(long start) {
+        long now = System.nanoTime();
+        phases[MetricPhase.TICK.ordinal()].record(now - start);
+        if (allocationBean != null) {
+            allocatedPerTick.record(allocationBean.getCurrentThreadAllocatedBytes() - tickAllocationStart);
+        }
+
+        if (now - nextGcSample >= 0) {
+            sampleGarbageCollection();
+            nextGcSample = now + SECOND;
+        }
+
+        if (reportInterval > 0 && now - nextReport >= 0) {
+            report();
+            nextReport = now + reportInterval;
+        }
+    }
+
+    private void sampleGarbageCollection() {
+        long count = 0;
+        long millis = 0;
+        for (GarbageCollectorMXBean collector : garbageCollectors) {
+            count += Math.max(0, collector.getCollectionCount());
+            millis += Math.max(0, collector.getCollectionTime());
+        }
+        gcCollectionsLastSecond = count - lastGcCount;
+        gcMillisLastSecond = millis - lastGcMillis;
+        lastGcCount = count;
+        lastGcMillis = millis;
+    }
+
+    // Reporting.
+    public void setReportInterval(int seconds) {
+        reportInterval = seconds > 0 ? seconds * SECOND : 0;
+        nextReport = System.nanoTime() + reportInterval;
+    }
+
+    public void setReportFile(Path reportFile) {
+        this.reportFile = reportFile;
+    }
+
+    public String toJson() {
+        return gson.toJson(snapshot());
+    }
+
+    private void report() {
+        String json = toJson();
+        LOGGER.info("Metrics: {}", json);
+        if (reportFile == null) return;
+
+        try {
+            Files.writeString(reportFile, json + System.lineSeparator(), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException exception) {
+            LOGGER.error("Failed to write metrics to {}, file reporting disabled.", reportFile, exception);
+            reportFile = null;
+        }
+    }
+
+    public MetricsSnapshot snapshot() {
+        Map<String, RollingWindow.Summary> phaseMillis = new LinkedHashMap<>();
+        for (MetricPhase phase : MetricPhase.values()) {
+            phaseMillis.put(phase.getKey(), phases[phase.ordinal()].summarize(NANOS_TO_MILLIS));
+        }
+
+        Map<String, Long> gaugeValues = new LinkedHashMap<>();
+        for (MetricGauge gauge : MetricGauge.values()) {
+            gaugeValues.put(gauge.getKey(), gauges[gauge.ordinal()]);
+        }
+
+        Runtime runtime = Runtime.getRuntime();
+        return new MetricsSnapshot(
+                System.currentTimeMillis(),
+                game.getTicksPerSecond(),
+                game.getFramesPerSecond(),
+                phaseMillis,
+                gaugeValues,
+                allocatedPerTick.summarize(1),
+                gcCollectionsLastSecond,
+                gcMillisLastSecond,
+                runtime.totalMemory() - runtime.freeMemory()
+        );
+    }
+
+    public RollingWindow.Summary getPhase(MetricPhase phase) {
+        return phases[phase.ordinal()].summarize(NANOS_TO_MILLIS);
+    }
+
+    public void reset() {
+        for (RollingWindow phase : phases) phase.clear();
+        allocatedPerTick.clear();
+        Arrays.fill(gauges, 0);
+    }
+}
@@ -0,0 +1,15 @@
+package aragon.game.metrics;
+
+import java.util.Map;
+
+public record MetricsSnapshot(
+        long timestamp,
+        double ticksPerSecond,
+        double framesPerSecond,
+        Map<String, RollingWindow.Summary> phaseMillis,
+        Map<String, Long> gauges,
+        RollingWindow.Summary allocatedBytesPerTick,
+        long gcCollectionsLastSecond,
+        long gcMillisLastSecond,
+        long heapUsedBytes
+) {}
@@ -0,0 +1,62 @@
+package aragon.game.metrics;
+
+import java.util.Arrays;
+
+public final class RollingWindow {
+    private final long[] samples;
+    private final long[] sorted;
+    private int next = 0;
+    private int size = 0;
+    private long totalCount = 0;
+
+    public RollingWindow(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Window capacity must be positive: " + capacity);
+        }
+        this.samples = new long[capacity];
+        this.sorted = new long[capacity];
+    }
+
+    public void record(long value) {
+        samples[next] = value;
+        next = (next + 1) % samples.length;
+        if (size < samples.length) size++;
+        totalCount++;
+    }
+
+    public void clear() {
+        next = 0;
+        size = 0;
+        totalCount = 0;
+    }
+
+    public int size() { return size; }
+    public long getTotalCount() { return totalCount; }
+
+    // Sorting only happens here, recording stays a single array store.
+    public Summary summarize(double scale) {
+        if (size == 0) return new Summary(totalCount, 0, 0, 0, 0, 0);
+
+        System.arraycopy(samples, 0, sorted, 0, size);
+        Arrays.sort(sorted, 0, size);
+
+        long sum = 0;
+        for (int i = 0; i < size; i++) sum += sorted[i];
+
+        return new Summary(
+                totalCount,
+                sum * scale / size,
+                percentile(0.50) * scale,
+                percentile(0.95) * scale,
+                percentile(0.99) * scale,
+                sorted[size - 1] * scale
+        );
+    }
+
+    private long percentile(double fraction) {
+        int index = (int) Math.ceil(fraction * size) - 1;
+        return sorted[Math.max(0, Math.min(size - 1, index))];
+    }
+
+    public record Summary(long count, double mean, double p50, double p95, double p99, double max) {}
+}
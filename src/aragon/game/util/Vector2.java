@@ -1,10 +1,11 @@
 package aragon.game.util;
 
 public class Vector2 {
-    public static Vector2 one = new Vector2(1, 1);
-    public static Vector2 zero = new Vector2();
-    public static Vector2 xAxis = new Vector2(1, 0);
-    public static Vector2 yAxis = new Vector2(0, 1);
+    // Shared constants, never mutate these in place.
+    public static final Vector2 one = new Vector2(1, 1);
+    public static final Vector2 zero = new Vector2();
+    public static final Vector2 xAxis = new Vector2(1, 0);
+    public static final Vector2 yAxis = new Vector2(0, 1);
 
     public double x, y;
 
@@ -36,6 +37,43 @@ public class Vector2 {
 
     public Vector2 scale(double scalar) { return new Vector2(this.x * scalar, this.y * scalar); }
 
+    // In place operations, these return this vector for chaining.
+    public Vector2 set(double x, double y) {
+        this.x = x;
+        this.y = y;
+        return this;
+    }
+
+    public Vector2 set(Vector2 other) { return set(other.x, other.y); }
+
+    public Vector2 addInPlace(double x, double y) { return set(this.x + x, this.y + y); }
+
+    public Vector2 addInPlace(Vector2 other) { return addInPlace(other.x, other.y); }
+
+    public Vector2 subtractInPlace(Vector2 other) { return set(this.x - other.x, this.y - other.y); }
+
+    public Vector2 multiplyInPlace(Vector2 other) { return set(this.x * other.x, this.y * other.y); }
+
+    public Vector2 scaleInPlace(double scalar) { return set(this.x * scalar, this.y * scalar); }
+
+    public Vector2 normalizeInPlace() {
+        double mag = magnitude();
+        if (mag == 0) {
+            return this;
+        }
+        return set(this.x / mag, this.y / mag);
+    }
+
+    public boolean isZero() {
+        return x == 0 && y == 0;
+    }
+
+    public double distanceTo(double x, double y) {
+        double deltaX = this.x - x;
+        double deltaY = this.y - y;
+        return Math.sqrt(deltaX * deltaX + deltaY * deltaY);
+    }
+
     public double magnitude() {
         return Math.sqrt(x * x + y * y);
     }